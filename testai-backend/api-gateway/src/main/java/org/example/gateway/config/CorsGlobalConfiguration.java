@@ -78,6 +78,8 @@ public class CorsGlobalConfiguration {
         corsConfig.addExposedHeader("X-Total-Count");
         corsConfig.addExposedHeader("X-Page-Number");
         corsConfig.addExposedHeader("X-Page-Size");
+        // Requêtes conditionnelles (If-None-Match) sur les listes d'endpoints
+        corsConfig.addExposedHeader("ETag");
 
         // ========================================
         // CREDENTIALS (COOKIES + AUTHORIZATION)
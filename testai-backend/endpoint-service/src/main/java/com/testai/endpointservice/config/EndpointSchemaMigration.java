@@ -0,0 +1,346 @@
+package com.testai.endpointservice.config;
+
+import com.testai.endpointservice.repository.EndpointRevisionRepository;
+import com.testai.endpointservice.repository.EndpointStatsRepository;
+import com.testai.endpointservice.repository.SchemaBlobRepository;
+import com.testai.endpointservice.service.SchemaBlobStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Évolutions du schéma de la table endpoints propres à PostgreSQL
+ *
+ * ddl-auto=update crée les tables et colonnes manquantes mais ne change jamais
+ * le type d'une colonne existante ni ne sait créer d'index GIN : ces étapes sont
+ * appliquées ici au démarrage, après Hibernate (dépendance sur l'EntityManagerFactory)
+ * et avant que le service ne reçoive des requêtes. Chaque étape est idempotente ;
+ * un verrou consultatif évite que plusieurs instances migrent en même temps.
+ *
+ * - fragments JSON : TEXT -> jsonb, index GIN pour les recherches par paramètre
+ * - clé naturelle : contrainte unique (project_id, method, path), cible de l'ON CONFLICT des
+ *   insertions en masse, créée ici après suppression des doublons (ddl-auto l'abandonne s'il en existe)
+ * - recherche plein texte : colonne tsvector générée (search_vector) et son index GIN
+ * - statistiques : premier calcul des compteurs endpoint_stats pour les endpoints existants
+ * - corps de requête/réponse : copiés vers schema_blobs (dédupliqués), les endpoints ne
+ *   lisent plus que les empreintes ; les anciennes colonnes sont conservées (retour arrière
+ *   possible) et ne sont supprimées que sur demande explicite
+ * - historique : instantané BASELINE (endpoint_revisions) des endpoints qui n'ont pas encore de révision
+ */
+@Component
+@Slf4j
+public class EndpointSchemaMigration {
+
+    private static final long MIGRATION_LOCK_ID = 0x7E57A1_0001L;
+
+    /**
+     * Colonnes JSON historiquement stockées en TEXT
+     */
+    private static final List<String> JSON_COLUMNS = List.of(
+            "parameters", "request_body", "response_body",
+            "resolved_parameters", "resolved_request_body", "resolved_response_body"
+    );
+
+    /**
+     * Conversion tolérante : un texte qui n'est pas du JSON valide (saisie manuelle
+     * antérieure à la validation) est conservé sous forme de chaîne JSON
+     */
+    private static final String TRY_JSONB_FUNCTION = """
+            CREATE OR REPLACE FUNCTION testai_try_jsonb(value text) RETURNS jsonb AS $$
+            BEGIN
+                IF value IS NULL OR btrim(value) = '' THEN
+                    RETURN NULL;
+                END IF;
+                RETURN value::jsonb;
+            EXCEPTION WHEN others THEN
+                RETURN to_jsonb(value);
+            END;
+            $$ LANGUAGE plpgsql IMMUTABLE""";
+
+    /**
+     * Document plein texte d'un endpoint, maintenu par PostgreSQL (colonne générée) :
+     * segments du chemin (poids A), tags (B), description (C). Le chemin est découpé
+     * sur / { } . _ - pour que chaque segment soit un lexème ; configuration 'simple'
+     * (sans racinisation) car les identifiants d'API ne sont pas de la langue naturelle.
+     */
+    private static final String SEARCH_VECTOR_EXPRESSION = """
+            setweight(to_tsvector('simple', translate(coalesce(path, ''), '/{}._-', '      ')), 'A') ||
+            setweight(to_tsvector('simple', coalesce(tags, '')), 'B') ||
+            setweight(to_tsvector('simple', coalesce(description, '')), 'C')""";
+
+    /**
+     * Colonnes de corps (anciennement dans endpoints) -> colonne d'empreinte vers schema_blobs
+     */
+    private static final Map<String, String> BODY_COLUMNS = Map.of(
+            "request_body", "request_body_hash",
+            "response_body", "response_body_hash",
+            "resolved_request_body", "resolved_request_body_hash",
+            "resolved_response_body", "resolved_response_body_hash"
+    );
+
+    private static final int BLOB_BATCH_SIZE = 1000;
+
+    /**
+     * Commentaire posé sur une ancienne colonne de corps une fois sa copie vérifiée
+     */
+    private static final String BODY_COLUMN_MIGRATED = "testai: copiée vers schema_blobs";
+
+    /**
+     * Cible de l'ON CONFLICT de EndpointBatchWriter (même nom que dans l'entité Endpoint)
+     */
+    private static final String NATURAL_KEY_CONSTRAINT = "uk_endpoints_project_method_path";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EndpointStatsRepository endpointStatsRepository;
+    private final SchemaBlobRepository schemaBlobRepository;
+    private final SchemaBlobStore schemaBlobStore;
+    private final EndpointRevisionRepository endpointRevisionRepository;
+    private final boolean dropLegacyBodyColumns;
+
+    public EndpointSchemaMigration(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                   EndpointStatsRepository endpointStatsRepository,
+                                   SchemaBlobRepository schemaBlobRepository,
+                                   SchemaBlobStore schemaBlobStore,
+                                   EndpointRevisionRepository endpointRevisionRepository,
+                                   EntityManagerFactory entityManagerFactory,
+                                   @Value("${endpoints.migration.drop-legacy-body-columns:false}")
+                                   boolean dropLegacyBodyColumns) {
+        // entityManagerFactory : garantit que ddl-auto a déjà créé les tables
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.endpointStatsRepository = endpointStatsRepository;
+        this.schemaBlobRepository = schemaBlobRepository;
+        this.schemaBlobStore = schemaBlobStore;
+        this.endpointRevisionRepository = endpointRevisionRepository;
+        this.dropLegacyBodyColumns = dropLegacyBodyColumns;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + MIGRATION_LOCK_ID + ")");
+            migrateJsonColumns();
+            createNaturalKeyConstraint();
+            moveBodiesToBlobs();
+            dropLegacyBodyColumns();
+            createJsonIndexes();
+            createSearchVector();
+            seedEndpointStats();
+            seedEndpointRevisions();
+        });
+    }
+
+    /**
+     * Compteurs endpoint_stats calculés une fois pour les endpoints antérieurs à leur création,
+     * ensuite maintenus à chaque écriture
+     */
+    private void seedEndpointStats() {
+        if (!endpointStatsRepository.needsSeeding()) {
+            return;
+        }
+
+        log.info("🛠️ Calcul initial des statistiques d'endpoints");
+        endpointStatsRepository.lockForRebuild();
+        int rows = endpointStatsRepository.rebuild(null);
+        log.info("✅ {} compteurs créés", rows);
+    }
+
+    /**
+     * Point de départ de l'historique pour les endpoints qui n'ont encore aucune révision
+     * (après moveBodiesToBlobs : l'instantané lit les corps dans schema_blobs)
+     */
+    private void seedEndpointRevisions() {
+        int baselines = endpointRevisionRepository.insertBaselines();
+        if (baselines > 0) {
+            log.info("✅ {} instantanés d'historique créés pour les endpoints existants", baselines);
+        }
+    }
+
+    /**
+     * TEXT -> jsonb pour les fragments JSON
+     */
+    private void migrateJsonColumns() {
+        List<String> textColumns = jdbcTemplate.queryForList(
+                "SELECT column_name FROM information_schema.columns " +
+                        "WHERE table_schema = current_schema() AND table_name = 'endpoints' " +
+                        "AND data_type IN ('text', 'character varying')",
+                String.class
+        ).stream().filter(JSON_COLUMNS::contains).toList();
+
+        if (textColumns.isEmpty()) {
+            return;
+        }
+
+        log.info("🛠️ Conversion en jsonb des colonnes {} de la table endpoints", textColumns);
+        jdbcTemplate.execute(TRY_JSONB_FUNCTION);
+        for (String column : textColumns) {
+            jdbcTemplate.execute("ALTER TABLE endpoints ALTER COLUMN " + column +
+                    " TYPE jsonb USING testai_try_jsonb(" + column + ")");
+        }
+        log.info("✅ Colonnes converties en jsonb");
+    }
+
+    /**
+     * Contrainte unique (project_id, method, path) : l'endpoint le plus ancien de chaque doublon est conservé,
+     * les autres sont supprimés (compteurs recalculés, suppression historisée)
+     */
+    private void createNaturalKeyConstraint() {
+        Integer existing = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM information_schema.table_constraints " +
+                        "WHERE table_schema = current_schema() AND table_name = 'endpoints' " +
+                        "AND constraint_name = '" + NATURAL_KEY_CONSTRAINT + "'",
+                Integer.class);
+        if (existing != null && existing > 0) {
+            return;
+        }
+
+        log.info("🛠️ Création de la contrainte {} sur la table endpoints", NATURAL_KEY_CONSTRAINT);
+        boolean statsSeeded = !endpointStatsRepository.needsSeeding();
+        List<Map<String, Object>> duplicates = jdbcTemplate.queryForList(
+                "DELETE FROM endpoints e USING (" +
+                        "SELECT id, row_number() OVER (PARTITION BY project_id, method, path ORDER BY created_at, id) AS row_num " +
+                        "FROM endpoints) d WHERE e.id = d.id AND d.row_num > 1 RETURNING e.id, e.project_id");
+        if (!duplicates.isEmpty()) {
+            List<UUID> ids = duplicates.stream().map(row -> (UUID) row.get("id")).toList();
+            endpointRevisionRepository.insertDeletions(ids, LocalDateTime.now());
+            if (statsSeeded) {
+                endpointStatsRepository.lockForRebuild();
+                duplicates.stream().map(row -> (UUID) row.get("project_id")).distinct()
+                        .forEach(endpointStatsRepository::rebuild);
+            }
+            log.warn("⚠️ {} endpoints en double (même projet, méthode et chemin) supprimés", duplicates.size());
+        }
+
+        jdbcTemplate.execute("ALTER TABLE endpoints ADD CONSTRAINT " + NATURAL_KEY_CONSTRAINT +
+                " UNIQUE (project_id, method, path)");
+        log.info("✅ Contrainte {} créée", NATURAL_KEY_CONSTRAINT);
+    }
+
+    /**
+     * Corps stockés dans endpoints -> schema_blobs
+     *
+     * Chaque contenu distinct est normalisé et haché une seule fois (même forme que SchemaBlobStore),
+     * puis les empreintes manquantes sont reportées par jointure sur une table temporaire contenu -> empreinte.
+     * La copie est vérifiée (aucune ligne avec un corps sans empreinte) avant de marquer la colonne
+     * comme migrée : une colonne marquée n'est plus relue (l'application ne l'écrit plus, son contenu
+     * peut être périmé). La colonne elle-même est conservée.
+     */
+    private void moveBodiesToBlobs() {
+        List<String> bodyColumns = legacyBodyColumns(false);
+        if (bodyColumns.isEmpty()) {
+            return;
+        }
+
+        log.info("🛠️ Copie des colonnes {} de la table endpoints vers schema_blobs", bodyColumns);
+        jdbcTemplate.execute("CREATE TEMPORARY TABLE schema_blob_mapping (content jsonb, hash varchar(64)) ON COMMIT DROP");
+        for (String column : bodyColumns) {
+            String hashColumn = BODY_COLUMNS.get(column);
+            jdbcTemplate.execute("TRUNCATE schema_blob_mapping");
+
+            Map<String, String> blobs = new HashMap<>();
+            List<Object[]> mapping = new ArrayList<>();
+            jdbcTemplate.query("SELECT DISTINCT " + column + "::text FROM endpoints " +
+                    "WHERE " + column + " IS NOT NULL AND " + hashColumn + " IS NULL", rs -> {
+                String content = rs.getString(1);
+                String canonical = schemaBlobStore.normalize(content);
+                String hash = schemaBlobStore.sha256(canonical);
+                blobs.putIfAbsent(hash, canonical);
+                mapping.add(new Object[]{content, hash});
+                if (mapping.size() == BLOB_BATCH_SIZE) {
+                    flushBlobMapping(blobs, mapping);
+                }
+            });
+            flushBlobMapping(blobs, mapping);
+
+            int rows = jdbcTemplate.update("UPDATE endpoints e SET " + hashColumn + " = m.hash " +
+                    "FROM schema_blob_mapping m WHERE e." + column + " = m.content AND e." + hashColumn + " IS NULL");
+            Long missing = jdbcTemplate.queryForObject("SELECT count(*) FROM endpoints " +
+                    "WHERE " + column + " IS NOT NULL AND " + hashColumn + " IS NULL", Long.class);
+            if (missing != null && missing > 0) {
+                // Annule toute la migration : la colonne reste la source et sera recopiée au prochain démarrage
+                throw new IllegalStateException(missing + " endpoints sans empreinte après copie de " + column);
+            }
+            jdbcTemplate.execute("COMMENT ON COLUMN endpoints." + column + " IS '" + BODY_COLUMN_MIGRATED + "'");
+            log.info("✅ {} : {} endpoints référencent désormais schema_blobs (colonne conservée)", column, rows);
+        }
+    }
+
+    /**
+     * Suppression des anciennes colonnes de corps, uniquement si endpoints.migration.drop-legacy-body-columns
+     * est activé et seulement pour celles dont la copie a été vérifiée par moveBodiesToBlobs
+     */
+    private void dropLegacyBodyColumns() {
+        if (!dropLegacyBodyColumns) {
+            return;
+        }
+        for (String column : legacyBodyColumns(true)) {
+            jdbcTemplate.execute("ALTER TABLE endpoints DROP COLUMN " + column);
+            log.info("🗑️ Ancienne colonne endpoints.{} supprimée", column);
+        }
+    }
+
+    /**
+     * Anciennes colonnes de corps encore présentes, déjà copiées (migrated) ou non
+     */
+    private List<String> legacyBodyColumns(boolean migrated) {
+        return jdbcTemplate.query(
+                "SELECT column_name, col_description(format('%I.%I', table_schema, table_name)::regclass, " +
+                        "ordinal_position::int) FROM information_schema.columns " +
+                        "WHERE table_schema = current_schema() AND table_name = 'endpoints'",
+                (rs, rowNum) -> BODY_COLUMNS.containsKey(rs.getString(1))
+                        && BODY_COLUMN_MIGRATED.equals(rs.getString(2)) == migrated ? rs.getString(1) : null
+        ).stream().filter(Objects::nonNull).toList();
+    }
+
+    private void flushBlobMapping(Map<String, String> blobs, List<Object[]> mapping) {
+        if (!blobs.isEmpty()) {
+            schemaBlobRepository.upsertAll(blobs);
+        }
+        if (!mapping.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO schema_blob_mapping (content, hash) VALUES (?::jsonb, ?)", mapping);
+        }
+        blobs.clear();
+        mapping.clear();
+    }
+
+    /**
+     * Index GIN (jsonb_path_ops) pour les recherches par containment (@>) sur les paramètres
+     */
+    private void createJsonIndexes() {
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_endpoints_parameters_gin " +
+                "ON endpoints USING gin (parameters jsonb_path_ops)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_endpoints_resolved_parameters_gin " +
+                "ON endpoints USING gin (resolved_parameters jsonb_path_ops)");
+    }
+
+    /**
+     * Colonne tsvector générée et son index GIN pour la recherche plein texte
+     */
+    private void createSearchVector() {
+        Integer existing = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM information_schema.columns " +
+                        "WHERE table_schema = current_schema() AND table_name = 'endpoints' " +
+                        "AND column_name = 'search_vector'",
+                Integer.class);
+        if (existing == null || existing == 0) {
+            log.info("🛠️ Ajout de la colonne search_vector (recherche plein texte) à la table endpoints");
+            jdbcTemplate.execute("ALTER TABLE endpoints ADD COLUMN search_vector tsvector " +
+                    "GENERATED ALWAYS AS (" + SEARCH_VECTOR_EXPRESSION + ") STORED");
+        }
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_endpoints_search_gin " +
+                "ON endpoints USING gin (search_vector)");
+    }
+}
@@ -1,20 +1,40 @@
 package com.testai.endpointservice.controller;
 
+import com.testai.endpointservice.dto.BulkEndpointRequest;
 import com.testai.endpointservice.dto.CreateEndpointRequest;
 import com.testai.endpointservice.dto.EndpointDTO;
+import com.testai.endpointservice.dto.EndpointRevisionDTO;
+import com.testai.endpointservice.dto.EndpointStatsDTO;
+import com.testai.endpointservice.dto.EndpointView;
+import com.testai.endpointservice.dto.PathConflict;
+import com.testai.endpointservice.dto.ProjectBatchRequest;
+import com.testai.endpointservice.dto.ScanJobDTO;
 import com.testai.endpointservice.dto.ScanSwaggerRequest;
-import com.testai.endpointservice.dto.ScanSwaggerResponse;
 import com.testai.endpointservice.entity.Endpoint;
+import com.testai.endpointservice.service.EndpointExportService;
 import com.testai.endpointservice.service.EndpointService;
-import com.testai.endpointservice.service.SwaggerScannerService;
+import com.testai.endpointservice.service.ScanJobService;
+import com.testai.endpointservice.service.ScanScheduler;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Contrôleur pour gérer les endpoints
@@ -23,36 +43,71 @@ import java.util.UUID;
 @RequestMapping("/api/endpoints")
 @RequiredArgsConstructor
 @Slf4j
-@CrossOrigin(origins = "*", allowedHeaders = "*")
+@CrossOrigin(origins = "*", allowedHeaders = "*", exposedHeaders = HttpHeaders.ETAG)
 public class EndpointController {
 
     private final EndpointService endpointService;
-    private final SwaggerScannerService swaggerScannerService;
+    private final EndpointExportService endpointExportService;
+    private final ScanJobService scanJobService;
+    private final ScanScheduler scanScheduler;
 
     /**
-     * Scanner les endpoints depuis une URL Swagger
+     * Soumettre un scan des endpoints depuis une URL Swagger
      * POST /api/endpoints/scan
+     *
+     * Le scan est exécuté en arrière-plan : la réponse (202) contient l'ID du job.
+     * Le projet est ensuite rescanné périodiquement.
      */
     @PostMapping("/scan")
-    public ResponseEntity<ScanSwaggerResponse> scanSwagger(@RequestBody ScanSwaggerRequest request) {
+    public ResponseEntity<?> scanSwagger(@RequestBody ScanSwaggerRequest request) {
         log.info("🔍 Demande de scan Swagger pour le projet {}", request.getProjectId());
 
         try {
-            ScanSwaggerResponse response = swaggerScannerService.scanSwagger(
-                    request.getProjectId(),
-                    request.getSwaggerUrl()
-            );
-            return ResponseEntity.ok(response);
+            scanScheduler.register(request.getProjectId(), request.getSwaggerUrl());
+            ScanJobDTO job = scanJobService.submitScan(request);
+            return ResponseEntity.accepted().body(job);
+
+        } catch (RejectedExecutionException e) {
+            log.warn("⚠️ Scan refusé : {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(Map.of(
+                    "success", false,
+                    "message", e.getMessage()
+            ));
+
+        } catch (Exception e) {
+            log.error("❌ Erreur lors de la soumission du scan Swagger : {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", "Erreur : " + e.getMessage()
+            ));
+        }
+    }
+
+    /**
+     * Récupérer l'état d'un job de scan
+     * GET /api/endpoints/scan/{jobId}
+     */
+    @GetMapping("/scan/{jobId}")
+    public ResponseEntity<?> getScanJob(@PathVariable UUID jobId) {
+        try {
+            return ResponseEntity.ok(scanJobService.getScanJob(jobId));
+
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Suivre la progression d'un job de scan (Server-Sent Events)
+     * GET /api/endpoints/scan/{jobId}/events
+     */
+    @GetMapping(path = "/scan/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamScanJob(@PathVariable UUID jobId) {
+        try {
+            return ResponseEntity.ok(scanJobService.subscribe(jobId));
 
         } catch (Exception e) {
-            log.error("❌ Erreur lors du scan Swagger : {}", e.getMessage());
-            ScanSwaggerResponse errorResponse = new ScanSwaggerResponse(
-                    false,
-                    "Erreur : " + e.getMessage(),
-                    0, 0, 0, 0,
-                    null
-            );
-            return ResponseEntity.badRequest().body(errorResponse);
+            return ResponseEntity.notFound().build();
         }
     }
 
@@ -78,32 +133,124 @@ public class EndpointController {
     }
 
     /**
-     * Récupérer tous les endpoints d'un projet
-     * GET /api/endpoints/project/{projectId}
+     * Récupérer les endpoints d'un projet, page par page
+     * GET /api/endpoints/project/{projectId}?cursor=...&size=50&view=summary
+     *
+     * Réponse avec ETag (version des endpoints du projet) : If-None-Match -> 304
      */
     @GetMapping("/project/{projectId}")
-    public ResponseEntity<List<EndpointDTO>> getEndpointsByProjectId(@PathVariable UUID projectId) {
+    public ResponseEntity<?> getEndpointsByProjectId(
+            @PathVariable UUID projectId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String view,
+            WebRequest webRequest) {
         log.info("📋 Récupération des endpoints du projet {}", projectId);
 
-        List<EndpointDTO> endpoints = endpointService.getEndpointsByProjectId(projectId);
-        return ResponseEntity.ok(endpoints);
+        try {
+            // Liste inchangée depuis la version connue du client : 304 sans lire les endpoints.
+            // La version est lue avant la page et en fait partie de la clé de cache :
+            // la page envoyée n'est jamais plus ancienne que son ETag
+            long version = endpointService.getProjectVersion(projectId);
+            String etag = endpointService.getProjectEtag(version);
+            if (webRequest.checkNotModified(etag)) {
+                return null;
+            }
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .body(endpointService.getEndpointsByProjectId(projectId, version, cursor, size,
+                            EndpointView.from(view)));
+
+        } catch (IllegalArgumentException e) {
+            return badRequest(e);
+        }
     }
 
     /**
-     * Récupérer tous les endpoints
-     * GET /api/endpoints
+     * Récupérer tous les endpoints, page par page
+     * GET /api/endpoints?cursor=...&size=50&view=summary
      */
     @GetMapping
-    public ResponseEntity<List<EndpointDTO>> getAllEndpoints() {
+    public ResponseEntity<?> getAllEndpoints(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String view) {
         log.info("📋 Récupération de tous les endpoints");
 
-        List<EndpointDTO> endpoints = endpointService.getAllEndpoints();
-        return ResponseEntity.ok(endpoints);
+        try {
+            return ResponseEntity.ok(endpointService.getAllEndpoints(cursor, size, EndpointView.from(view)));
+
+        } catch (IllegalArgumentException e) {
+            return badRequest(e);
+        }
     }
 
     /**
-     * Récupérer un endpoint par son ID
+     * Exporter les endpoints en NDJSON (un endpoint par ligne), en flux
+     * GET /api/endpoints/export?projectId=...&method=GET&updatedSince=2024-01-01T00:00:00
+     *
+     * La réponse est écrite au fil de la lecture en base : la mémoire consommée
+     * ne dépend pas du nombre d'endpoints exportés.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportEndpoints(
+            @RequestParam(required = false) UUID projectId,
+            @RequestParam(required = false) Endpoint.HttpMethod method,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedSince,
+            HttpServletResponse response) throws IOException {
+        log.info("📤 Export NDJSON des endpoints");
+
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        endpointExportService.export(projectId, method, updatedSince, response.getOutputStream());
+    }
+
+    /**
+     * Rechercher les endpoints qui déclarent un paramètre
+     * GET /api/endpoints/search?param=customerId&in=query&projectId=...&cursor=...&size=50
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchByParameter(
+            @RequestParam String param,
+            @RequestParam(name = "in", required = false) String location,
+            @RequestParam(required = false) UUID projectId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        log.info("🔎 Recherche des endpoints avec le paramètre {}", param);
+
+        try {
+            return ResponseEntity.ok(endpointService.searchByParameter(param, location, projectId, cursor, size));
+
+        } catch (IllegalArgumentException e) {
+            return badRequest(e);
+        }
+    }
+
+    /**
+     * Recherche plein texte (chemin, tags, description), triée par pertinence
+     * GET /api/endpoints/search/text?q=orders id&projectId=...&size=50
+     */
+    @GetMapping("/search/text")
+    public ResponseEntity<?> searchByText(
+            @RequestParam String q,
+            @RequestParam(required = false) UUID projectId,
+            @RequestParam(required = false) Integer size) {
+        log.info("🔎 Recherche plein texte des endpoints : {}", q);
+
+        try {
+            return ResponseEntity.ok(endpointService.searchByText(q, projectId, size));
+
+        } catch (IllegalArgumentException e) {
+            return badRequest(e);
+        }
+    }
+
+    /**
+     * Récupérer le détail complet d'un endpoint par son ID
      * GET /api/endpoints/{id}
+     *
+     * Complète les listes en vue summary, qui n'incluent pas les fragments JSON
      */
     @GetMapping("/{id}")
     public ResponseEntity<?> getEndpointById(@PathVariable UUID id) {
@@ -119,28 +266,80 @@ public class EndpointController {
     }
 
     /**
-     * Récupérer les endpoints par méthode HTTP
-     * GET /api/endpoints/method/{method}
+     * Historique des révisions d'un endpoint (instantanés et JSON Patch), y compris après suppression
+     * GET /api/endpoints/{id}/revisions
+     */
+    @GetMapping("/{id}/revisions")
+    public ResponseEntity<?> getRevisions(@PathVariable UUID id) {
+        try {
+            List<EndpointRevisionDTO> revisions = endpointService.getRevisions(id);
+            return ResponseEntity.ok(revisions);
+
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Récupérer un endpoint tel qu'il était à une date ou à la fin d'un job de scan
+     * GET /api/endpoints/{id}/as-of?at=2024-01-01T00:00:00
+     * GET /api/endpoints/{id}/as-of?scanId=...
+     */
+    @GetMapping("/{id}/as-of")
+    public ResponseEntity<?> getEndpointAsOf(
+            @PathVariable UUID id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at,
+            @RequestParam(required = false) UUID scanId) {
+        try {
+            return ResponseEntity.ok(endpointService.getEndpointAsOf(id, at, scanId));
+
+        } catch (IllegalArgumentException e) {
+            return badRequest(e);
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Récupérer les endpoints par méthode HTTP, page par page
+     * GET /api/endpoints/method/{method}?cursor=...&size=50&view=summary
      */
     @GetMapping("/method/{method}")
-    public ResponseEntity<List<EndpointDTO>> getEndpointsByMethod(@PathVariable Endpoint.HttpMethod method) {
+    public ResponseEntity<?> getEndpointsByMethod(
+            @PathVariable Endpoint.HttpMethod method,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String view) {
         log.info("📋 Récupération des endpoints avec la méthode {}", method);
 
-        List<EndpointDTO> endpoints = endpointService.getEndpointsByMethod(method);
-        return ResponseEntity.ok(endpoints);
+        try {
+            return ResponseEntity.ok(endpointService.getEndpointsByMethod(
+                    method, cursor, size, EndpointView.from(view)));
+
+        } catch (IllegalArgumentException e) {
+            return badRequest(e);
+        }
     }
 
     /**
-     * Récupérer les endpoints par type de découverte
-     * GET /api/endpoints/discovery/{type}
+     * Récupérer les endpoints par type de découverte, page par page
+     * GET /api/endpoints/discovery/{type}?cursor=...&size=50&view=summary
      */
     @GetMapping("/discovery/{type}")
-    public ResponseEntity<List<EndpointDTO>> getEndpointsByDiscoveryType(
-            @PathVariable Endpoint.DiscoveryType type) {
+    public ResponseEntity<?> getEndpointsByDiscoveryType(
+            @PathVariable Endpoint.DiscoveryType type,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String view) {
         log.info("📋 Récupération des endpoints découverts par {}", type);
 
-        List<EndpointDTO> endpoints = endpointService.getEndpointsByDiscoveryType(type);
-        return ResponseEntity.ok(endpoints);
+        try {
+            return ResponseEntity.ok(endpointService.getEndpointsByDiscoveryType(
+                    type, cursor, size, EndpointView.from(view)));
+
+        } catch (IllegalArgumentException e) {
+            return badRequest(e);
+        }
     }
 
     /**
@@ -189,6 +388,25 @@ public class EndpointController {
         }
     }
 
+    /**
+     * Opération en masse sur les endpoints correspondant à un filtre
+     * POST /api/endpoints/bulk
+     *
+     * Ex. {"action": "SET_REQUIRES_AUTH", "filter": {"projectId": "...", "pathPrefix": "/admin"}, "requiresAuth": true}
+     * Réponse : nombre d'endpoints supprimés ou réellement modifiés
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<?> bulk(@RequestBody BulkEndpointRequest request) {
+        log.info("📦 Opération en masse {} sur les endpoints", request.getAction());
+
+        try {
+            return ResponseEntity.ok(endpointService.bulk(request));
+
+        } catch (IllegalArgumentException e) {
+            return badRequest(e);
+        }
+    }
+
     /**
      * Supprimer tous les endpoints d'un projet
      * DELETE /api/endpoints/project/{projectId}
@@ -212,6 +430,37 @@ public class EndpointController {
         }
     }
 
+    /**
+     * Attribuer une URL observée à l'endpoint du projet qui la déclare
+     * GET /api/endpoints/project/{projectId}/match?method=GET&url=/api/users/42/orders/7
+     *
+     * Signale aussi les templates ambigus ou qui se chevauchent pour cette URL
+     */
+    @GetMapping("/project/{projectId}/match")
+    public ResponseEntity<?> matchPath(
+            @PathVariable UUID projectId,
+            @RequestParam(required = false) String method,
+            @RequestParam String url) {
+        log.info("🧭 Attribution de l'URL {} {} au projet {}", method, url, projectId);
+
+        try {
+            return ResponseEntity.ok(endpointService.matchPath(projectId, method, url));
+
+        } catch (IllegalArgumentException e) {
+            return badRequest(e);
+        }
+    }
+
+    /**
+     * Lister les templates de chemin indiscernables d'un projet
+     * GET /api/endpoints/project/{projectId}/match/conflicts
+     */
+    @GetMapping("/project/{projectId}/match/conflicts")
+    public ResponseEntity<List<PathConflict>> getPathConflicts(@PathVariable UUID projectId) {
+        log.info("🧭 Recherche des templates ambigus du projet {}", projectId);
+        return ResponseEntity.ok(endpointService.getPathConflicts(projectId));
+    }
+
     /**
      * Compter les endpoints d'un projet
      * GET /api/endpoints/project/{projectId}/count
@@ -226,4 +475,72 @@ public class EndpointController {
                 "count", count
         ));
     }
-}
\ No newline at end of file
+
+    /**
+     * Compter les endpoints de plusieurs projets en un seul appel
+     * POST /api/endpoints/counts  {"projectIds": [...]}
+     *
+     * Réponse : {projectId: count}, 0 pour un projet sans endpoint
+     */
+    @PostMapping("/counts")
+    public ResponseEntity<?> countEndpointsByProjectIds(@RequestBody ProjectBatchRequest request) {
+        log.info("🔢 Comptage groupé des endpoints");
+
+        try {
+            return ResponseEntity.ok(endpointService.countEndpointsByProjectIds(request.getProjectIds()));
+
+        } catch (IllegalArgumentException e) {
+            return badRequest(e);
+        }
+    }
+
+    /**
+     * Récupérer la première page (vue summary) des endpoints de plusieurs projets en un seul appel
+     * POST /api/endpoints/batch  {"projectIds": [...], "size": 50}
+     *
+     * Réponse : {projectId: {items, next, hasMore}} ; next se poursuit avec GET /api/endpoints/project/{projectId}
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<?> getEndpointsByProjectIds(@RequestBody ProjectBatchRequest request) {
+        log.info("📋 Récupération groupée des endpoints");
+
+        try {
+            return ResponseEntity.ok(endpointService.getEndpointsByProjectIds(request.getProjectIds(),
+                    request.getSize()));
+
+        } catch (IllegalArgumentException e) {
+            return badRequest(e);
+        }
+    }
+
+    /**
+     * Statistiques des endpoints : nombre par méthode, type de découverte, tag et authentification
+     * GET /api/endpoints/stats?projectId=...  (sans projectId : tous les projets)
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<EndpointStatsDTO> getStats(@RequestParam(required = false) UUID projectId) {
+        return ResponseEntity.ok(endpointService.getStats(projectId));
+    }
+
+    /**
+     * Reconstruire les compteurs de statistiques depuis la table endpoints (correction d'une dérive)
+     * POST /api/endpoints/stats/rebuild?projectId=...  (sans projectId : tous les projets)
+     */
+    @PostMapping("/stats/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildStats(@RequestParam(required = false) UUID projectId) {
+        log.info("🧮 Demande de reconstruction des statistiques ({})", projectId != null ? projectId : "tous les projets");
+
+        int counters = endpointService.rebuildStats(projectId);
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "counters", counters
+        ));
+    }
+
+    private ResponseEntity<Map<String, Object>> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+        ));
+    }
+}
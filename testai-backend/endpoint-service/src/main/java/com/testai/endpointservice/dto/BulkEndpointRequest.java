@@ -0,0 +1,56 @@
+package com.testai.endpointservice.dto;
+
+import com.testai.endpointservice.entity.Endpoint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTO pour une opération en masse sur les endpoints correspondant à un filtre
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkEndpointRequest {
+
+    public enum Action {
+        /**
+         * Supprimer les endpoints
+         */
+        DELETE,
+        /**
+         * Remplacer les tags (tags vide ou absent : les effacer)
+         */
+        SET_TAGS,
+        /**
+         * Ajouter un tag aux endpoints qui ne l'ont pas encore
+         */
+        ADD_TAG,
+        /**
+         * Modifier requiresAuth
+         */
+        SET_REQUIRES_AUTH
+    }
+
+    private Action action;
+    private Filter filter;
+    private String tags;
+    private Boolean requiresAuth;
+
+    /**
+     * Critères combinés par ET ; au moins un critère est obligatoire
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Filter {
+        private UUID projectId;
+        private List<UUID> ids;
+        private Endpoint.HttpMethod method;
+        private Endpoint.DiscoveryType discoveryType;
+        private String pathPrefix;
+    }
+}
@@ -0,0 +1,26 @@
+package com.testai.endpointservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO pour le résultat d'une opération en masse
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkEndpointResult {
+    private boolean success;
+    private BulkEndpointRequest.Action action;
+    /**
+     * Nombre d'endpoints supprimés ou réellement modifiés
+     */
+    private int affected;
+    /**
+     * Nombre de projets touchés
+     */
+    private int projects;
+}
@@ -1,6 +1,7 @@
 package com.testai.endpointservice.dto;
 
 import com.testai.endpointservice.entity.Endpoint;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -9,6 +10,8 @@ import java.util.UUID;
 
 /**
  * DTO pour créer un endpoint manuellement
+ *
+ * Les fragments JSON sont acceptés embarqués (comme dans EndpointDTO) ou encodés en chaîne.
  */
 @Data
 @NoArgsConstructor
@@ -19,8 +22,11 @@ public class CreateEndpointRequest {
     private String path;
     private String description;
     private String tags;
+    @JsonDeserialize(using = RawJsonDeserializer.class)
     private String parameters;
+    @JsonDeserialize(using = RawJsonDeserializer.class)
     private String requestBody;
+    @JsonDeserialize(using = RawJsonDeserializer.class)
     private String responseBody;
     private String statusCodes;
     private Boolean requiresAuth;
@@ -0,0 +1,24 @@
+package com.testai.endpointservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Page d'une liste paginée par curseur
+ *
+ * next est null sur la dernière page ; sinon il est à renvoyer tel quel
+ * dans le paramètre cursor pour obtenir la page suivante.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CursorPage<T> {
+    private List<T> items;
+    private String next;
+    private boolean hasMore;
+}
@@ -0,0 +1,53 @@
+package com.testai.endpointservice.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position dans une liste d'endpoints triée par (createdAt, id)
+ *
+ * Transmise au client sous forme d'un curseur opaque (Base64 URL-safe) :
+ * la page suivante commence strictement après cette position.
+ */
+public record EndpointCursor(LocalDateTime createdAt, UUID id) {
+
+    /**
+     * Position précédant tous les endpoints (première page)
+     */
+    public static final EndpointCursor START =
+            new EndpointCursor(LocalDateTime.of(1970, 1, 1, 0, 0), new UUID(0L, 0L));
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Encoder la position en curseur opaque
+     */
+    public String encode() {
+        String raw = createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Décoder un curseur reçu du client (null ou vide : première page)
+     *
+     * @throws IllegalArgumentException si le curseur est invalide
+     */
+    public static EndpointCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return START;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            return new EndpointCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    UUID.fromString(raw.substring(separator + 1))
+            );
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Curseur de pagination invalide");
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.testai.endpointservice.dto;
 
 import com.testai.endpointservice.entity.Endpoint;
+import com.fasterxml.jackson.annotation.JsonRawValue;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -11,6 +12,9 @@ import java.util.UUID;
 
 /**
  * DTO pour retourner un endpoint
+ *
+ * Les fragments JSON (parameters, requestBody...) sont stockés en jsonb, donc toujours valides :
+ * ils sont écrits tels quels dans la réponse (@JsonRawValue) au lieu d'être encodés en chaîne.
  */
 @Data
 @NoArgsConstructor
@@ -24,9 +28,18 @@ public class EndpointDTO {
     private String description;
     private Endpoint.DiscoveryType discoveryType;
     private String tags;
+    @JsonRawValue
     private String parameters;
+    @JsonRawValue
     private String requestBody;
+    @JsonRawValue
     private String responseBody;
+    @JsonRawValue
+    private String resolvedParameters;
+    @JsonRawValue
+    private String resolvedRequestBody;
+    @JsonRawValue
+    private String resolvedResponseBody;
     private String statusCodes;
     private Boolean requiresAuth;
     private LocalDateTime createdAt;
@@ -0,0 +1,21 @@
+package com.testai.endpointservice.dto;
+
+import com.testai.endpointservice.entity.Endpoint;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Projection légère d'un endpoint existant, utilisée par le scan pour
+ * détecter les doublons et les opérations modifiées
+ */
+public interface EndpointKey {
+    UUID getId();
+    Endpoint.HttpMethod getMethod();
+    String getPath();
+    Endpoint.DiscoveryType getDiscoveryType();
+    String getContentHash();
+    String getTags();
+    Boolean getRequiresAuth();
+    LocalDateTime getCreatedAt();
+}
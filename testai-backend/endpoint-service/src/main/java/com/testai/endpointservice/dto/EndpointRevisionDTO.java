@@ -0,0 +1,32 @@
+package com.testai.endpointservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.testai.endpointservice.entity.EndpointRevision;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * DTO d'une révision d'endpoint
+ *
+ * content est la définition complète si snapshot, sinon le JSON Patch appliqué à la révision
+ * précédente (null pour DELETED).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EndpointRevisionDTO {
+    private UUID endpointId;
+    private int revision;
+    private EndpointRevision.ChangeType changeType;
+    private boolean snapshot;
+    private UUID scanJobId;
+    @JsonRawValue
+    private String content;
+    private LocalDateTime createdAt;
+}
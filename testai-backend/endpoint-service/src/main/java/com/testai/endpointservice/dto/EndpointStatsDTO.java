@@ -0,0 +1,27 @@
+package com.testai.endpointservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * DTO des statistiques des endpoints d'un projet (projectId null : tous les projets)
+ *
+ * byRequiresAuth est indexé par "true" / "false" ; byTag est trié par nombre décroissant.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EndpointStatsDTO {
+    private UUID projectId;
+    private long total;
+    private Map<String, Long> byMethod;
+    private Map<String, Long> byDiscoveryType;
+    private Map<String, Long> byRequiresAuth;
+    private Map<String, Long> byTag;
+}
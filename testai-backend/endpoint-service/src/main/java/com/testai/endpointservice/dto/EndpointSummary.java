@@ -0,0 +1,25 @@
+package com.testai.endpointservice.dto;
+
+import com.testai.endpointservice.entity.Endpoint;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Projection d'un endpoint pour les vues liste : uniquement les colonnes
+ * étroites, sans les fragments JSON (parameters, requestBody, responseBody...)
+ * qui restent disponibles via GET /api/endpoints/{id}
+ */
+public interface EndpointSummary {
+    UUID getId();
+    UUID getProjectId();
+    Endpoint.HttpMethod getMethod();
+    String getPath();
+    String getDescription();
+    Endpoint.DiscoveryType getDiscoveryType();
+    String getTags();
+    String getStatusCodes();
+    Boolean getRequiresAuth();
+    LocalDateTime getCreatedAt();
+    LocalDateTime getUpdatedAt();
+}
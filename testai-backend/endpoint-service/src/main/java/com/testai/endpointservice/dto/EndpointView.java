@@ -0,0 +1,26 @@
+package com.testai.endpointservice.dto;
+
+/**
+ * Niveau de détail des listes d'endpoints (?view=)
+ */
+public enum EndpointView {
+    FULL,     // Endpoints complets (EndpointDTO)
+    SUMMARY;  // Colonnes étroites seulement (EndpointSummary)
+
+    /**
+     * Lire le paramètre de requête (null ou vide : FULL)
+     *
+     * @throws IllegalArgumentException si la vue est inconnue
+     */
+    public static EndpointView from(String view) {
+        if (view == null || view.isBlank()) {
+            return FULL;
+        }
+        for (EndpointView value : values()) {
+            if (value.name().equalsIgnoreCase(view.trim())) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Vue inconnue : " + view);
+    }
+}
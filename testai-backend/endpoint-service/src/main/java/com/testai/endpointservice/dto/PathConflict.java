@@ -0,0 +1,23 @@
+package com.testai.endpointservice.dto;
+
+import com.testai.endpointservice.entity.Endpoint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Templates d'un projet indiscernables pour une méthode : ils ne diffèrent que par
+ * le nom de leurs paramètres (ex. /users/{id} et /users/{userId}), toute URL qui
+ * correspond à l'un correspond aussi aux autres
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PathConflict {
+    private Endpoint.HttpMethod method;
+    private List<String> paths;
+}
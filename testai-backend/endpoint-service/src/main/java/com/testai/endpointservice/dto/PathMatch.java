@@ -0,0 +1,46 @@
+package com.testai.endpointservice.dto;
+
+import com.testai.endpointservice.entity.Endpoint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Résultat de l'attribution d'une URL concrète à un template de chemin
+ *
+ * - match : le template le plus spécifique (segments littéraux d'abord)
+ * - ambiguous : un autre template de même spécificité correspond aussi
+ *   (ex. /users/{id} et /users/{name} déclarés pour la même méthode)
+ * - alternatives : les autres templates qui correspondent (chevauchements), du plus au moins spécifique
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PathMatch {
+    private String url;
+    private Endpoint.HttpMethod method;
+    private boolean matched;
+    private boolean ambiguous;
+    private Template match;
+    private List<Template> alternatives;
+
+    /**
+     * Template correspondant, avec les valeurs extraites de l'URL
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Template {
+        private UUID endpointId;
+        private Endpoint.HttpMethod method;
+        private String path;
+        private Map<String, String> pathParameters;
+    }
+}
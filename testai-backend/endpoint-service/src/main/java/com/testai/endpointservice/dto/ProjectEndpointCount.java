@@ -0,0 +1,11 @@
+package com.testai.endpointservice.dto;
+
+import java.util.UUID;
+
+/**
+ * Projection du nombre d'endpoints d'un projet (comptage groupé)
+ */
+public interface ProjectEndpointCount {
+    UUID getProjectId();
+    long getCount();
+}
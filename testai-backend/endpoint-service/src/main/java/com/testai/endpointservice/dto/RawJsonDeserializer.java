@@ -0,0 +1,32 @@
+package com.testai.endpointservice.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+/**
+ * Lire un fragment JSON embarqué (objet, tableau...) sous forme de texte brut
+ *
+ * Pendant de @JsonRawValue : les jetons sont recopiés tels quels, sans construire d'arbre.
+ * Une chaîne JSON est acceptée telle quelle (ancien format, fragment encodé en chaîne).
+ */
+public class RawJsonDeserializer extends JsonDeserializer<String> {
+
+    @Override
+    public String deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_STRING) {
+            return parser.getText();
+        }
+
+        StringWriter json = new StringWriter();
+        try (JsonGenerator generator = parser.getCodec().getFactory().createGenerator(json)) {
+            generator.copyCurrentStructure(parser);
+        }
+        return json.toString();
+    }
+}
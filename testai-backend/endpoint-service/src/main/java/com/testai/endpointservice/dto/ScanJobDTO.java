@@ -0,0 +1,34 @@
+package com.testai.endpointservice.dto;
+
+import com.testai.endpointservice.entity.ScanJob;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * DTO pour retourner l'état d'un job de scan
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ScanJobDTO {
+    private UUID jobId;
+    private UUID projectId;
+    private String swaggerUrl;
+    private ScanJob.Status status;
+    private ScanJob.Trigger trigger;
+    private int processedOperations;
+    private int totalEndpoints;
+    private int newEndpoints;
+    private int updatedEndpoints;
+    private int skippedEndpoints;
+    private String message;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
@@ -2,15 +2,30 @@ package com.testai.endpointservice.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 /**
  * Entité représentant un endpoint d'un service
+ *
+ * Les paramètres sont stockés en jsonb (voir EndpointSchemaMigration pour la conversion
+ * des anciennes colonnes TEXT et les index GIN). Les corps de requête et de réponse sont
+ * dédupliqués dans schema_blobs : la ligne ne garde que leurs empreintes, les champs
+ * correspondants sont transients (voir SchemaBlobStore).
  */
 @Entity
-@Table(name = "endpoints")
+@Table(name = "endpoints", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_endpoints_project_method_path", columnNames = {"project_id", "method", "path"})
+}, indexes = {
+        // Pagination par curseur (createdAt, id), globale et par filtre
+        @Index(name = "idx_endpoints_created_id", columnList = "created_at, id"),
+        @Index(name = "idx_endpoints_project_created_id", columnList = "project_id, created_at, id"),
+        @Index(name = "idx_endpoints_method_created_id", columnList = "method, created_at, id"),
+        @Index(name = "idx_endpoints_discovery_created_id", columnList = "discovery_type, created_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -18,7 +33,7 @@ import java.util.UUID;
 public class Endpoint {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     /**
@@ -62,21 +77,51 @@ public class Endpoint {
     /**
      * Paramètres de requête (JSON)
      */
-    @Column(columnDefinition = "TEXT")
+    @JdbcTypeCode(SqlTypes.JSON)
     private String parameters;
 
     /**
-     * Corps de requête exemple (JSON)
+     * Corps de requête exemple (JSON), stocké dans schema_blobs
      */
-    @Column(columnDefinition = "TEXT")
+    @Transient
     private String requestBody;
 
+    @Column(length = 64)
+    private String requestBodyHash;
+
     /**
-     * Réponse exemple (JSON)
+     * Réponse exemple (JSON), stockée dans schema_blobs
      */
-    @Column(columnDefinition = "TEXT")
+    @Transient
     private String responseBody;
 
+    @Column(length = 64)
+    private String responseBodyHash;
+
+    /**
+     * Paramètres avec les $ref résolues (JSON, null si aucune $ref)
+     */
+    @JdbcTypeCode(SqlTypes.JSON)
+    private String resolvedParameters;
+
+    /**
+     * Corps de requête avec les $ref résolues (JSON, null si aucune $ref), stocké dans schema_blobs
+     */
+    @Transient
+    private String resolvedRequestBody;
+
+    @Column(length = 64)
+    private String resolvedRequestBodyHash;
+
+    /**
+     * Réponse avec les $ref résolues (JSON, null si aucune $ref), stockée dans schema_blobs
+     */
+    @Transient
+    private String resolvedResponseBody;
+
+    @Column(length = 64)
+    private String resolvedResponseBodyHash;
+
     /**
      * Codes de statut possibles (ex: "200,201,400,404")
      */
@@ -89,6 +134,12 @@ public class Endpoint {
     @Column(nullable = false)
     private Boolean requiresAuth = false;
 
+    /**
+     * Empreinte SHA-256 du contenu scanné (détection des opérations modifiées)
+     */
+    @Column(length = 64)
+    private String contentHash;
+
     /**
      * Date de création
      */
@@ -0,0 +1,78 @@
+package com.testai.endpointservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Révision de la définition d'un endpoint (historique en ajout seul)
+ *
+ * content est soit un instantané complet de la définition (snapshot), soit un JSON Patch
+ * (RFC 6902) par rapport à la révision précédente. Un instantané est écrit à la création
+ * puis périodiquement : reconstruire une révision coûte au plus l'intervalle entre deux instantanés.
+ */
+@Entity
+@Table(name = "endpoint_revisions", indexes = {
+        @Index(name = "idx_endpoint_revisions_project_created", columnList = "project_id, created_at"),
+        @Index(name = "idx_endpoint_revisions_scan_job", columnList = "scan_job_id")
+})
+@IdClass(EndpointRevision.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EndpointRevision {
+
+    @Id
+    private UUID endpointId;
+
+    /**
+     * Numéro de révision, à partir de 1
+     */
+    @Id
+    private Integer revision;
+
+    @Column(nullable = false)
+    private UUID projectId;
+
+    @Column(nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    private ChangeType changeType;
+
+    /**
+     * true : content est la définition complète ; false : content est un JSON Patch (null pour DELETED)
+     */
+    @Column(nullable = false)
+    private boolean snapshot;
+
+    /**
+     * Job de scan à l'origine de la révision (null pour une modification manuelle)
+     */
+    private UUID scanJobId;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    private String content;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    public enum ChangeType {
+        BASELINE,   // État existant à l'activation de l'historique
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private UUID endpointId;
+        private Integer revision;
+    }
+}
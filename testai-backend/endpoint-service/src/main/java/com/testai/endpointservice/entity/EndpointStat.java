@@ -0,0 +1,54 @@
+package com.testai.endpointservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+/**
+ * Compteur d'endpoints d'un projet pour une valeur d'une dimension (méthode, type de découverte, tag...)
+ *
+ * Maintenu dans la transaction de chaque écriture d'endpoints (EndpointStatistics) :
+ * les statistiques se lisent sans parcourir la table endpoints.
+ */
+@Entity
+@Table(name = "endpoint_stats")
+@IdClass(EndpointStat.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EndpointStat {
+
+    @Id
+    private UUID projectId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private Dimension dimension;
+
+    /**
+     * Méthode HTTP, type de découverte, tag, ou "true"/"false" pour REQUIRES_AUTH
+     */
+    @Id
+    @Column(name = "dimension_value", length = 500)
+    private String value;
+
+    @Column(name = "endpoint_count", nullable = false)
+    private Long count;
+
+    public enum Dimension {
+        METHOD, DISCOVERY_TYPE, TAG, REQUIRES_AUTH
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private UUID projectId;
+        private Dimension dimension;
+        private String value;
+    }
+}
@@ -0,0 +1,31 @@
+package com.testai.endpointservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Version des endpoints d'un projet, incrémentée dans la transaction de chaque modification
+ *
+ * Sert d'ETag aux listes d'endpoints du projet : une requête conditionnelle
+ * (If-None-Match) est tranchée par une lecture de cette ligne, sans relire les endpoints.
+ */
+@Entity
+@Table(name = "project_endpoint_versions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProjectEndpointVersion {
+
+    @Id
+    private UUID projectId;
+
+    @Column(nullable = false)
+    private Long version;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
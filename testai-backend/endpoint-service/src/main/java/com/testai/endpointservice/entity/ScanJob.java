@@ -0,0 +1,115 @@
+package com.testai.endpointservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Job de scan Swagger exécuté en arrière-plan
+ */
+@Entity
+@Table(name = "scan_jobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ScanJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    /**
+     * ID du projet scanné
+     */
+    @Column(nullable = false)
+    private UUID projectId;
+
+    /**
+     * URL de la spécification Swagger/OpenAPI
+     */
+    @Column(nullable = false, length = 2000)
+    private String swaggerUrl;
+
+    /**
+     * État du job
+     */
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    /**
+     * Origine du scan
+     */
+    @Column(name = "scan_trigger", length = 20)
+    @Enumerated(EnumType.STRING)
+    @Builder.Default
+    private Trigger trigger = Trigger.MANUAL;
+
+    /**
+     * Nombre d'opérations lues dans la spécification (progression)
+     */
+    private int processedOperations;
+
+    /**
+     * Compteurs du résultat final
+     */
+    private int totalEndpoints;
+    private int newEndpoints;
+    private int updatedEndpoints;
+    private int skippedEndpoints;
+
+    /**
+     * Message de résultat ou d'erreur
+     */
+    @Column(length = 1000)
+    private String message;
+
+    /**
+     * Date de soumission
+     */
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Début et fin d'exécution
+     */
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    /**
+     * Dernier signe de vie de l'instance qui exécute le job (PENDING ou RUNNING) :
+     * un job dont le signe de vie est trop ancien a été abandonné par un arrêt du service
+     */
+    private LocalDateTime heartbeatAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        heartbeatAt = createdAt;
+    }
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    /**
+     * États d'un job de scan
+     */
+    public enum Status {
+        PENDING,    // En file d'attente
+        RUNNING,    // Téléchargement / parsing / écriture en cours
+        COMPLETED,  // Terminé avec succès
+        FAILED      // Terminé en erreur
+    }
+
+    /**
+     * Origines possibles d'un scan
+     */
+    public enum Trigger {
+        MANUAL,     // Demandé par un utilisateur (ou à la création du projet)
+        SCHEDULED   // Rescan périodique
+    }
+}
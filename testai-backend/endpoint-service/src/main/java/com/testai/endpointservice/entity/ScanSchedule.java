@@ -0,0 +1,54 @@
+package com.testai.endpointservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Planification du rescan périodique d'un projet Swagger
+ *
+ * Une ligne par projet, enregistrée à chaque scan soumis : la dernière URL
+ * scannée fait foi. Les dates de passage sont décalées aléatoirement pour
+ * éviter que tous les projets soient rescannés au même instant.
+ */
+@Entity
+@Table(name = "scan_schedules", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_scan_schedules_project", columnNames = {"project_id"})
+}, indexes = {
+        @Index(name = "idx_scan_schedules_next_run", columnList = "next_run_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ScanSchedule {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    /**
+     * ID du projet à rescanner
+     */
+    @Column(nullable = false)
+    private UUID projectId;
+
+    /**
+     * URL de la spécification Swagger/OpenAPI
+     */
+    @Column(nullable = false, length = 2000)
+    private String specUrl;
+
+    /**
+     * Date à partir de laquelle le prochain rescan peut être soumis
+     */
+    @Column(nullable = false)
+    private LocalDateTime nextRunAt;
+
+    /**
+     * Date de la dernière soumission par le planificateur
+     */
+    private LocalDateTime lastRunAt;
+}
@@ -0,0 +1,49 @@
+package com.testai.endpointservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Fragment JSON (schéma de corps de requête ou de réponse) stocké une seule fois,
+ * adressé par l'empreinte SHA-256 de sa forme normalisée
+ *
+ * Les endpoints ne gardent que l'empreinte (requestBodyHash...) : une enveloppe d'erreur
+ * ou de pagination répétée sur des centaines d'opérations n'occupe qu'une ligne.
+ * Voir SchemaBlobStore pour la normalisation, le cache et le ramasse-miettes.
+ */
+@Entity
+@Table(name = "schema_blobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SchemaBlob {
+
+    /**
+     * SHA-256 hexadécimal du JSON normalisé
+     */
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    /**
+     * JSON normalisé (clés triées, sans espaces), toujours valide
+     */
+    @Column(nullable = false, columnDefinition = "text")
+    private String content;
+
+    @Column(nullable = false)
+    private Integer sizeBytes;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Dernière écriture d'un endpoint référençant ce fragment (rafraîchie au plus une fois par heure) ;
+     * le ramasse-miettes ne supprime que les fragments non référencés et inutilisés depuis longtemps
+     */
+    @Column(nullable = false)
+    private LocalDateTime lastUsedAt;
+}
@@ -0,0 +1,64 @@
+package com.testai.endpointservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Empreinte de la dernière spécification Swagger scannée pour un projet
+ *
+ * Permet d'envoyer des GET conditionnels (ETag / Last-Modified) et de
+ * reconnaître un document inchangé sans retraiter ses opérations.
+ */
+@Entity
+@Table(name = "spec_fingerprints", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_spec_fingerprints_project_url", columnNames = {"project_id", "spec_url"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SpecFingerprint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    /**
+     * ID du projet scanné
+     */
+    @Column(nullable = false)
+    private UUID projectId;
+
+    /**
+     * URL de la spécification
+     */
+    @Column(nullable = false, length = 2000)
+    private String specUrl;
+
+    /**
+     * ETag renvoyé par le serveur de documentation
+     */
+    @Column(length = 500)
+    private String etag;
+
+    /**
+     * En-tête Last-Modified renvoyé par le serveur de documentation
+     */
+    @Column(length = 100)
+    private String lastModified;
+
+    /**
+     * SHA-256 du document complet
+     */
+    @Column(length = 64)
+    private String digest;
+
+    /**
+     * Date du dernier scan
+     */
+    @Column(nullable = false)
+    private LocalDateTime lastScannedAt;
+}
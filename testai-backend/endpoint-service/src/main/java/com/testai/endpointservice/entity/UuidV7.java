@@ -0,0 +1,20 @@
+package com.testai.endpointservice.entity;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Identifiant UUID version 7 (ordonné dans le temps) généré par Hibernate à l'insertion
+ *
+ * À utiliser à la place de @GeneratedValue(strategy = GenerationType.UUID) : les nouvelles
+ * clés s'ajoutent en fin d'index B-tree au lieu d'être dispersées dans tout l'index.
+ */
+@IdGeneratorType(UuidV7Generator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface UuidV7 {
+}
@@ -0,0 +1,59 @@
+package com.testai.endpointservice.entity;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+import java.security.SecureRandom;
+import java.util.EnumSet;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Générateur d'UUID version 7 (RFC 9562)
+ *
+ * - 48 bits : horodatage Unix en millisecondes
+ * - 12 bits (rand_a) : compteur remis à zéro à chaque milliseconde, pour que les identifiants
+ *   générés par une instance restent strictement croissants dans une même milliseconde
+ * - 62 bits (rand_b) : aléatoire (SecureRandom, comme UUID.randomUUID())
+ *
+ * Si le compteur déborde, l'horodatage avance d'une milliseconde : l'ordre est conservé,
+ * y compris si l'horloge système recule.
+ *
+ * Copie identique dans endpoint-service, project-service et user-service : les services sont
+ * construits séparément (un pom et un contexte Docker chacun, sans module commun), toute
+ * modification doit être reportée dans les trois. Tests et benchmark dans endpoint-service.
+ */
+public class UuidV7Generator implements BeforeExecutionGenerator {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    /**
+     * Dernière valeur émise : (millisecondes << 12) | compteur
+     */
+    private static final AtomicLong LAST_TIMESTAMP = new AtomicLong();
+
+    /**
+     * Nouvel identifiant, utilisable hors Hibernate (insertions JDBC par lots)
+     */
+    public static UUID next() {
+        long now = System.currentTimeMillis() << 12;
+        long timestamp = LAST_TIMESTAMP.updateAndGet(last -> Math.max(last + 1, now));
+
+        long mostSigBits = (timestamp >>> 12) << 16 | 0x7000L | (timestamp & 0xFFFL);
+        long leastSigBits = RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner,
+                           Object currentValue, EventType eventType) {
+        return next();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
@@ -0,0 +1,146 @@
+package com.testai.endpointservice.repository;
+
+import com.testai.endpointservice.entity.Endpoint;
+import com.testai.endpointservice.entity.UuidV7Generator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Écriture en masse des endpoints scannés via JDBC
+ *
+ * Les lignes sont insérées par paquets avec un INSERT multi-lignes
+ * "ON CONFLICT DO NOTHING RETURNING id" : un aller-retour par paquet au lieu
+ * d'un existsBy + save par endpoint.
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class EndpointBatchWriter {
+
+    /**
+     * 18 colonnes par ligne : reste largement sous la limite de 32767 paramètres de PostgreSQL
+     */
+    private static final int CHUNK_SIZE = 500;
+
+    private static final String INSERT_PREFIX = "INSERT INTO endpoints (id, project_id, method, path, description, " +
+            "discovery_type, tags, parameters, request_body_hash, response_body_hash, resolved_parameters, " +
+            "resolved_request_body_hash, resolved_response_body_hash, status_codes, requires_auth, content_hash, " +
+            "created_at, updated_at) VALUES ";
+    // Les paramètres sont envoyés en texte et convertis en jsonb par PostgreSQL ; les corps sont
+    // référencés par empreinte (schema_blobs, enregistrés au préalable par SchemaBlobStore)
+    private static final String ROW_PLACEHOLDER = "(?, ?, ?, ?, ?, ?, ?, ?::jsonb, ?, ?, ?::jsonb, " +
+            "?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_SUFFIX = " ON CONFLICT (project_id, method, path) DO NOTHING RETURNING id";
+
+    private static final String UPDATE_SQL = "UPDATE endpoints SET description = ?, tags = ?, " +
+            "parameters = ?::jsonb, request_body_hash = ?, response_body_hash = ?, " +
+            "resolved_parameters = ?::jsonb, resolved_request_body_hash = ?, resolved_response_body_hash = ?, " +
+            "status_codes = ?, requires_auth = ?, content_hash = ?, updated_at = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Insérer les endpoints (id et dates sont attribués ici)
+     *
+     * @return les IDs réellement insérés (les conflits concurrents sont ignorés)
+     */
+    public Set<UUID> insertAll(List<Endpoint> endpoints) {
+        Set<UUID> inserted = new HashSet<>();
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int from = 0; from < endpoints.size(); from += CHUNK_SIZE) {
+            List<Endpoint> chunk = endpoints.subList(from, Math.min(from + CHUNK_SIZE, endpoints.size()));
+
+            StringBuilder sql = new StringBuilder(INSERT_PREFIX);
+            List<Object> args = new ArrayList<>(chunk.size() * 18);
+            for (int i = 0; i < chunk.size(); i++) {
+                Endpoint endpoint = chunk.get(i);
+                endpoint.setId(UuidV7Generator.next());
+                endpoint.setCreatedAt(now);
+                endpoint.setUpdatedAt(now);
+
+                if (i > 0) sql.append(", ");
+                sql.append(ROW_PLACEHOLDER);
+                args.add(endpoint.getId());
+                args.add(endpoint.getProjectId());
+                args.add(endpoint.getMethod().name());
+                args.add(endpoint.getPath());
+                args.add(endpoint.getDescription());
+                args.add(endpoint.getDiscoveryType().name());
+                args.add(endpoint.getTags());
+                args.add(endpoint.getParameters());
+                args.add(endpoint.getRequestBodyHash());
+                args.add(endpoint.getResponseBodyHash());
+                args.add(endpoint.getResolvedParameters());
+                args.add(endpoint.getResolvedRequestBodyHash());
+                args.add(endpoint.getResolvedResponseBodyHash());
+                args.add(endpoint.getStatusCodes());
+                args.add(endpoint.getRequiresAuth() != null ? endpoint.getRequiresAuth() : false);
+                args.add(endpoint.getContentHash());
+                args.add(Timestamp.valueOf(now));
+                args.add(Timestamp.valueOf(now));
+            }
+            sql.append(INSERT_SUFFIX);
+
+            inserted.addAll(jdbcTemplate.queryForList(sql.toString(), UUID.class, args.toArray()));
+        }
+
+        log.debug("💾 {} endpoints insérés sur {} demandés", inserted.size(), endpoints.size());
+        return inserted;
+    }
+
+    /**
+     * Mettre à jour en place des endpoints existants (l'id doit être renseigné)
+     *
+     * @return les IDs réellement modifiés (une ligne supprimée entre-temps n'en fait pas partie)
+     */
+    public Set<UUID> updateAll(List<Endpoint> endpoints) {
+        if (endpoints.isEmpty()) {
+            return Set.of();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> batchArgs = new ArrayList<>(endpoints.size());
+        for (Endpoint endpoint : endpoints) {
+            endpoint.setUpdatedAt(now);
+            batchArgs.add(new Object[]{
+                    endpoint.getDescription(),
+                    endpoint.getTags(),
+                    endpoint.getParameters(),
+                    endpoint.getRequestBodyHash(),
+                    endpoint.getResponseBodyHash(),
+                    endpoint.getResolvedParameters(),
+                    endpoint.getResolvedRequestBodyHash(),
+                    endpoint.getResolvedResponseBodyHash(),
+                    endpoint.getStatusCodes(),
+                    endpoint.getRequiresAuth() != null ? endpoint.getRequiresAuth() : false,
+                    endpoint.getContentHash(),
+                    Timestamp.valueOf(now),
+                    endpoint.getId()
+            });
+        }
+
+        // Un compte par ligne, dans l'ordre des endpoints (SUCCESS_NO_INFO : exécutée sans compte, considérée modifiée)
+        Set<UUID> updated = new HashSet<>();
+        int[] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, batchArgs);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO) {
+                updated.add(endpoints.get(i).getId());
+            }
+        }
+
+        log.debug("💾 {} endpoints mis à jour sur {} demandés", updated.size(), endpoints.size());
+        return updated;
+    }
+}
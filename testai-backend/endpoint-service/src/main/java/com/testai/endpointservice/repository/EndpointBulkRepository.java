@@ -0,0 +1,142 @@
+package com.testai.endpointservice.repository;
+
+import com.testai.endpointservice.dto.BulkEndpointRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Opérations en masse sur la table endpoints, chacune en une seule instruction SQL
+ *
+ * L'instruction DELETE/UPDATE est enveloppée dans une CTE (RETURNING) qui renvoie
+ * directement les lignes touchées par projet : aucune entité n'est chargée,
+ * et l'appelant sait quels projets invalider et quels endpoints historiser.
+ *
+ * Les mises à jour effacent content_hash : l'empreinte décrivait le contenu écrit par le
+ * dernier scan (fragments bruts et corps de schema_blobs, non recalculable en SQL). Sans
+ * empreinte, le prochain scan compare différent et réaligne l'endpoint sur la spécification.
+ */
+@Repository
+@RequiredArgsConstructor
+public class EndpointBulkRepository {
+
+    /**
+     * Lignes touchées pour un projet
+     *
+     * @param swagger au moins un des endpoints touchés provient d'un scan Swagger
+     * @param ids     IDs des endpoints touchés
+     */
+    public record ProjectCount(UUID projectId, int affected, boolean swagger, List<UUID> ids) {
+    }
+
+    private static final RowMapper<ProjectCount> PROJECT_COUNT_MAPPER = (rs, rowNum) -> new ProjectCount(
+            rs.getObject("project_id", UUID.class),
+            rs.getInt("affected"),
+            rs.getBoolean("swagger"),
+            List.of((UUID[]) rs.getArray("ids").getArray()));
+
+    private static final String SUMMARY_BY_PROJECT = "SELECT project_id, count(*) AS affected, " +
+            "bool_or(discovery_type = 'SWAGGER') AS swagger, array_agg(id) AS ids FROM affected GROUP BY project_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Supprimer les endpoints correspondant au filtre
+     */
+    public List<ProjectCount> delete(BulkEndpointRequest.Filter filter) {
+        Where where = where(filter);
+        String sql = "WITH affected AS (DELETE FROM endpoints WHERE " + where.sql +
+                " RETURNING id, project_id, discovery_type) " + SUMMARY_BY_PROJECT;
+        return jdbcTemplate.query(sql, PROJECT_COUNT_MAPPER, where.args.toArray());
+    }
+
+    /**
+     * Remplacer les tags (null pour les effacer) des endpoints dont les tags diffèrent
+     */
+    public List<ProjectCount> setTags(BulkEndpointRequest.Filter filter, String tags, LocalDateTime now) {
+        return update(filter, "tags = ?", Collections.singletonList(tags),
+                "tags IS DISTINCT FROM ?", Collections.singletonList(tags), now);
+    }
+
+    /**
+     * Ajouter un tag (liste "a, b, c") aux endpoints qui ne l'ont pas encore
+     */
+    public List<ProjectCount> addTag(BulkEndpointRequest.Filter filter, String tag, LocalDateTime now) {
+        return update(filter,
+                "tags = CASE WHEN tags IS NULL OR btrim(tags) = '' THEN ? ELSE tags || ', ' || ? END",
+                List.of(tag, tag),
+                "(tags IS NULL OR position(', ' || ? || ', ' IN ', ' || tags || ', ') = 0)",
+                List.of(tag), now);
+    }
+
+    /**
+     * Modifier requiresAuth des endpoints qui n'ont pas déjà la valeur demandée
+     */
+    public List<ProjectCount> setRequiresAuth(BulkEndpointRequest.Filter filter, boolean requiresAuth,
+                                              LocalDateTime now) {
+        return update(filter, "requires_auth = ?", List.of(requiresAuth),
+                "requires_auth <> ?", List.of(requiresAuth), now);
+    }
+
+    /**
+     * @param changed condition vraie seulement pour les lignes que l'affectation modifie réellement
+     */
+    private List<ProjectCount> update(BulkEndpointRequest.Filter filter, String assignment, List<?> assignmentArgs,
+                                      String changed, List<?> changedArgs, LocalDateTime now) {
+        Where where = where(filter);
+        String sql = "WITH affected AS (UPDATE endpoints SET " + assignment + ", content_hash = NULL, updated_at = ? " +
+                "WHERE " + where.sql + " AND " + changed +
+                " RETURNING id, project_id, discovery_type) " + SUMMARY_BY_PROJECT;
+
+        List<Object> args = new ArrayList<>(assignmentArgs);
+        args.add(Timestamp.valueOf(now));
+        args.addAll(where.args);
+        args.addAll(changedArgs);
+        return jdbcTemplate.query(sql, PROJECT_COUNT_MAPPER, args.toArray());
+    }
+
+    private record Where(String sql, List<Object> args) {
+    }
+
+    /**
+     * Clause WHERE du filtre (critères combinés par ET)
+     */
+    private Where where(BulkEndpointRequest.Filter filter) {
+        List<String> conditions = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+
+        if (filter.getProjectId() != null) {
+            conditions.add("project_id = ?");
+            args.add(filter.getProjectId());
+        }
+        if (filter.getIds() != null && !filter.getIds().isEmpty()) {
+            conditions.add("id IN (" + String.join(", ", Collections.nCopies(filter.getIds().size(), "?")) + ")");
+            args.addAll(filter.getIds());
+        }
+        if (filter.getMethod() != null) {
+            conditions.add("method = ?");
+            args.add(filter.getMethod().name());
+        }
+        if (filter.getDiscoveryType() != null) {
+            conditions.add("discovery_type = ?");
+            args.add(filter.getDiscoveryType().name());
+        }
+        if (filter.getPathPrefix() != null && !filter.getPathPrefix().isEmpty()) {
+            conditions.add("path LIKE ? ESCAPE '\\'");
+            args.add(filter.getPathPrefix().replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%");
+        }
+
+        if (conditions.isEmpty()) {
+            throw new IllegalArgumentException("Au moins un critère de filtre est obligatoire");
+        }
+        return new Where(String.join(" AND ", conditions), args);
+    }
+}
@@ -0,0 +1,80 @@
+package com.testai.endpointservice.repository;
+
+import com.testai.endpointservice.entity.Endpoint;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Parcours en flux de la table endpoints pour l'export
+ *
+ * Les lignes sont lues via un curseur côté serveur (Stream JPA + fetch size : le driver
+ * PostgreSQL ne lit qu'un lot à la fois dans une transaction) et chaque entité est détachée
+ * après traitement : la mémoire consommée ne dépend pas du nombre de lignes.
+ * Doit être appelé dans une transaction.
+ */
+@Repository
+public class EndpointExportRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Appliquer action à chaque endpoint correspondant aux filtres, dans l'ordre (createdAt, id)
+     *
+     * @param projectId    filtre optionnel sur le projet
+     * @param method       filtre optionnel sur la méthode HTTP
+     * @param updatedSince filtre optionnel : endpoints modifiés à partir de cette date
+     * @param fetchSize    nombre de lignes lues par aller-retour avec la base
+     * @return nombre d'endpoints parcourus
+     */
+    public long forEach(UUID projectId, Endpoint.HttpMethod method, LocalDateTime updatedSince,
+                        int fetchSize, Consumer<Endpoint> action) {
+        List<String> conditions = new ArrayList<>();
+        Map<String, Object> parameters = new HashMap<>();
+        if (projectId != null) {
+            conditions.add("e.projectId = :projectId");
+            parameters.put("projectId", projectId);
+        }
+        if (method != null) {
+            conditions.add("e.method = :method");
+            parameters.put("method", method);
+        }
+        if (updatedSince != null) {
+            conditions.add("e.updatedAt >= :updatedSince");
+            parameters.put("updatedSince", updatedSince);
+        }
+
+        String jpql = "SELECT e FROM Endpoint e "
+                + (conditions.isEmpty() ? "" : "WHERE " + String.join(" AND ", conditions) + " ")
+                + "ORDER BY e.createdAt, e.id";
+        TypedQuery<Endpoint> query = entityManager.createQuery(jpql, Endpoint.class)
+                .setHint(AvailableHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(AvailableHints.HINT_READ_ONLY, true);
+        parameters.forEach(query::setParameter);
+
+        long count = 0;
+        try (Stream<Endpoint> rows = query.getResultStream()) {
+            Iterator<Endpoint> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                Endpoint endpoint = iterator.next();
+                action.accept(endpoint);
+                entityManager.detach(endpoint);
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -1,10 +1,22 @@
 package com.testai.endpointservice.repository;
 
+import com.testai.endpointservice.dto.EndpointKey;
+import com.testai.endpointservice.dto.EndpointSummary;
+import com.testai.endpointservice.dto.ProjectEndpointCount;
 import com.testai.endpointservice.entity.Endpoint;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -14,19 +26,91 @@ import java.util.UUID;
 public interface EndpointRepository extends JpaRepository<Endpoint, UUID> {
 
     /**
-     * Récupérer tous les endpoints d'un projet
+     * Colonnes de la projection EndpointSummary
      */
-    List<Endpoint> findByProjectId(UUID projectId);
+    String SUMMARY_SELECT = "SELECT e.id AS id, e.projectId AS projectId, e.method AS method, e.path AS path, " +
+            "e.description AS description, e.discoveryType AS discoveryType, e.tags AS tags, " +
+            "e.statusCodes AS statusCodes, e.requiresAuth AS requiresAuth, e.createdAt AS createdAt, " +
+            "e.updatedAt AS updatedAt FROM Endpoint e ";
 
     /**
-     * Récupérer les endpoints par méthode HTTP
+     * Pagination par curseur (keyset) : endpoints strictement après (createdAt, id),
+     * dans l'ordre (createdAt, id). La taille de page est donnée par le Pageable.
+     * La condition createdAt >= :createdAt sert de borne de départ dans les index composites.
      */
-    List<Endpoint> findByMethod(Endpoint.HttpMethod method);
+    @Query("SELECT e FROM Endpoint e WHERE e.createdAt >= :createdAt " +
+            "AND (e.createdAt > :createdAt OR e.id > :id) " +
+            "ORDER BY e.createdAt, e.id")
+    List<Endpoint> findPage(@Param("createdAt") LocalDateTime createdAt, @Param("id") UUID id, Pageable pageable);
 
     /**
-     * Récupérer les endpoints par type de découverte
+     * Page des endpoints d'un projet
      */
-    List<Endpoint> findByDiscoveryType(Endpoint.DiscoveryType discoveryType);
+    @Query("SELECT e FROM Endpoint e WHERE e.projectId = :projectId AND e.createdAt >= :createdAt " +
+            "AND (e.createdAt > :createdAt OR e.id > :id) " +
+            "ORDER BY e.createdAt, e.id")
+    List<Endpoint> findPageByProjectId(@Param("projectId") UUID projectId,
+                                       @Param("createdAt") LocalDateTime createdAt, @Param("id") UUID id,
+                                       Pageable pageable);
+
+    /**
+     * Page des endpoints par méthode HTTP
+     */
+    @Query("SELECT e FROM Endpoint e WHERE e.method = :method AND e.createdAt >= :createdAt " +
+            "AND (e.createdAt > :createdAt OR e.id > :id) " +
+            "ORDER BY e.createdAt, e.id")
+    List<Endpoint> findPageByMethod(@Param("method") Endpoint.HttpMethod method,
+                                    @Param("createdAt") LocalDateTime createdAt, @Param("id") UUID id,
+                                    Pageable pageable);
+
+    /**
+     * Page des endpoints par type de découverte
+     */
+    @Query("SELECT e FROM Endpoint e WHERE e.discoveryType = :discoveryType AND e.createdAt >= :createdAt " +
+            "AND (e.createdAt > :createdAt OR e.id > :id) " +
+            "ORDER BY e.createdAt, e.id")
+    List<Endpoint> findPageByDiscoveryType(@Param("discoveryType") Endpoint.DiscoveryType discoveryType,
+                                           @Param("createdAt") LocalDateTime createdAt, @Param("id") UUID id,
+                                           Pageable pageable);
+
+    /**
+     * Variantes des pages ci-dessus en projection EndpointSummary : seules les colonnes
+     * étroites sont lues, sans les colonnes TEXT
+     */
+    @Query(SUMMARY_SELECT + "WHERE e.createdAt >= :createdAt " +
+            "AND (e.createdAt > :createdAt OR e.id > :id) " +
+            "ORDER BY e.createdAt, e.id")
+    List<EndpointSummary> findSummaryPage(@Param("createdAt") LocalDateTime createdAt, @Param("id") UUID id,
+                                          Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE e.projectId = :projectId AND e.createdAt >= :createdAt " +
+            "AND (e.createdAt > :createdAt OR e.id > :id) " +
+            "ORDER BY e.createdAt, e.id")
+    List<EndpointSummary> findSummaryPageByProjectId(@Param("projectId") UUID projectId,
+                                                     @Param("createdAt") LocalDateTime createdAt,
+                                                     @Param("id") UUID id, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE e.method = :method AND e.createdAt >= :createdAt " +
+            "AND (e.createdAt > :createdAt OR e.id > :id) " +
+            "ORDER BY e.createdAt, e.id")
+    List<EndpointSummary> findSummaryPageByMethod(@Param("method") Endpoint.HttpMethod method,
+                                                  @Param("createdAt") LocalDateTime createdAt,
+                                                  @Param("id") UUID id, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE e.discoveryType = :discoveryType AND e.createdAt >= :createdAt " +
+            "AND (e.createdAt > :createdAt OR e.id > :id) " +
+            "ORDER BY e.createdAt, e.id")
+    List<EndpointSummary> findSummaryPageByDiscoveryType(@Param("discoveryType") Endpoint.DiscoveryType discoveryType,
+                                                         @Param("createdAt") LocalDateTime createdAt,
+                                                         @Param("id") UUID id, Pageable pageable);
+
+    /**
+     * Charger un endpoint en verrouillant sa ligne (SELECT ... FOR UPDATE) jusqu'à la fin de la transaction :
+     * une modification concurrente (scan, autre PUT) attend, l'état lu reste donc celui qui sera remplacé
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM Endpoint e WHERE e.id = :id")
+    Optional<Endpoint> findByIdForUpdate(@Param("id") UUID id);
 
     /**
      * Récupérer les endpoints d'un projet par méthode
@@ -39,12 +123,33 @@ public interface EndpointRepository extends JpaRepository<Endpoint, UUID> {
     boolean existsByProjectIdAndMethodAndPath(UUID projectId, Endpoint.HttpMethod method, String path);
 
     /**
-     * Supprimer tous les endpoints d'un projet
+     * Charger en une requête les clés (méthode, chemin) et empreintes existantes d'un projet
+     */
+    @Query("SELECT e.id AS id, e.method AS method, e.path AS path, e.discoveryType AS discoveryType, " +
+            "e.contentHash AS contentHash, e.tags AS tags, e.requiresAuth AS requiresAuth, e.createdAt AS createdAt " +
+            "FROM Endpoint e WHERE e.projectId = :projectId")
+    List<EndpointKey> findKeysByProjectId(@Param("projectId") UUID projectId);
+
+    /**
+     * Supprimer tous les endpoints d'un projet, en une seule instruction DELETE
+     * (une méthode dérivée chargerait puis supprimerait chaque entité)
+     *
+     * @return nombre d'endpoints supprimés
      */
-    void deleteByProjectId(UUID projectId);
+    @Modifying
+    @Query("DELETE FROM Endpoint e WHERE e.projectId = :projectId")
+    int deleteByProjectId(@Param("projectId") UUID projectId);
 
     /**
      * Compter les endpoints d'un projet
      */
     long countByProjectId(UUID projectId);
+
+    /**
+     * Compter les endpoints de plusieurs projets en une seule requête GROUP BY
+     * (les projets sans endpoint n'apparaissent pas dans le résultat)
+     */
+    @Query("SELECT e.projectId AS projectId, COUNT(e) AS count FROM Endpoint e " +
+            "WHERE e.projectId IN :projectIds GROUP BY e.projectId")
+    List<ProjectEndpointCount> countByProjectIds(@Param("projectIds") Collection<UUID> projectIds);
 }
\ No newline at end of file
@@ -0,0 +1,198 @@
+package com.testai.endpointservice.repository;
+
+import com.testai.endpointservice.entity.EndpointRevision;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Accès à la table endpoint_revisions via JDBC
+ */
+@Repository
+@RequiredArgsConstructor
+public class EndpointRevisionRepository {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private static final RowMapper<EndpointRevision> REVISION_MAPPER = (rs, rowNum) -> EndpointRevision.builder()
+            .endpointId(rs.getObject("endpoint_id", UUID.class))
+            .revision(rs.getInt("revision"))
+            .projectId(rs.getObject("project_id", UUID.class))
+            .changeType(EndpointRevision.ChangeType.valueOf(rs.getString("change_type")))
+            .snapshot(rs.getBoolean("snapshot"))
+            .scanJobId(rs.getObject("scan_job_id", UUID.class))
+            .content(rs.getString("content"))
+            .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+            .build();
+
+    private static final String COLUMNS = "endpoint_id, revision, project_id, change_type, snapshot, " +
+            "scan_job_id, content, created_at";
+
+    /**
+     * Définition complète d'un endpoint, mêmes clés que EndpointHistory.toDocument(),
+     * corps lus dans schema_blobs
+     */
+    private static final String DOCUMENT_SQL = """
+            jsonb_build_object(
+                'method', e.method, 'path', e.path, 'description', e.description,
+                'discoveryType', e.discovery_type, 'tags', e.tags, 'parameters', e.parameters,
+                'requestBody', rb.content::jsonb, 'responseBody', sb.content::jsonb,
+                'resolvedParameters', e.resolved_parameters,
+                'resolvedRequestBody', rrb.content::jsonb, 'resolvedResponseBody', rsb.content::jsonb,
+                'statusCodes', e.status_codes, 'requiresAuth', e.requires_auth)""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Verrouiller les lignes endpoints des chaînes à prolonger (SELECT ... FOR UPDATE, dans l'ordre des IDs
+     * pour que deux écritures concurrentes ne s'interbloquent pas) : le numéro de révision suivant est lu
+     * après le commit d'une écriture concurrente du même endpoint, jamais en même temps qu'elle
+     */
+    public void lockEndpoints(Collection<UUID> endpointIds) {
+        List<UUID> ids = endpointIds.stream().distinct().sorted().toList();
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            List<UUID> chunk = ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size()));
+            jdbcTemplate.queryForList("SELECT id FROM endpoints WHERE id IN (" +
+                    String.join(", ", Collections.nCopies(chunk.size(), "?")) + ") ORDER BY id FOR UPDATE",
+                    UUID.class, chunk.toArray());
+        }
+    }
+
+    /**
+     * Révisions nécessaires pour reconstruire l'état courant de chaque endpoint :
+     * du dernier instantané à la dernière révision, triées par endpoint puis par révision
+     */
+    public List<EndpointRevision> findLatestChains(Collection<UUID> endpointIds) {
+        List<UUID> ids = new ArrayList<>(endpointIds);
+        List<EndpointRevision> revisions = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            List<UUID> chunk = ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size()));
+            String sql = "SELECT r.* FROM endpoint_revisions r JOIN (" +
+                    "SELECT endpoint_id, max(revision) FILTER (WHERE snapshot) AS base FROM endpoint_revisions " +
+                    "WHERE endpoint_id IN (" + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ") " +
+                    "GROUP BY endpoint_id) b ON r.endpoint_id = b.endpoint_id AND r.revision >= b.base " +
+                    "ORDER BY r.endpoint_id, r.revision";
+            revisions.addAll(jdbcTemplate.query(sql, REVISION_MAPPER, chunk.toArray()));
+        }
+        return revisions;
+    }
+
+    /**
+     * Révisions nécessaires pour reconstruire un endpoint tel qu'il était à une date :
+     * du dernier instantané à la dernière révision antérieure ou égale à asOf (vide si aucune)
+     */
+    public List<EndpointRevision> findChainAsOf(UUID endpointId, LocalDateTime asOf) {
+        String sql = "WITH target AS (SELECT max(revision) AS target_revision FROM endpoint_revisions " +
+                "WHERE endpoint_id = ? AND created_at <= ?), " +
+                "base AS (SELECT max(revision) AS base_revision FROM endpoint_revisions, target " +
+                "WHERE endpoint_id = ? AND snapshot AND revision <= target_revision) " +
+                "SELECT r.* FROM endpoint_revisions r, target, base WHERE r.endpoint_id = ? " +
+                "AND r.revision BETWEEN base_revision AND target_revision ORDER BY r.revision";
+        return jdbcTemplate.query(sql, REVISION_MAPPER, endpointId, Timestamp.valueOf(asOf), endpointId, endpointId);
+    }
+
+    /**
+     * Historique complet d'un endpoint, de la plus ancienne à la plus récente révision
+     */
+    public List<EndpointRevision> findByEndpointId(UUID endpointId) {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM endpoint_revisions WHERE endpoint_id = ? " +
+                "ORDER BY revision", REVISION_MAPPER, endpointId);
+    }
+
+    public void insertAll(List<EndpointRevision> revisions) {
+        List<Object[]> batchArgs = new ArrayList<>(revisions.size());
+        for (EndpointRevision revision : revisions) {
+            batchArgs.add(new Object[]{revision.getEndpointId(), revision.getRevision(), revision.getProjectId(),
+                    revision.getChangeType().name(), revision.isSnapshot(), revision.getScanJobId(),
+                    revision.getContent(), Timestamp.valueOf(revision.getCreatedAt())});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO endpoint_revisions (" + COLUMNS + ") " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?::jsonb, ?)", batchArgs);
+    }
+
+    /**
+     * Révision DELETED (sans contenu) pour chacun des endpoints donnés
+     *
+     * @return nombre de révisions écrites
+     */
+    public int insertDeletions(Collection<UUID> endpointIds, LocalDateTime now) {
+        List<UUID> ids = new ArrayList<>(endpointIds);
+        int inserted = 0;
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            List<UUID> chunk = ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size()));
+            List<Object> args = new ArrayList<>(chunk.size() + 1);
+            args.add(Timestamp.valueOf(now));
+            args.addAll(chunk);
+            inserted += jdbcTemplate.update("INSERT INTO endpoint_revisions (" + COLUMNS + ") " +
+                    "SELECT endpoint_id, max(revision) + 1, project_id, 'DELETED', false, NULL, NULL, ? " +
+                    "FROM endpoint_revisions WHERE endpoint_id IN (" +
+                    String.join(", ", Collections.nCopies(chunk.size(), "?")) + ") " +
+                    "GROUP BY endpoint_id, project_id", args.toArray());
+        }
+        return inserted;
+    }
+
+    /**
+     * Révision UPDATED construite en SQL pour chacun des endpoints donnés : un patch d'une seule opération
+     * replace du champ "field" du document par la valeur actuelle de la colonne "column" (à appeler après
+     * la modification en masse, dans sa transaction). Aucune entité n'est chargée.
+     *
+     * @param field  clé du document (EndpointHistory.toDocument()), constante du code
+     * @param column colonne de la table endpoints correspondante, constante du code
+     * @return nombre de révisions écrites
+     */
+    public int insertReplacements(Collection<UUID> endpointIds, String field, String column, LocalDateTime now) {
+        List<UUID> ids = new ArrayList<>(endpointIds);
+        int inserted = 0;
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            List<UUID> chunk = ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size()));
+            List<Object> args = new ArrayList<>(chunk.size() + 1);
+            args.add(Timestamp.valueOf(now));
+            args.addAll(chunk);
+            inserted += jdbcTemplate.update("INSERT INTO endpoint_revisions (" + COLUMNS + ") " +
+                    "SELECT e.id, max(r.revision) + 1, e.project_id, 'UPDATED', false, NULL, " +
+                    "jsonb_build_array(jsonb_build_object('op', 'replace', 'path', '/" + field + "', " +
+                    "'value', coalesce(to_jsonb(e." + column + "), 'null'::jsonb))), ? " +
+                    "FROM endpoints e JOIN endpoint_revisions r ON r.endpoint_id = e.id WHERE e.id IN (" +
+                    String.join(", ", Collections.nCopies(chunk.size(), "?")) + ") " +
+                    "GROUP BY e.id, e.project_id, e." + column, args.toArray());
+        }
+        return inserted;
+    }
+
+    /**
+     * Révision DELETED pour chaque endpoint d'un projet (à appeler avant la suppression)
+     */
+    public int insertProjectDeletions(UUID projectId, LocalDateTime now) {
+        return jdbcTemplate.update("INSERT INTO endpoint_revisions (" + COLUMNS + ") " +
+                "SELECT r.endpoint_id, max(r.revision) + 1, r.project_id, 'DELETED', false, NULL, NULL, ? " +
+                "FROM endpoint_revisions r JOIN endpoints e ON e.id = r.endpoint_id WHERE e.project_id = ? " +
+                "GROUP BY r.endpoint_id, r.project_id", Timestamp.valueOf(now), projectId);
+    }
+
+    /**
+     * Instantané BASELINE (révision 1, daté de la dernière modification) pour chaque endpoint
+     * sans historique : endpoints antérieurs à l'activation de l'historique
+     *
+     * @return nombre d'instantanés écrits
+     */
+    public int insertBaselines() {
+        return jdbcTemplate.update("INSERT INTO endpoint_revisions (" + COLUMNS + ") " +
+                "SELECT e.id, 1, e.project_id, 'BASELINE', true, NULL, " + DOCUMENT_SQL + ", e.updated_at " +
+                "FROM endpoints e " +
+                "LEFT JOIN schema_blobs rb ON rb.hash = e.request_body_hash " +
+                "LEFT JOIN schema_blobs sb ON sb.hash = e.response_body_hash " +
+                "LEFT JOIN schema_blobs rrb ON rrb.hash = e.resolved_request_body_hash " +
+                "LEFT JOIN schema_blobs rsb ON rsb.hash = e.resolved_response_body_hash " +
+                "WHERE NOT EXISTS (SELECT 1 FROM endpoint_revisions r WHERE r.endpoint_id = e.id)");
+    }
+}
@@ -0,0 +1,124 @@
+package com.testai.endpointservice.repository;
+
+import com.testai.endpointservice.dto.EndpointCursor;
+import com.testai.endpointservice.dto.EndpointDTO;
+import com.testai.endpointservice.entity.Endpoint;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Recherches sur les endpoints exécutées en SQL natif PostgreSQL
+ *
+ * Les résultats sont au format liste (colonnes étroites, sans fragments JSON),
+ * le détail complet reste disponible via GET /api/endpoints/{id}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class EndpointSearchRepository {
+
+    private static final String SUMMARY_COLUMNS = "id, project_id, method, path, description, discovery_type, " +
+            "tags, status_codes, requires_auth, created_at, updated_at";
+
+    private static final RowMapper<EndpointDTO> SUMMARY_MAPPER = (rs, rowNum) -> EndpointDTO.builder()
+            .id(rs.getObject("id", UUID.class))
+            .projectId(rs.getObject("project_id", UUID.class))
+            .method(Endpoint.HttpMethod.valueOf(rs.getString("method")))
+            .path(rs.getString("path"))
+            .description(rs.getString("description"))
+            .discoveryType(Endpoint.DiscoveryType.valueOf(rs.getString("discovery_type")))
+            .tags(rs.getString("tags"))
+            .statusCodes(rs.getString("status_codes"))
+            .requiresAuth(rs.getBoolean("requires_auth"))
+            .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+            .updatedAt(rs.getTimestamp("updated_at").toLocalDateTime())
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Endpoints dont les paramètres (bruts ou résolus) contiennent le document JSON donné
+     *
+     * Containment jsonb (@>) servi par les index GIN jsonb_path_ops, puis pagination
+     * par curseur sur (created_at, id).
+     *
+     * @param containment tableau JSON, ex. [{"name":"customerId","in":"query"}]
+     * @param projectId   restreindre à un projet (optionnel)
+     * @param limit       nombre maximal de lignes retournées
+     */
+    public List<EndpointDTO> findByParameterContainment(String containment, UUID projectId,
+                                                        EndpointCursor after, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(SUMMARY_COLUMNS).append(" FROM endpoints ")
+                .append("WHERE (parameters @> ?::jsonb OR resolved_parameters @> ?::jsonb) ");
+        List<Object> args = new ArrayList<>();
+        args.add(containment);
+        args.add(containment);
+
+        if (projectId != null) {
+            sql.append("AND project_id = ? ");
+            args.add(projectId);
+        }
+
+        sql.append("AND created_at >= ? AND (created_at > ? OR id > ?) ORDER BY created_at, id LIMIT ?");
+        args.add(Timestamp.valueOf(after.createdAt()));
+        args.add(Timestamp.valueOf(after.createdAt()));
+        args.add(after.id());
+        args.add(limit);
+
+        return jdbcTemplate.query(sql.toString(), SUMMARY_MAPPER, args.toArray());
+    }
+
+    /**
+     * Recherche plein texte sur le chemin, les tags et la description
+     *
+     * Servie par l'index GIN sur search_vector ; les résultats sont triés par pertinence
+     * (ts_rank, un segment de chemin pèse plus qu'un tag, lui-même plus qu'un mot de la description).
+     *
+     * @param tsQuery   requête to_tsquery déjà normalisée, ex. "user:* & order:*"
+     * @param projectId restreindre à un projet (optionnel)
+     * @param limit     nombre maximal de lignes retournées
+     */
+    public List<EndpointDTO> findByText(String tsQuery, UUID projectId, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(SUMMARY_COLUMNS)
+                .append(" FROM endpoints, to_tsquery('simple', ?) query WHERE search_vector @@ query ");
+        List<Object> args = new ArrayList<>();
+        args.add(tsQuery);
+
+        if (projectId != null) {
+            sql.append("AND project_id = ? ");
+            args.add(projectId);
+        }
+
+        sql.append("ORDER BY ts_rank(search_vector, query) DESC, created_at, id LIMIT ?");
+        args.add(limit);
+
+        return jdbcTemplate.query(sql.toString(), SUMMARY_MAPPER, args.toArray());
+    }
+
+    /**
+     * Premiers endpoints de chaque projet, dans l'ordre (created_at, id) de la pagination par curseur
+     *
+     * Une seule requête pour tous les projets : la sous-requête LATERAL lit au plus limit lignes
+     * par projet dans l'index (project_id, created_at, id), quelle que soit la taille du projet.
+     *
+     * @param limit nombre maximal de lignes par projet
+     */
+    public List<EndpointDTO> findFirstByProjectIds(Collection<UUID> projectIds, int limit) {
+        String projects = String.join(", ", Collections.nCopies(projectIds.size(), "(?::uuid)"));
+        String sql = "SELECT e.* FROM (VALUES " + projects + ") AS p(project_id) CROSS JOIN LATERAL (" +
+                "SELECT " + SUMMARY_COLUMNS + " FROM endpoints WHERE project_id = p.project_id " +
+                "ORDER BY created_at, id LIMIT ?) e";
+        List<Object> args = new ArrayList<>(projectIds);
+        args.add(limit);
+
+        return jdbcTemplate.query(sql, SUMMARY_MAPPER, args.toArray());
+    }
+}
@@ -0,0 +1,140 @@
+package com.testai.endpointservice.repository;
+
+import com.testai.endpointservice.entity.EndpointStat;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Accès à la table endpoint_stats (compteurs d'endpoints par projet et par dimension)
+ */
+@Repository
+@RequiredArgsConstructor
+public class EndpointStatsRepository {
+
+    private static final RowMapper<EndpointStat> STAT_MAPPER = (rs, rowNum) -> EndpointStat.builder()
+            .projectId(rs.getObject("project_id", UUID.class))
+            .dimension(EndpointStat.Dimension.valueOf(rs.getString("dimension")))
+            .value(rs.getString("dimension_value"))
+            .count(rs.getLong("endpoint_count"))
+            .build();
+
+    private static final String UPSERT_SQL = "INSERT INTO endpoint_stats " +
+            "(project_id, dimension, dimension_value, endpoint_count) VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (project_id, dimension, dimension_value) " +
+            "DO UPDATE SET endpoint_count = endpoint_stats.endpoint_count + EXCLUDED.endpoint_count";
+
+    /**
+     * Compteurs recalculés depuis la table endpoints ; {where} restreint éventuellement à un projet.
+     * Un tag répété dans la liste d'un endpoint ne compte qu'une fois (count(DISTINCT id)).
+     */
+    private static final String REBUILD_SQL = """
+            INSERT INTO endpoint_stats (project_id, dimension, dimension_value, endpoint_count)
+            SELECT project_id, 'METHOD', method, count(*) FROM endpoints {where}
+            GROUP BY project_id, method
+            UNION ALL
+            SELECT project_id, 'DISCOVERY_TYPE', discovery_type, count(*) FROM endpoints {where}
+            GROUP BY project_id, discovery_type
+            UNION ALL
+            SELECT project_id, 'REQUIRES_AUTH', coalesce(requires_auth, false)::text, count(*) FROM endpoints {where}
+            GROUP BY project_id, coalesce(requires_auth, false)
+            UNION ALL
+            SELECT project_id, 'TAG', tag, count(DISTINCT id) FROM (
+                SELECT id, project_id, btrim(unnest(string_to_array(tags, ','))) AS tag FROM endpoints {where}
+            ) tagged WHERE tag <> '' GROUP BY project_id, tag""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Ajouter des variations aux compteurs (création des lignes manquantes),
+     * puis supprimer les compteurs retombés à zéro
+     *
+     * Les variations doivent être triées par clé : deux transactions concurrentes
+     * verrouillent ainsi les lignes dans le même ordre.
+     */
+    public void apply(List<EndpointStat> deltas) {
+        List<Object[]> batchArgs = new ArrayList<>(deltas.size());
+        List<UUID> projects = new ArrayList<>();
+        for (EndpointStat delta : deltas) {
+            batchArgs.add(new Object[]{delta.getProjectId(), delta.getDimension().name(), delta.getValue(),
+                    delta.getCount()});
+            if (delta.getCount() < 0 && !projects.contains(delta.getProjectId())) {
+                projects.add(delta.getProjectId());
+            }
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, batchArgs);
+
+        for (UUID projectId : projects) {
+            jdbcTemplate.update("DELETE FROM endpoint_stats WHERE project_id = ? AND endpoint_count <= 0", projectId);
+        }
+    }
+
+    /**
+     * Verrou posé par les écritures, en tout premier : compatible avec les autres écritures,
+     * il attend seulement la fin d'une reconstruction en cours
+     */
+    public void lockForWrite() {
+        jdbcTemplate.execute("LOCK TABLE endpoint_stats IN ROW EXCLUSIVE MODE");
+    }
+
+    /**
+     * Verrou d'une reconstruction : attend les écritures en cours et bloque les suivantes
+     * jusqu'au commit, pour que les compteurs recalculés ne manquent aucune variation
+     */
+    public void lockForRebuild() {
+        jdbcTemplate.execute("LOCK TABLE endpoint_stats IN SHARE ROW EXCLUSIVE MODE");
+    }
+
+    /**
+     * Recalculer les compteurs d'un projet (tous les projets si projectId est null)
+     *
+     * @return nombre de compteurs écrits
+     */
+    public int rebuild(UUID projectId) {
+        if (projectId == null) {
+            jdbcTemplate.update("DELETE FROM endpoint_stats");
+            return jdbcTemplate.update(REBUILD_SQL.replace("{where}", ""));
+        }
+        deleteByProjectId(projectId);
+        String sql = REBUILD_SQL.replace("{where}", "WHERE project_id = ?");
+        return jdbcTemplate.update(sql, projectId, projectId, projectId, projectId);
+    }
+
+    /**
+     * Supprimer les compteurs d'un projet
+     */
+    public void deleteByProjectId(UUID projectId) {
+        jdbcTemplate.update("DELETE FROM endpoint_stats WHERE project_id = ?", projectId);
+    }
+
+    /**
+     * Compteurs d'un projet
+     */
+    public List<EndpointStat> findByProjectId(UUID projectId) {
+        return jdbcTemplate.query("SELECT project_id, dimension, dimension_value, endpoint_count FROM endpoint_stats " +
+                "WHERE project_id = ?", STAT_MAPPER, projectId);
+    }
+
+    /**
+     * Compteurs de tous les projets additionnés (project_id null)
+     */
+    public List<EndpointStat> findTotals() {
+        return jdbcTemplate.query("SELECT NULL::uuid AS project_id, dimension, dimension_value, " +
+                "sum(endpoint_count) AS endpoint_count FROM endpoint_stats GROUP BY dimension, dimension_value",
+                STAT_MAPPER);
+    }
+
+    /**
+     * Vrai si aucun compteur n'existe alors que des endpoints existent (premier démarrage)
+     */
+    public boolean needsSeeding() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT NOT EXISTS (SELECT 1 FROM endpoint_stats) AND EXISTS (SELECT 1 FROM endpoints)",
+                Boolean.class));
+    }
+}
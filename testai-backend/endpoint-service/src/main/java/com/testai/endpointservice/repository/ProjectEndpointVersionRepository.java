@@ -0,0 +1,34 @@
+package com.testai.endpointservice.repository;
+
+import com.testai.endpointservice.entity.ProjectEndpointVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository des versions des endpoints par projet
+ */
+@Repository
+public interface ProjectEndpointVersionRepository extends JpaRepository<ProjectEndpointVersion, UUID> {
+
+    /**
+     * Version courante des endpoints d'un projet (absente si le projet n'a jamais été modifié)
+     */
+    @Query("SELECT v.version FROM ProjectEndpointVersion v WHERE v.projectId = :projectId")
+    Optional<Long> findVersion(@Param("projectId") UUID projectId);
+
+    /**
+     * Incrémenter la version d'un projet (création de la ligne au premier appel)
+     */
+    @Modifying
+    @Query(value = "INSERT INTO project_endpoint_versions (project_id, version, updated_at) " +
+            "VALUES (:projectId, 1, now()) " +
+            "ON CONFLICT (project_id) DO UPDATE SET version = project_endpoint_versions.version + 1, " +
+            "updated_at = now()", nativeQuery = true)
+    int bump(@Param("projectId") UUID projectId);
+}
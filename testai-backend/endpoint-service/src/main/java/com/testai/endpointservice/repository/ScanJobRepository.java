@@ -0,0 +1,109 @@
+package com.testai.endpointservice.repository;
+
+import com.testai.endpointservice.entity.ScanJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository pour les jobs de scan
+ */
+@Repository
+public interface ScanJobRepository extends JpaRepository<ScanJob, UUID> {
+
+    /**
+     * Signe de vie des jobs exécutés par cette instance
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ScanJob j SET j.heartbeatAt = :now WHERE j.id IN :ids " +
+            "AND j.status IN (com.testai.endpointservice.entity.ScanJob.Status.PENDING, " +
+            "com.testai.endpointservice.entity.ScanJob.Status.RUNNING)")
+    int touch(@Param("ids") Collection<UUID> ids, @Param("now") LocalDateTime now);
+
+    /**
+     * Jobs non terminés dont l'instance ne donne plus signe de vie (arrêt ou crash pendant le scan)
+     */
+    @Query("SELECT j FROM ScanJob j WHERE j.status IN (com.testai.endpointservice.entity.ScanJob.Status.PENDING, " +
+            "com.testai.endpointservice.entity.ScanJob.Status.RUNNING) " +
+            "AND (j.heartbeatAt IS NULL OR j.heartbeatAt < :staleBefore)")
+    List<ScanJob> findAbandoned(@Param("staleBefore") LocalDateTime staleBefore);
+
+    /**
+     * Supprimer au plus "limit" jobs terminés avant finishedBefore, sauf le dernier job de chaque projet
+     * et ceux auxquels l'historique des endpoints fait référence (endpoint_revisions.scan_job_id)
+     *
+     * @return nombre de jobs supprimés
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM scan_jobs WHERE id IN (SELECT j.id FROM scan_jobs j " +
+            "WHERE j.status IN ('COMPLETED', 'FAILED') AND j.finished_at < :finishedBefore " +
+            "AND NOT EXISTS (SELECT 1 FROM endpoint_revisions r WHERE r.scan_job_id = j.id) " +
+            "AND EXISTS (SELECT 1 FROM scan_jobs n WHERE n.project_id = j.project_id AND n.created_at > j.created_at) " +
+            "LIMIT :limit)", nativeQuery = true)
+    int deleteExpired(@Param("finishedBefore") LocalDateTime finishedBefore, @Param("limit") int limit);
+
+    /*
+     * Les écritures d'un job passent par des UPDATE ciblés (jamais save() de l'entité entière) :
+     * heartbeat_at n'est modifié que par touch(), et un job terminé n'est jamais réécrit.
+     */
+
+    /**
+     * PENDING -> RUNNING (0 si le job n'est plus en attente, par exemple passé en échec entre-temps)
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ScanJob j SET j.status = com.testai.endpointservice.entity.ScanJob.Status.RUNNING, " +
+            "j.startedAt = :startedAt WHERE j.id = :id " +
+            "AND j.status = com.testai.endpointservice.entity.ScanJob.Status.PENDING")
+    int markRunning(@Param("id") UUID id, @Param("startedAt") LocalDateTime startedAt);
+
+    /**
+     * Progression d'un job en cours
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ScanJob j SET j.processedOperations = :processed WHERE j.id = :id " +
+            "AND j.status = com.testai.endpointservice.entity.ScanJob.Status.RUNNING")
+    int updateProgress(@Param("id") UUID id, @Param("processed") int processed);
+
+    /**
+     * État final et compteurs, seulement si le job n'est pas déjà terminé
+     *
+     * @return 0 si le job était déjà COMPLETED ou FAILED (rien n'est écrit)
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ScanJob j SET j.status = :status, j.message = :message, j.finishedAt = :finishedAt, " +
+            "j.totalEndpoints = :total, j.newEndpoints = :inserted, j.updatedEndpoints = :updated, " +
+            "j.skippedEndpoints = :skipped WHERE j.id = :id " +
+            "AND j.status IN (com.testai.endpointservice.entity.ScanJob.Status.PENDING, " +
+            "com.testai.endpointservice.entity.ScanJob.Status.RUNNING)")
+    int finish(@Param("id") UUID id, @Param("status") ScanJob.Status status, @Param("message") String message,
+               @Param("finishedAt") LocalDateTime finishedAt, @Param("total") int total,
+               @Param("inserted") int inserted, @Param("updated") int updated, @Param("skipped") int skipped);
+
+    /**
+     * Passer un job abandonné en FAILED, si son signe de vie est toujours trop ancien et qu'il n'est pas terminé
+     *
+     * @return 0 si le job a redonné signe de vie ou s'est terminé depuis sa lecture
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ScanJob j SET j.status = com.testai.endpointservice.entity.ScanJob.Status.FAILED, " +
+            "j.message = :message, j.finishedAt = :finishedAt WHERE j.id = :id " +
+            "AND j.status IN (com.testai.endpointservice.entity.ScanJob.Status.PENDING, " +
+            "com.testai.endpointservice.entity.ScanJob.Status.RUNNING) " +
+            "AND (j.heartbeatAt IS NULL OR j.heartbeatAt < :staleBefore)")
+    int failAbandoned(@Param("id") UUID id, @Param("message") String message,
+                      @Param("finishedAt") LocalDateTime finishedAt, @Param("staleBefore") LocalDateTime staleBefore);
+}
@@ -0,0 +1,73 @@
+package com.testai.endpointservice.repository;
+
+import com.testai.endpointservice.entity.ScanSchedule;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository pour les planifications de rescan
+ */
+@Repository
+public interface ScanScheduleRepository extends JpaRepository<ScanSchedule, UUID> {
+
+    /**
+     * Récupérer la planification d'un projet
+     */
+    Optional<ScanSchedule> findByProjectId(UUID projectId);
+
+    /**
+     * Planifications arrivées à échéance, les plus en retard d'abord
+     */
+    List<ScanSchedule> findByNextRunAtLessThanEqualOrderByNextRunAtAsc(LocalDateTime now, Pageable pageable);
+
+    /**
+     * Réserver une planification pour ce passage : ne réussit (1) que si aucune
+     * autre instance ne l'a déjà décalée depuis sa lecture
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ScanSchedule s SET s.nextRunAt = :nextRunAt, s.lastRunAt = :now " +
+            "WHERE s.id = :id AND s.nextRunAt = :expectedNextRunAt")
+    int claim(@Param("id") UUID id,
+              @Param("expectedNextRunAt") LocalDateTime expectedNextRunAt,
+              @Param("nextRunAt") LocalDateTime nextRunAt,
+              @Param("now") LocalDateTime now);
+
+    /**
+     * Planifier les projets Swagger existants qui n'ont pas encore de planification :
+     * URL du scan le plus récent (jobs de scan ou empreintes de spécification), pour les
+     * projets qui ont encore des endpoints SWAGGER. Échéances réparties sur l'intervalle.
+     *
+     * @return nombre de planifications créées
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO scan_schedules (id, project_id, spec_url, next_run_at) " +
+            "SELECT gen_random_uuid(), latest.project_id, latest.spec_url, " +
+            "now() + make_interval(secs => random() * :spreadSeconds) " +
+            "FROM (SELECT DISTINCT ON (project_id) project_id, spec_url FROM (" +
+            "SELECT project_id, swagger_url AS spec_url, created_at AS scanned_at FROM scan_jobs " +
+            "UNION ALL SELECT project_id, spec_url, last_scanned_at FROM spec_fingerprints) known " +
+            "ORDER BY project_id, scanned_at DESC) latest " +
+            "WHERE EXISTS (SELECT 1 FROM endpoints e WHERE e.project_id = latest.project_id " +
+            "AND e.discovery_type = 'SWAGGER') " +
+            "ON CONFLICT (project_id) DO NOTHING", nativeQuery = true)
+    int seedMissing(@Param("spreadSeconds") long spreadSeconds);
+
+    /**
+     * Supprimer la planification d'un projet
+     */
+    @Modifying
+    @Query("DELETE FROM ScanSchedule s WHERE s.projectId = :projectId")
+    int deleteByProjectId(@Param("projectId") UUID projectId);
+}
@@ -0,0 +1,99 @@
+package com.testai.endpointservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Accès à la table schema_blobs via JDBC
+ */
+@Repository
+@RequiredArgsConstructor
+public class SchemaBlobRepository {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    /**
+     * Un fragment déjà présent n'est pas réécrit : sa ligne est seulement verrouillée jusqu'au commit
+     * (ce que fait ON CONFLICT DO UPDATE même quand la condition WHERE est fausse), ce qui le protège
+     * du ramasse-miettes ; lastUsedAt n'est rafraîchi qu'au-delà d'une heure.
+     */
+    private static final String UPSERT_SUFFIX = " ON CONFLICT (hash) " +
+            "DO UPDATE SET last_used_at = EXCLUDED.last_used_at WHERE schema_blobs.last_used_at < EXCLUDED.last_used_at - interval '1 hour'";
+
+    /**
+     * Empreintes référencées par les endpoints
+     */
+    private static final String REFERENCED_HASHES = "SELECT h FROM endpoints, unnest(ARRAY[request_body_hash, " +
+            "response_body_hash, resolved_request_body_hash, resolved_response_body_hash]) h WHERE h IS NOT NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Enregistrer des fragments (empreinte -> JSON normalisé), une instruction par paquet
+     */
+    public void upsertAll(Map<String, String> blobs) {
+        List<Map.Entry<String, String>> entries = new ArrayList<>(blobs.entrySet());
+        // Ordre stable : deux scans concurrents verrouillent les lignes dans le même ordre
+        entries.sort(Map.Entry.comparingByKey());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        for (int from = 0; from < entries.size(); from += CHUNK_SIZE) {
+            List<Map.Entry<String, String>> chunk = entries.subList(from, Math.min(from + CHUNK_SIZE, entries.size()));
+            String sql = "INSERT INTO schema_blobs (hash, content, size_bytes, created_at, last_used_at) VALUES " +
+                    String.join(", ", Collections.nCopies(chunk.size(), "(?, ?, ?, ?, ?)")) + UPSERT_SUFFIX;
+            List<Object> args = new ArrayList<>(chunk.size() * 5);
+            for (Map.Entry<String, String> entry : chunk) {
+                args.add(entry.getKey());
+                args.add(entry.getValue());
+                args.add(entry.getValue().getBytes(StandardCharsets.UTF_8).length);
+                args.add(now);
+                args.add(now);
+            }
+            jdbcTemplate.update(sql, args.toArray());
+        }
+    }
+
+    /**
+     * Contenu des fragments demandés (les empreintes inconnues sont absentes du résultat)
+     */
+    public Map<String, String> findAll(Collection<String> hashes) {
+        List<String> keys = new ArrayList<>(hashes);
+        Map<String, String> blobs = new HashMap<>();
+        for (int from = 0; from < keys.size(); from += CHUNK_SIZE) {
+            List<String> chunk = keys.subList(from, Math.min(from + CHUNK_SIZE, keys.size()));
+            String sql = "SELECT hash, content FROM schema_blobs WHERE hash IN (" +
+                    String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+            jdbcTemplate.query(sql, rs -> {
+                blobs.put(rs.getString("hash"), rs.getString("content"));
+            }, chunk.toArray());
+        }
+        return blobs;
+    }
+
+    /**
+     * Supprimer les fragments qui ne sont plus référencés par aucun endpoint
+     * et dont la dernière utilisation est antérieure à usedBefore
+     *
+     * La condition sur last_used_at est réévaluée sur une ligne verrouillée par une écriture
+     * concurrente : un fragment réutilisé pendant le ramasse-miettes est conservé.
+     *
+     * @return nombre de fragments supprimés
+     */
+    public int deleteUnreferenced(LocalDateTime usedBefore) {
+        Timestamp threshold = Timestamp.valueOf(usedBefore);
+        return jdbcTemplate.update("DELETE FROM schema_blobs WHERE last_used_at < ? AND hash IN (" +
+                "SELECT hash FROM schema_blobs WHERE last_used_at < ? EXCEPT " + REFERENCED_HASHES + ")",
+                threshold, threshold);
+    }
+}
@@ -0,0 +1,30 @@
+package com.testai.endpointservice.repository;
+
+import com.testai.endpointservice.entity.SpecFingerprint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository pour les empreintes de spécifications Swagger
+ */
+@Repository
+public interface SpecFingerprintRepository extends JpaRepository<SpecFingerprint, UUID> {
+
+    /**
+     * Récupérer l'empreinte d'une spécification pour un projet
+     */
+    Optional<SpecFingerprint> findByProjectIdAndSpecUrl(UUID projectId, String specUrl);
+
+    /**
+     * Oublier les empreintes d'un projet (force un rescan complet)
+     */
+    @Modifying
+    @Query("DELETE FROM SpecFingerprint f WHERE f.projectId = :projectId")
+    int deleteByProjectId(@Param("projectId") UUID projectId);
+}
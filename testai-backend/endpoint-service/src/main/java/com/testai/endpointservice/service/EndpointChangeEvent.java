@@ -0,0 +1,39 @@
+package com.testai.endpointservice.service;
+
+import com.testai.endpointservice.entity.Endpoint;
+
+import java.util.UUID;
+
+/**
+ * Modification des endpoints d'un projet, publiée par les chemins d'écriture
+ * (EndpointService, EndpointScanWriter) et traitée après le commit de la transaction
+ * par les structures en mémoire qui en dérivent (index des chemins...)
+ *
+ * @param endpointId null pour une modification en masse du projet (scan, suppression du projet)
+ * @param method     méthode après modification (null pour une suppression ou une modification en masse)
+ * @param path       chemin après modification (null pour une suppression ou une modification en masse)
+ */
+public record EndpointChangeEvent(Type type, UUID projectId, UUID endpointId,
+                                  Endpoint.HttpMethod method, String path) {
+
+    public enum Type {
+        SAVED, DELETED, PROJECT_CHANGED, PROJECT_DELETED
+    }
+
+    public static EndpointChangeEvent saved(Endpoint endpoint) {
+        return new EndpointChangeEvent(Type.SAVED, endpoint.getProjectId(), endpoint.getId(),
+                endpoint.getMethod(), endpoint.getPath());
+    }
+
+    public static EndpointChangeEvent deleted(Endpoint endpoint) {
+        return new EndpointChangeEvent(Type.DELETED, endpoint.getProjectId(), endpoint.getId(), null, null);
+    }
+
+    public static EndpointChangeEvent projectChanged(UUID projectId) {
+        return new EndpointChangeEvent(Type.PROJECT_CHANGED, projectId, null, null, null);
+    }
+
+    public static EndpointChangeEvent projectDeleted(UUID projectId) {
+        return new EndpointChangeEvent(Type.PROJECT_DELETED, projectId, null, null, null);
+    }
+}
@@ -0,0 +1,115 @@
+package com.testai.endpointservice.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.testai.endpointservice.dto.EndpointDTO;
+import com.testai.endpointservice.entity.Endpoint;
+import com.testai.endpointservice.repository.EndpointExportRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Export des endpoints au format NDJSON (un objet JSON par ligne)
+ *
+ * Les endpoints sont sérialisés dans le flux de la réponse au fil de la lecture, par lots de
+ * fetch-size (le temps de renseigner leurs corps depuis schema_blobs en une requête) : la mémoire
+ * consommée ne dépend pas du volume exporté.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EndpointExportService {
+
+    private final EndpointExportRepository endpointExportRepository;
+    private final SchemaBlobStore schemaBlobStore;
+    private final ObjectMapper objectMapper;
+
+    @Value("${endpoints.export.fetch-size:500}")
+    private int fetchSize;
+
+    /**
+     * Écrire les endpoints correspondant aux filtres (tous optionnels) dans out
+     *
+     * @return nombre d'endpoints exportés
+     */
+    @Transactional(readOnly = true)
+    public long export(UUID projectId, Endpoint.HttpMethod method, LocalDateTime updatedSince, OutputStream out)
+            throws IOException {
+        log.info("📤 Export NDJSON des endpoints (projet={}, méthode={}, modifiés depuis={})",
+                projectId, method, updatedSince);
+        long startTime = System.currentTimeMillis();
+
+        // Pas de flush après chaque ligne : le tampon de la réponse est vidé quand il est plein
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long count;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            // Une ligne par endpoint, sans séparateur ajouté par Jackson ; le flux appartient au conteneur
+            generator.setRootValueSeparator(null);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            List<Endpoint> batch = new ArrayList<>(fetchSize);
+            count = endpointExportRepository.forEach(projectId, method, updatedSince, fetchSize, endpoint -> {
+                batch.add(endpoint);
+                if (batch.size() == fetchSize) {
+                    writeBatch(batch, writer, generator);
+                }
+            });
+            writeBatch(batch, writer, generator);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        log.info("✅ {} endpoints exportés en {} ms", count, System.currentTimeMillis() - startTime);
+        return count;
+    }
+
+    /**
+     * Écrire un lot d'endpoints (détachés) puis le vider
+     */
+    private void writeBatch(List<Endpoint> batch, ObjectWriter writer, JsonGenerator generator) {
+        schemaBlobStore.hydrate(batch);
+        try {
+            for (Endpoint endpoint : batch) {
+                writer.writeValue(generator, convertToDTO(endpoint));
+                generator.writeRaw('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        batch.clear();
+    }
+
+    private EndpointDTO convertToDTO(Endpoint endpoint) {
+        return EndpointDTO.builder()
+                .id(endpoint.getId())
+                .projectId(endpoint.getProjectId())
+                .method(endpoint.getMethod())
+                .path(endpoint.getPath())
+                .description(endpoint.getDescription())
+                .discoveryType(endpoint.getDiscoveryType())
+                .tags(endpoint.getTags())
+                .parameters(endpoint.getParameters())
+                .requestBody(endpoint.getRequestBody())
+                .responseBody(endpoint.getResponseBody())
+                .resolvedParameters(endpoint.getResolvedParameters())
+                .resolvedRequestBody(endpoint.getResolvedRequestBody())
+                .resolvedResponseBody(endpoint.getResolvedResponseBody())
+                .statusCodes(endpoint.getStatusCodes())
+                .requiresAuth(endpoint.getRequiresAuth())
+                .createdAt(endpoint.getCreatedAt())
+                .updatedAt(endpoint.getUpdatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,310 @@
+package com.testai.endpointservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.testai.endpointservice.dto.EndpointDTO;
+import com.testai.endpointservice.dto.EndpointRevisionDTO;
+import com.testai.endpointservice.entity.Endpoint;
+import com.testai.endpointservice.entity.EndpointRevision;
+import com.testai.endpointservice.entity.ScanJob;
+import com.testai.endpointservice.repository.EndpointRevisionRepository;
+import com.testai.endpointservice.repository.ScanJobRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Historique des définitions d'endpoints (table endpoint_revisions, en ajout seul)
+ *
+ * - chaque écriture ajoute une révision dans sa transaction (EndpointService, EndpointScanWriter) :
+ *   un JSON Patch par rapport à l'état précédent, ou rien si la définition n'a pas changé
+ * - un instantané complet est écrit à la création, toutes les snapshot-interval révisions, et quand
+ *   le patch serait plus gros que la définition : une reconstruction applique au plus
+ *   snapshot-interval - 1 patchs
+ * - le volume stocké suit la taille des modifications, pas le nombre de scans
+ * - les lignes endpoints concernées sont verrouillées avant de lire la dernière révision : deux
+ *   écritures concurrentes d'un même endpoint (scan et PUT) ne calculent pas le même numéro
+ *
+ * Les endpoints antérieurs à l'historique reçoivent un instantané BASELINE au démarrage
+ * (EndpointSchemaMigration).
+ */
+@Service
+@Slf4j
+public class EndpointHistory {
+
+    /**
+     * Mêmes nombres que les fragments normalisés de schema_blobs (décimaux conservés tels quels)
+     */
+    private final ObjectMapper documentMapper = JsonMapper.builder()
+            .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+            .build();
+
+    private final EndpointRevisionRepository endpointRevisionRepository;
+    private final ScanJobRepository scanJobRepository;
+    private final int snapshotInterval;
+
+    public EndpointHistory(
+            EndpointRevisionRepository endpointRevisionRepository,
+            ScanJobRepository scanJobRepository,
+            @Value("${endpoints.revisions.snapshot-interval:20}") int snapshotInterval) {
+        this.endpointRevisionRepository = endpointRevisionRepository;
+        this.scanJobRepository = scanJobRepository;
+        this.snapshotInterval = Math.max(1, snapshotInterval);
+    }
+
+    /**
+     * Ajouter une révision pour chaque endpoint créé ou modifié (corps renseignés)
+     *
+     * @param scanJobId job de scan à l'origine de l'écriture (null pour une modification manuelle)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Collection<Endpoint> endpoints, UUID scanJobId) {
+        if (endpoints.isEmpty()) {
+            return;
+        }
+
+        List<UUID> endpointIds = endpoints.stream().map(Endpoint::getId).toList();
+        // Révision suivante = dernière + 1 : lue seulement une fois les lignes verrouillées
+        endpointRevisionRepository.lockEndpoints(endpointIds);
+        Map<UUID, List<EndpointRevision>> chains = endpointRevisionRepository
+                .findLatestChains(endpointIds)
+                .stream()
+                .collect(Collectors.groupingBy(EndpointRevision::getEndpointId, HashMap::new, Collectors.toList()));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<EndpointRevision> revisions = new ArrayList<>();
+        for (Endpoint endpoint : endpoints) {
+            JsonNode document = toDocument(endpoint);
+            EndpointRevision.EndpointRevisionBuilder revision = EndpointRevision.builder()
+                    .endpointId(endpoint.getId())
+                    .projectId(endpoint.getProjectId())
+                    .scanJobId(scanJobId)
+                    .createdAt(now);
+
+            List<EndpointRevision> chain = chains.get(endpoint.getId());
+            if (chain == null) {
+                revisions.add(revision.revision(1)
+                        .changeType(EndpointRevision.ChangeType.CREATED)
+                        .snapshot(true)
+                        .content(write(document))
+                        .build());
+                continue;
+            }
+
+            ArrayNode patch = JsonPatch.diff(reconstruct(chain), document);
+            if (patch.isEmpty()) {
+                continue;
+            }
+            String patchContent = write(patch);
+            String documentContent = write(document);
+            boolean snapshot = chain.size() >= snapshotInterval || patchContent.length() >= documentContent.length();
+            revisions.add(revision.revision(chain.get(chain.size() - 1).getRevision() + 1)
+                    .changeType(EndpointRevision.ChangeType.UPDATED)
+                    .snapshot(snapshot)
+                    .content(snapshot ? documentContent : patchContent)
+                    .build());
+        }
+
+        if (!revisions.isEmpty()) {
+            endpointRevisionRepository.insertAll(revisions);
+            log.debug("🕓 {} révisions enregistrées", revisions.size());
+        }
+    }
+
+    /**
+     * Révisions d'une modification en masse d'un seul champ (tags, requiresAuth), écrites en une
+     * instruction INSERT ... SELECT par paquet sans charger les endpoints
+     *
+     * Ces patchs ne déclenchent pas d'instantané : la prochaine écriture unitaire en écrit un
+     * si la chaîne a dépassé snapshot-interval.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTagsChange(Collection<UUID> endpointIds) {
+        if (!endpointIds.isEmpty()) {
+            endpointRevisionRepository.insertReplacements(endpointIds, "tags", "tags", LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Voir recordTagsChange()
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordRequiresAuthChange(Collection<UUID> endpointIds) {
+        if (!endpointIds.isEmpty()) {
+            endpointRevisionRepository.insertReplacements(endpointIds, "requiresAuth", "requires_auth",
+                    LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Marquer des endpoints comme supprimés
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeletions(Collection<UUID> endpointIds) {
+        if (!endpointIds.isEmpty()) {
+            endpointRevisionRepository.insertDeletions(endpointIds, LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Marquer tous les endpoints d'un projet comme supprimés (avant leur suppression)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordProjectDeletion(UUID projectId) {
+        endpointRevisionRepository.insertProjectDeletions(projectId, LocalDateTime.now());
+    }
+
+    /**
+     * Révisions d'un endpoint, de la plus ancienne à la plus récente
+     */
+    @Transactional(readOnly = true)
+    public List<EndpointRevisionDTO> getRevisions(UUID endpointId) {
+        List<EndpointRevision> revisions = endpointRevisionRepository.findByEndpointId(endpointId);
+        if (revisions.isEmpty()) {
+            throw new RuntimeException("Endpoint non trouvé");
+        }
+        return revisions.stream().map(this::convertToDTO).collect(Collectors.toList());
+    }
+
+    /**
+     * Définition d'un endpoint telle qu'elle était à une date
+     *
+     * updatedAt est la date de la révision retenue ; createdAt n'est pas renseigné.
+     */
+    @Transactional(readOnly = true)
+    public EndpointDTO getAsOf(UUID endpointId, LocalDateTime asOf) {
+        List<EndpointRevision> chain = endpointRevisionRepository.findChainAsOf(endpointId, asOf);
+        if (chain.isEmpty()) {
+            throw new RuntimeException("Endpoint non trouvé à cette date");
+        }
+        EndpointRevision target = chain.get(chain.size() - 1);
+        if (target.getChangeType() == EndpointRevision.ChangeType.DELETED) {
+            throw new RuntimeException("Endpoint supprimé à cette date");
+        }
+        return toDTO(endpointId, target, reconstruct(chain));
+    }
+
+    /**
+     * Définition d'un endpoint telle qu'elle était à la fin d'un job de scan
+     */
+    @Transactional(readOnly = true)
+    public EndpointDTO getAsOfScan(UUID endpointId, UUID scanJobId) {
+        ScanJob job = scanJobRepository.findById(scanJobId)
+                .orElseThrow(() -> new RuntimeException("Job de scan non trouvé"));
+        if (!job.isFinished()) {
+            throw new IllegalArgumentException("Le job de scan " + scanJobId + " n'est pas terminé");
+        }
+        return getAsOf(endpointId, job.getFinishedAt());
+    }
+
+    /**
+     * État au bout d'une chaîne de révisions commençant par un instantané
+     */
+    private JsonNode reconstruct(List<EndpointRevision> chain) {
+        JsonNode document = read(chain.get(0).getContent());
+        for (EndpointRevision revision : chain.subList(1, chain.size())) {
+            if (revision.isSnapshot()) {
+                document = read(revision.getContent());
+            } else if (revision.getContent() != null) {
+                document = JsonPatch.apply(document, read(revision.getContent()));
+            }
+        }
+        return document;
+    }
+
+    /**
+     * Définition versionnée d'un endpoint ; mêmes clés que l'instantané BASELINE calculé en SQL
+     * (EndpointRevisionRepository)
+     */
+    private JsonNode toDocument(Endpoint endpoint) {
+        ObjectNode document = documentMapper.createObjectNode();
+        document.put("method", endpoint.getMethod().name());
+        document.put("path", endpoint.getPath());
+        document.put("description", endpoint.getDescription());
+        document.put("discoveryType", endpoint.getDiscoveryType().name());
+        document.put("tags", endpoint.getTags());
+        document.set("parameters", readFragment(endpoint.getParameters()));
+        document.set("requestBody", readFragment(endpoint.getRequestBody()));
+        document.set("responseBody", readFragment(endpoint.getResponseBody()));
+        document.set("resolvedParameters", readFragment(endpoint.getResolvedParameters()));
+        document.set("resolvedRequestBody", readFragment(endpoint.getResolvedRequestBody()));
+        document.set("resolvedResponseBody", readFragment(endpoint.getResolvedResponseBody()));
+        document.put("statusCodes", endpoint.getStatusCodes());
+        document.put("requiresAuth", endpoint.getRequiresAuth());
+        return document;
+    }
+
+    private EndpointDTO toDTO(UUID endpointId, EndpointRevision revision, JsonNode document) {
+        return EndpointDTO.builder()
+                .id(endpointId)
+                .projectId(revision.getProjectId())
+                .method(Endpoint.HttpMethod.valueOf(document.path("method").asText()))
+                .path(document.path("path").textValue())
+                .description(document.path("description").textValue())
+                .discoveryType(Endpoint.DiscoveryType.valueOf(document.path("discoveryType").asText()))
+                .tags(document.path("tags").textValue())
+                .parameters(writeFragment(document.get("parameters")))
+                .requestBody(writeFragment(document.get("requestBody")))
+                .responseBody(writeFragment(document.get("responseBody")))
+                .resolvedParameters(writeFragment(document.get("resolvedParameters")))
+                .resolvedRequestBody(writeFragment(document.get("resolvedRequestBody")))
+                .resolvedResponseBody(writeFragment(document.get("resolvedResponseBody")))
+                .statusCodes(document.path("statusCodes").textValue())
+                .requiresAuth(document.path("requiresAuth").isBoolean() ? document.get("requiresAuth").booleanValue() : null)
+                .updatedAt(revision.getCreatedAt())
+                .build();
+    }
+
+    private EndpointRevisionDTO convertToDTO(EndpointRevision revision) {
+        return EndpointRevisionDTO.builder()
+                .endpointId(revision.getEndpointId())
+                .revision(revision.getRevision())
+                .changeType(revision.getChangeType())
+                .snapshot(revision.isSnapshot())
+                .scanJobId(revision.getScanJobId())
+                .content(revision.getContent())
+                .createdAt(revision.getCreatedAt())
+                .build();
+    }
+
+    private JsonNode readFragment(String json) {
+        return json == null ? NullNode.getInstance() : read(json);
+    }
+
+    private String writeFragment(JsonNode node) {
+        return node == null || node.isNull() ? null : write(node);
+    }
+
+    private JsonNode read(String json) {
+        try {
+            return documentMapper.readTree(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Révision JSON invalide", e);
+        }
+    }
+
+    private String write(JsonNode node) {
+        try {
+            return documentMapper.writeValueAsString(node);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.testai.endpointservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.testai.endpointservice.dto.CursorPage;
+import com.testai.endpointservice.dto.EndpointDTO;
+import com.testai.endpointservice.dto.EndpointView;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cache local (Caffeine) des lectures d'endpoints : détail par ID et pages par projet
+ *
+ * - taille bornée et expiration après écriture (ttl-seconds) : la durée de vie borne aussi
+ *   l'écart entre instances, l'invalidation n'étant que locale
+ * - invalidation après commit à partir des EndpointChangeEvent (création, modification,
+ *   suppression, suppression d'un projet, écriture d'un scan)
+ * - chaque entrée garde l'instant logique de sa lecture en base : une entrée lue avant la
+ *   dernière invalidation qui la concerne n'est jamais servie, même si elle a été insérée
+ *   après cette invalidation (lecture concurrente d'un commit)
+ * - les pages sont indexées par la version des endpoints du projet (ProjectEndpointVersions),
+ *   lue avant la page : une écriture, sur cette instance ou une autre, change la clé
+ *   dès son commit, sans attendre l'invalidation locale ni le TTL
+ * - statistiques exposées via /actuator/metrics (cache.gets, cache.evictions, cache.size...)
+ */
+@Component
+@Slf4j
+public class EndpointReadCache {
+
+    private final boolean enabled;
+    private final Cache<UUID, Entry<EndpointDTO>> byId;
+    private final Cache<PageKey, Entry<CursorPage<?>>> projectPages;
+
+    /**
+     * Horloge logique des lectures, et dernière invalidation (instant logique) :
+     * - des pages de chaque projet (toute modification du projet)
+     * - de tous les endpoints d'un projet (scan, suppression du projet)
+     * - de chaque endpoint modifié ou supprimé
+     * Chacune est conservée le temps du TTL, au-delà duquel les entrées qu'elle écarte ont expiré
+     */
+    private final AtomicLong clock = new AtomicLong();
+    private final Cache<UUID, Long> pagesInvalidatedAt;
+    private final Cache<UUID, Long> projectInvalidatedAt;
+    private final Cache<UUID, Long> endpointInvalidatedAt;
+
+    public EndpointReadCache(
+            MeterRegistry meterRegistry,
+            @Value("${endpoints.cache.enabled:true}") boolean enabled,
+            @Value("${endpoints.cache.by-id-max-size:10000}") long byIdMaxSize,
+            @Value("${endpoints.cache.project-pages-max-size:2000}") long projectPagesMaxSize,
+            @Value("${endpoints.cache.ttl-seconds:300}") long ttlSeconds) {
+        this.enabled = enabled;
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(byIdMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        this.projectPages = Caffeine.newBuilder()
+                .maximumSize(projectPagesMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        this.pagesInvalidatedAt = invalidations(ttlSeconds);
+        this.projectInvalidatedAt = invalidations(ttlSeconds);
+        this.endpointInvalidatedAt = invalidations(ttlSeconds);
+
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "endpoints.by-id");
+        CaffeineCacheMetrics.monitor(meterRegistry, projectPages, "endpoints.project-pages");
+        log.info("🧠 Cache des endpoints {} (TTL {} s)", enabled ? "activé" : "désactivé", ttlSeconds);
+    }
+
+    /**
+     * @param projectId projet de la valeur
+     * @param readAt    instant logique de la lecture en base
+     */
+    private record Entry<T>(UUID projectId, long readAt, T value) {
+    }
+
+    private record PageKey(UUID projectId, long version, String cursor, int size, EndpointView view) {
+    }
+
+    /**
+     * Détail d'un endpoint, lu en base par loader en cas d'absence
+     */
+    public EndpointDTO getById(UUID endpointId, Supplier<EndpointDTO> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        Entry<EndpointDTO> cached = byId.getIfPresent(endpointId);
+        if (cached != null && cached.readAt() >= invalidatedAt(endpointId, cached.projectId())) {
+            return cached.value();
+        }
+
+        long readAt = clock.get();
+        EndpointDTO endpoint = loader.get();
+        byId.put(endpointId, new Entry<>(endpoint.getProjectId(), readAt, endpoint));
+        return endpoint;
+    }
+
+    /**
+     * Page des endpoints d'un projet, lue en base par loader en cas d'absence
+     *
+     * @param version version des endpoints du projet, lue avant l'appel (la page chargée est au moins aussi récente)
+     */
+    public CursorPage<?> getProjectPage(UUID projectId, long version, String cursor, int size, EndpointView view,
+                                        Supplier<CursorPage<?>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        PageKey key = new PageKey(projectId, version, cursor, size, view);
+        Entry<CursorPage<?>> cached = projectPages.getIfPresent(key);
+        if (cached != null && cached.readAt() >= lastInvalidation(pagesInvalidatedAt, projectId)) {
+            return cached.value();
+        }
+
+        long readAt = clock.get();
+        CursorPage<?> page = loader.get();
+        projectPages.put(key, new Entry<>(projectId, readAt, page));
+        return page;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEndpointChange(EndpointChangeEvent event) {
+        UUID projectId = event.projectId();
+        long now = clock.incrementAndGet();
+        pagesInvalidatedAt.put(projectId, now);
+
+        switch (event.type()) {
+            case SAVED, DELETED -> {
+                endpointInvalidatedAt.put(event.endpointId(), now);
+                byId.invalidate(event.endpointId());
+            }
+            case PROJECT_CHANGED, PROJECT_DELETED -> {
+                projectInvalidatedAt.put(projectId, now);
+                byId.asMap().values().removeIf(entry -> projectId.equals(entry.projectId()));
+            }
+        }
+        projectPages.asMap().keySet().removeIf(key -> projectId.equals(key.projectId()));
+        log.debug("🧹 Cache des endpoints invalidé pour le projet {} ({})", projectId, event.type());
+    }
+
+    private long invalidatedAt(UUID endpointId, UUID projectId) {
+        Long endpoint = endpointInvalidatedAt.getIfPresent(endpointId);
+        long project = lastInvalidation(projectInvalidatedAt, projectId);
+        return endpoint != null ? Math.max(endpoint, project) : project;
+    }
+
+    private static long lastInvalidation(Cache<UUID, Long> invalidations, UUID key) {
+        Long at = invalidations.getIfPresent(key);
+        return at != null ? at : 0L;
+    }
+
+    private static Cache<UUID, Long> invalidations(long ttlSeconds) {
+        return Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+}
@@ -0,0 +1,175 @@
+package com.testai.endpointservice.service;
+
+import com.testai.endpointservice.dto.EndpointKey;
+import com.testai.endpointservice.dto.ScanSwaggerResponse;
+import com.testai.endpointservice.entity.Endpoint;
+import com.testai.endpointservice.entity.SpecFingerprint;
+import com.testai.endpointservice.repository.EndpointBatchWriter;
+import com.testai.endpointservice.repository.EndpointRepository;
+import com.testai.endpointservice.repository.SpecFingerprintRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Phase d'écriture d'un scan Swagger
+ *
+ * Séparée de SwaggerScannerService pour que les transactions ne couvrent que
+ * l'écriture en base, jamais le téléchargement ni la lecture de la spécification.
+ * Les opérations arrivent par lots (une transaction par lot) : la mémoire consommée
+ * dépend de la taille d'un lot, pas de celle de la spécification.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EndpointScanWriter {
+
+    private final EndpointRepository endpointRepository;
+    private final EndpointBatchWriter endpointBatchWriter;
+    private final SpecFingerprintRepository specFingerprintRepository;
+    private final EndpointStatistics endpointStatistics;
+    private final SchemaBlobStore schemaBlobStore;
+    private final EndpointHistory endpointHistory;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * État d'un scan conservé d'un lot à l'autre : clés existantes du projet, clés déjà vues
+     * dans la spécification (doublons) et compteurs du résultat
+     */
+    public static final class Session {
+        private final UUID projectId;
+        private final UUID scanJobId;
+        private final Map<String, EndpointKey> existing = new HashMap<>();
+        private final Set<String> seenKeys = new HashSet<>();
+        private int total;
+        private int inserted;
+        private int updated;
+        private int skipped;
+
+        private Session(UUID projectId, UUID scanJobId) {
+            this.projectId = projectId;
+            this.scanJobId = scanJobId;
+        }
+    }
+
+    /**
+     * Ouvrir l'écriture d'un scan : les clés existantes du projet sont chargées une seule fois
+     *
+     * @param scanJobId job de scan à l'origine de l'écriture, enregistré dans les révisions (optionnel)
+     */
+    @Transactional(readOnly = true)
+    public Session begin(UUID projectId, UUID scanJobId) {
+        Session session = new Session(projectId, scanJobId);
+        for (EndpointKey key : endpointRepository.findKeysByProjectId(projectId)) {
+            session.existing.put(endpointKey(key.getMethod(), key.getPath()), key);
+        }
+        return session;
+    }
+
+    /**
+     * Écrire un lot d'endpoints et gérer les doublons
+     *
+     * Les nouveaux endpoints sont insérés en masse, les endpoints Swagger dont l'empreinte a changé
+     * sont mis à jour en place, les autres sont ignorés. Les compteurs de statistiques, les corps
+     * distincts (schema_blobs, préparés par le scan) et les révisions sont écrits dans la même transaction.
+     */
+    @Transactional
+    public void write(Session session, List<Endpoint> endpoints) {
+        UUID projectId = session.projectId;
+        session.total += endpoints.size();
+        endpointStatistics.lockForWrite();
+
+        List<Endpoint> toInsert = new ArrayList<>();
+        List<Endpoint> toUpdate = new ArrayList<>();
+        Map<UUID, EndpointKey> previousStates = new HashMap<>();
+        EndpointStatsDelta stats = new EndpointStatsDelta();
+        for (Endpoint endpoint : endpoints) {
+            String key = endpointKey(endpoint.getMethod(), endpoint.getPath());
+            EndpointKey current = session.existing.get(key);
+
+            if (!session.seenKeys.add(key)) {
+                session.skipped++;
+            } else if (current == null) {
+                toInsert.add(endpoint);
+            } else if (current.getDiscoveryType() == Endpoint.DiscoveryType.SWAGGER
+                    && !endpoint.getContentHash().equals(current.getContentHash())) {
+                endpoint.setId(current.getId());
+                endpoint.setCreatedAt(current.getCreatedAt());
+                toUpdate.add(endpoint);
+                previousStates.put(current.getId(), current);
+                log.debug("✏️ Endpoint modifié : {} {}", endpoint.getMethod(), endpoint.getPath());
+            } else {
+                // Inchangé, ou endpoint manuel qu'un scan ne doit pas écraser
+                session.skipped++;
+                log.debug("⏭️ Endpoint ignoré (déjà existant) : {} {}", endpoint.getMethod(), endpoint.getPath());
+            }
+        }
+
+        List<Endpoint> written = new ArrayList<>(toInsert);
+        written.addAll(toUpdate);
+        schemaBlobStore.saveAll(written);
+
+        Set<UUID> insertedIds = endpointBatchWriter.insertAll(toInsert);
+        // Lignes insérées entre-temps par un scan concurrent
+        session.skipped += toInsert.size() - insertedIds.size();
+        session.inserted += insertedIds.size();
+        // Compteurs et historique seulement pour les lignes réellement écrites (pas celles supprimées entre-temps)
+        Set<UUID> updatedIds = endpointBatchWriter.updateAll(toUpdate);
+        session.updated += updatedIds.size();
+        session.skipped += toUpdate.size() - updatedIds.size();
+        List<Endpoint> changed = new ArrayList<>();
+        toUpdate.stream()
+                .filter(endpoint -> updatedIds.contains(endpoint.getId()))
+                .forEach(endpoint -> {
+                    EndpointKey previous = previousStates.get(endpoint.getId());
+                    stats.remove(projectId, previous.getMethod(), previous.getDiscoveryType(), previous.getTags(),
+                            previous.getRequiresAuth()).add(endpoint);
+                    changed.add(endpoint);
+                });
+        toInsert.stream()
+                .filter(endpoint -> insertedIds.contains(endpoint.getId()))
+                .forEach(endpoint -> {
+                    stats.add(endpoint);
+                    changed.add(endpoint);
+                });
+        endpointStatistics.record(stats);
+        endpointHistory.record(changed, session.scanJobId);
+        if (!changed.isEmpty()) {
+            eventPublisher.publishEvent(EndpointChangeEvent.projectChanged(projectId));
+        }
+    }
+
+    /**
+     * Terminer le scan : l'empreinte de la spécification n'est enregistrée qu'après le dernier lot,
+     * un scan interrompu est donc entièrement rejoué la fois suivante
+     */
+    @Transactional
+    public ScanSwaggerResponse finish(Session session, SpecFingerprint fingerprint) {
+        specFingerprintRepository.save(fingerprint);
+
+        // Les endpoints écrits ne sont pas renvoyés : ils seraient proportionnels à la spécification
+        return new ScanSwaggerResponse(
+                true,
+                "Scan terminé avec succès",
+                session.total,
+                session.inserted,
+                session.updated,
+                session.skipped,
+                new ArrayList<>()
+        );
+    }
+
+    private String endpointKey(Endpoint.HttpMethod method, String path) {
+        return method + " " + path;
+    }
+}
@@ -1,16 +1,52 @@
 package com.testai.endpointservice.service;
 
+import com.testai.endpointservice.dto.BulkEndpointRequest;
+import com.testai.endpointservice.dto.BulkEndpointResult;
 import com.testai.endpointservice.dto.CreateEndpointRequest;
+import com.testai.endpointservice.dto.CursorPage;
+import com.testai.endpointservice.dto.EndpointCursor;
 import com.testai.endpointservice.dto.EndpointDTO;
+import com.testai.endpointservice.dto.EndpointRevisionDTO;
+import com.testai.endpointservice.dto.EndpointStatsDTO;
+import com.testai.endpointservice.dto.EndpointSummary;
+import com.testai.endpointservice.dto.EndpointView;
+import com.testai.endpointservice.dto.PathConflict;
+import com.testai.endpointservice.dto.PathMatch;
+import com.testai.endpointservice.dto.ProjectEndpointCount;
 import com.testai.endpointservice.entity.Endpoint;
+import com.testai.endpointservice.repository.EndpointBulkRepository;
 import com.testai.endpointservice.repository.EndpointRepository;
+import com.testai.endpointservice.repository.EndpointSearchRepository;
+import com.testai.endpointservice.repository.ScanScheduleRepository;
+import com.testai.endpointservice.repository.SpecFingerprintRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -22,6 +58,48 @@ import java.util.stream.Collectors;
 public class EndpointService {
 
     private final EndpointRepository endpointRepository;
+    private final SpecFingerprintRepository specFingerprintRepository;
+    private final ScanScheduleRepository scanScheduleRepository;
+    private final EndpointSearchRepository endpointSearchRepository;
+    private final PathTemplateIndex pathTemplateIndex;
+    private final EndpointReadCache endpointReadCache;
+    private final ProjectEndpointVersions projectEndpointVersions;
+    private final EndpointBulkRepository endpointBulkRepository;
+    private final EndpointStatistics endpointStatistics;
+    private final SchemaBlobStore schemaBlobStore;
+    private final EndpointHistory endpointHistory;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Emplacements de paramètres OpenAPI 3 et Swagger 2
+     */
+    private static final List<String> PARAMETER_LOCATIONS = List.of(
+            "query", "path", "header", "cookie", "body", "formData"
+    );
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Lecture des fragments saisis à la main : un texte après la valeur JSON est refusé
+     * (readTree l'ignorerait), décimaux conservés tels quels comme dans schema_blobs
+     */
+    private final ObjectMapper fragmentMapper = JsonMapper.builder()
+            .enable(DeserializationFeature.FAIL_ON_TRAILING_TOKENS)
+            .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+            .nodeFactory(JsonNodeFactory.withExactBigDecimals(true))
+            .build();
+
+    @Value("${endpoints.pagination.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${endpoints.pagination.max-size:200}")
+    private int maxPageSize;
+
+    @Value("${endpoints.bulk.max-ids:10000}")
+    private int maxBulkIds;
+
+    @Value("${endpoints.batch.max-projects:500}")
+    private int maxBatchProjects;
 
     /**
      * Créer un endpoint manuellement
@@ -29,6 +107,7 @@ public class EndpointService {
     @Transactional
     public EndpointDTO createEndpoint(CreateEndpointRequest request) {
         log.info("📝 Création d'un endpoint manuel : {} {}", request.getMethod(), request.getPath());
+        endpointStatistics.lockForWrite();
 
         // Vérifier si l'endpoint existe déjà
         boolean exists = endpointRepository.existsByProjectIdAndMethodAndPath(
@@ -48,77 +127,215 @@ public class EndpointService {
                 .description(request.getDescription())
                 .discoveryType(Endpoint.DiscoveryType.MANUAL)
                 .tags(request.getTags())
-                .parameters(request.getParameters())
-                .requestBody(request.getRequestBody())
-                .responseBody(request.getResponseBody())
+                .parameters(validateJson("parameters", request.getParameters()))
+                .requestBody(validateJson("requestBody", request.getRequestBody()))
+                .responseBody(validateJson("responseBody", request.getResponseBody()))
                 .statusCodes(request.getStatusCodes() != null ? request.getStatusCodes() : "200")
                 .requiresAuth(request.getRequiresAuth() != null ? request.getRequiresAuth() : false)
                 .build();
 
+        schemaBlobStore.prepare(endpoint);
+        schemaBlobStore.saveAll(List.of(endpoint));
         Endpoint saved = endpointRepository.save(endpoint);
+        endpointStatistics.record(new EndpointStatsDelta().add(saved));
+        endpointHistory.record(List.of(saved), null);
+        eventPublisher.publishEvent(EndpointChangeEvent.saved(saved));
         log.info("✅ Endpoint créé avec succès : {}", saved.getId());
 
         return convertToDTO(saved);
     }
 
     /**
-     * Récupérer tous les endpoints d'un projet
+     * Récupérer une page des endpoints d'un projet (servie par le cache local si possible)
+     *
+     * @param version version des endpoints du projet (getProjectVersion), lue avant la page
      */
-    public List<EndpointDTO> getEndpointsByProjectId(UUID projectId) {
-        log.info("📋 Récupération des endpoints du projet {}", projectId);
+    public CursorPage<?> getEndpointsByProjectId(UUID projectId, long version, String cursor, Integer size,
+                                                 EndpointView view) {
+        log.info("📋 Récupération des endpoints du projet {} (vue {})", projectId, view);
+
+        EndpointCursor position = EndpointCursor.decode(cursor);
+        int pageSize = pageSize(size);
+        return endpointReadCache.getProjectPage(projectId, version, cursor, pageSize, view, () -> {
+            Pageable pageable = PageRequest.ofSize(pageSize + 1);
+            if (view == EndpointView.SUMMARY) {
+                return toSummaryPage(endpointRepository.findSummaryPageByProjectId(
+                        projectId, position.createdAt(), position.id(), pageable), pageSize);
+            }
+            return toPage(endpointRepository.findPageByProjectId(
+                    projectId, position.createdAt(), position.id(), pageable), pageSize);
+        });
+    }
 
-        return endpointRepository.findByProjectId(projectId)
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    /**
+     * Version des endpoints d'un projet (change à chaque modification de ses endpoints)
+     */
+    public long getProjectVersion(UUID projectId) {
+        return projectEndpointVersions.version(projectId);
+    }
+
+    /**
+     * ETag des listes d'endpoints d'un projet pour une version
+     */
+    public String getProjectEtag(long version) {
+        return projectEndpointVersions.etag(version);
     }
 
     /**
-     * Récupérer un endpoint par son ID
+     * Récupérer un endpoint par son ID (servi par le cache local si possible)
      */
     public EndpointDTO getEndpointById(UUID endpointId) {
         log.info("🔍 Récupération de l'endpoint {}", endpointId);
 
-        Endpoint endpoint = endpointRepository.findById(endpointId)
-                .orElseThrow(() -> new RuntimeException("Endpoint non trouvé"));
+        return endpointReadCache.getById(endpointId, () -> {
+            Endpoint endpoint = endpointRepository.findById(endpointId)
+                    .orElseThrow(() -> new RuntimeException("Endpoint non trouvé"));
+            schemaBlobStore.hydrate(List.of(endpoint));
+            return convertToDTO(endpoint);
+        });
+    }
 
-        return convertToDTO(endpoint);
+    /**
+     * Récupérer une page de tous les endpoints
+     */
+    public CursorPage<?> getAllEndpoints(String cursor, Integer size, EndpointView view) {
+        log.info("📋 Récupération de tous les endpoints (vue {})", view);
+
+        EndpointCursor position = EndpointCursor.decode(cursor);
+        int pageSize = pageSize(size);
+        Pageable pageable = PageRequest.ofSize(pageSize + 1);
+        if (view == EndpointView.SUMMARY) {
+            return toSummaryPage(endpointRepository.findSummaryPage(
+                    position.createdAt(), position.id(), pageable), pageSize);
+        }
+        return toPage(endpointRepository.findPage(position.createdAt(), position.id(), pageable), pageSize);
     }
 
     /**
-     * Récupérer tous les endpoints
+     * Récupérer une page des endpoints par méthode HTTP
      */
-    public List<EndpointDTO> getAllEndpoints() {
-        log.info("📋 Récupération de tous les endpoints");
+    public CursorPage<?> getEndpointsByMethod(Endpoint.HttpMethod method, String cursor, Integer size,
+                                              EndpointView view) {
+        log.info("📋 Récupération des endpoints avec la méthode {} (vue {})", method, view);
+
+        EndpointCursor position = EndpointCursor.decode(cursor);
+        int pageSize = pageSize(size);
+        Pageable pageable = PageRequest.ofSize(pageSize + 1);
+        if (view == EndpointView.SUMMARY) {
+            return toSummaryPage(endpointRepository.findSummaryPageByMethod(
+                    method, position.createdAt(), position.id(), pageable), pageSize);
+        }
+        return toPage(endpointRepository.findPageByMethod(
+                method, position.createdAt(), position.id(), pageable), pageSize);
+    }
 
-        return endpointRepository.findAll()
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    /**
+     * Récupérer une page des endpoints par type de découverte
+     */
+    public CursorPage<?> getEndpointsByDiscoveryType(Endpoint.DiscoveryType discoveryType, String cursor,
+                                                     Integer size, EndpointView view) {
+        log.info("📋 Récupération des endpoints découverts par {} (vue {})", discoveryType, view);
+
+        EndpointCursor position = EndpointCursor.decode(cursor);
+        int pageSize = pageSize(size);
+        Pageable pageable = PageRequest.ofSize(pageSize + 1);
+        if (view == EndpointView.SUMMARY) {
+            return toSummaryPage(endpointRepository.findSummaryPageByDiscoveryType(
+                    discoveryType, position.createdAt(), position.id(), pageable), pageSize);
+        }
+        return toPage(endpointRepository.findPageByDiscoveryType(
+                discoveryType, position.createdAt(), position.id(), pageable), pageSize);
     }
 
     /**
-     * Récupérer les endpoints par méthode HTTP
+     * Rechercher les endpoints qui déclarent un paramètre (recherche jsonb côté base)
+     *
+     * @param name      nom du paramètre
+     * @param location  emplacement OpenAPI (query, path, header, cookie, body, formData), optionnel
+     * @param projectId restreindre à un projet, optionnel
      */
-    public List<EndpointDTO> getEndpointsByMethod(Endpoint.HttpMethod method) {
-        log.info("📋 Récupération des endpoints avec la méthode {}", method);
+    public CursorPage<EndpointDTO> searchByParameter(String name, String location, UUID projectId,
+                                                    String cursor, Integer size) {
+        log.info("🔎 Recherche des endpoints avec le paramètre {} (in={})", name, location);
+
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Le nom du paramètre est obligatoire");
+        }
+        ObjectNode parameter = objectMapper.createObjectNode().put("name", name.trim());
+        if (location != null && !location.isBlank()) {
+            String in = PARAMETER_LOCATIONS.stream()
+                    .filter(l -> l.equalsIgnoreCase(location.trim()))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Emplacement de paramètre inconnu : " + location));
+            parameter.put("in", in);
+        }
+        String containment = objectMapper.createArrayNode().add(parameter).toString();
 
-        return endpointRepository.findByMethod(method)
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        EndpointCursor position = EndpointCursor.decode(cursor);
+        int pageSize = pageSize(size);
+        List<EndpointDTO> rows = endpointSearchRepository.findByParameterContainment(
+                containment, projectId, position, pageSize + 1);
+        return toPage(rows, pageSize, dto -> new EndpointCursor(dto.getCreatedAt(), dto.getId()));
     }
 
     /**
-     * Récupérer les endpoints par type de découverte
+     * Recherche plein texte sur le chemin, les tags et la description (tsvector côté base)
+     *
+     * Chaque mot saisi est une recherche par préfixe ("ord" trouve /orders/{id}) et tous
+     * les mots doivent être présents. Résultats triés par pertinence, limités à size.
      */
-    public List<EndpointDTO> getEndpointsByDiscoveryType(Endpoint.DiscoveryType discoveryType) {
-        log.info("📋 Récupération des endpoints découverts par {}", discoveryType);
+    public List<EndpointDTO> searchByText(String text, UUID projectId, Integer size) {
+        log.info("🔎 Recherche plein texte des endpoints : {}", text);
 
-        return endpointRepository.findByDiscoveryType(discoveryType)
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        String tsQuery = toPrefixQuery(text);
+        if (tsQuery.isEmpty()) {
+            throw new IllegalArgumentException("La recherche doit contenir au moins un mot");
+        }
+        return endpointSearchRepository.findByText(tsQuery, projectId, pageSize(size));
+    }
+
+    /**
+     * Convertir la saisie en requête to_tsquery : mots alphanumériques en minuscules,
+     * chacun en préfixe (:*), reliés par &. Les autres caractères sont des séparateurs,
+     * la saisie ne peut donc pas produire une requête invalide.
+     */
+    private String toPrefixQuery(String text) {
+        if (text == null) {
+            return "";
+        }
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .distinct()
+                .map(word -> word + ":*")
+                .collect(Collectors.joining(" & "));
+    }
+
+    /**
+     * Attribuer une URL observée au template de chemin d'un endpoint du projet
+     *
+     * @param method méthode HTTP (optionnelle : toutes les méthodes si absente)
+     */
+    public PathMatch matchPath(UUID projectId, String method, String url) {
+        log.info("🧭 Attribution de l'URL {} {} (projet {})", method, url, projectId);
+        return pathTemplateIndex.match(projectId, parseMethod(method), url);
+    }
+
+    /**
+     * Templates de chemin indiscernables d'un projet
+     */
+    public List<PathConflict> getPathConflicts(UUID projectId) {
+        return pathTemplateIndex.conflicts(projectId);
+    }
+
+    private Endpoint.HttpMethod parseMethod(String method) {
+        if (method == null || method.isBlank()) {
+            return null;
+        }
+        try {
+            return Endpoint.HttpMethod.valueOf(method.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Méthode HTTP inconnue : " + method);
+        }
     }
 
     /**
@@ -127,22 +344,62 @@ public class EndpointService {
     @Transactional
     public EndpointDTO updateEndpoint(UUID endpointId, CreateEndpointRequest request) {
         log.info("✏️ Mise à jour de l'endpoint {}", endpointId);
+        endpointStatistics.lockForWrite();
 
-        Endpoint endpoint = endpointRepository.findById(endpointId)
+        // Ligne verrouillée : un scan concurrent du même endpoint attend la fin de cette modification
+        Endpoint endpoint = endpointRepository.findByIdForUpdate(endpointId)
                 .orElseThrow(() -> new RuntimeException("Endpoint non trouvé"));
+        EndpointStatsDelta stats = new EndpointStatsDelta().remove(endpoint.getProjectId(), endpoint.getMethod(),
+                endpoint.getDiscoveryType(), endpoint.getTags(), endpoint.getRequiresAuth());
+        schemaBlobStore.hydrate(List.of(endpoint));
+
+        String parameters = validateJson("parameters", request.getParameters());
+        String requestBody = validateJson("requestBody", request.getRequestBody());
+        String responseBody = validateJson("responseBody", request.getResponseBody());
+
+        // L'empreinte du contenu scanné ne décrit plus une définition modifiée à la main : le prochain
+        // scan doit la comparer à la spec et réaligner l'endpoint (comme EndpointBulkRepository)
+        boolean definitionChanged = endpoint.getMethod() != request.getMethod()
+                || !Objects.equals(endpoint.getPath(), request.getPath())
+                || !Objects.equals(endpoint.getDescription(), request.getDescription())
+                || !Objects.equals(endpoint.getTags(), request.getTags())
+                || !Objects.equals(endpoint.getStatusCodes(), request.getStatusCodes())
+                || !Objects.equals(endpoint.getRequiresAuth(), request.getRequiresAuth())
+                || !sameJson(endpoint.getParameters(), parameters)
+                || !sameJson(endpoint.getRequestBody(), requestBody)
+                || !sameJson(endpoint.getResponseBody(), responseBody);
+        if (definitionChanged) {
+            endpoint.setContentHash(null);
+        }
+
+        // Les versions résolues ne correspondent plus à un contenu modifié à la main
+        if (!sameJson(endpoint.getParameters(), parameters)) {
+            endpoint.setResolvedParameters(null);
+        }
+        if (!sameJson(endpoint.getRequestBody(), requestBody)) {
+            endpoint.setResolvedRequestBody(null);
+        }
+        if (!sameJson(endpoint.getResponseBody(), responseBody)) {
+            endpoint.setResolvedResponseBody(null);
+        }
 
         // Mise à jour des champs
         endpoint.setMethod(request.getMethod());
         endpoint.setPath(request.getPath());
         endpoint.setDescription(request.getDescription());
         endpoint.setTags(request.getTags());
-        endpoint.setParameters(request.getParameters());
-        endpoint.setRequestBody(request.getRequestBody());
-        endpoint.setResponseBody(request.getResponseBody());
+        endpoint.setParameters(parameters);
+        endpoint.setRequestBody(requestBody);
+        endpoint.setResponseBody(responseBody);
         endpoint.setStatusCodes(request.getStatusCodes());
         endpoint.setRequiresAuth(request.getRequiresAuth());
+        schemaBlobStore.prepare(endpoint);
+        schemaBlobStore.saveAll(List.of(endpoint));
 
         Endpoint updated = endpointRepository.save(endpoint);
+        endpointStatistics.record(stats.add(updated));
+        endpointHistory.record(List.of(updated), null);
+        eventPublisher.publishEvent(EndpointChangeEvent.saved(updated));
         log.info("✅ Endpoint mis à jour avec succès");
 
         return convertToDTO(updated);
@@ -154,12 +411,20 @@ public class EndpointService {
     @Transactional
     public void deleteEndpoint(UUID endpointId) {
         log.info("🗑️ Suppression de l'endpoint {}", endpointId);
+        endpointStatistics.lockForWrite();
 
-        if (!endpointRepository.existsById(endpointId)) {
-            throw new RuntimeException("Endpoint non trouvé");
+        Endpoint endpoint = endpointRepository.findByIdForUpdate(endpointId)
+                .orElseThrow(() -> new RuntimeException("Endpoint non trouvé"));
+
+        // Le prochain scan doit pouvoir recréer un endpoint Swagger supprimé
+        if (endpoint.getDiscoveryType() == Endpoint.DiscoveryType.SWAGGER) {
+            specFingerprintRepository.deleteByProjectId(endpoint.getProjectId());
         }
 
-        endpointRepository.deleteById(endpointId);
+        endpointRepository.delete(endpoint);
+        endpointStatistics.record(new EndpointStatsDelta().remove(endpoint));
+        endpointHistory.recordDeletions(List.of(endpointId));
+        eventPublisher.publishEvent(EndpointChangeEvent.deleted(endpoint));
         log.info("✅ Endpoint supprimé avec succès");
     }
 
@@ -170,8 +435,93 @@ public class EndpointService {
     public void deleteEndpointsByProjectId(UUID projectId) {
         log.info("🗑️ Suppression de tous les endpoints du projet {}", projectId);
 
-        endpointRepository.deleteByProjectId(projectId);
-        log.info("✅ Endpoints supprimés avec succès");
+        endpointStatistics.lockForWrite();
+        endpointHistory.recordProjectDeletion(projectId);
+        int deleted = endpointRepository.deleteByProjectId(projectId);
+        endpointStatistics.deleteProject(projectId);
+        specFingerprintRepository.deleteByProjectId(projectId);
+        scanScheduleRepository.deleteByProjectId(projectId);
+        eventPublisher.publishEvent(EndpointChangeEvent.projectDeleted(projectId));
+        log.info("✅ {} endpoints supprimés avec succès", deleted);
+    }
+
+    /**
+     * Appliquer une opération en masse aux endpoints correspondant au filtre
+     *
+     * Une seule instruction SQL par opération, sans charger les entités (sauf pour historiser
+     * les endpoints modifiés). Les projets touchés sont invalidés (cache, index des chemins, ETag)
+     * après le commit.
+     */
+    @Transactional
+    public BulkEndpointResult bulk(BulkEndpointRequest request) {
+        log.info("📦 Opération en masse {} sur les endpoints ({})", request.getAction(), request.getFilter());
+
+        if (request.getAction() == null) {
+            throw new IllegalArgumentException("L'action est obligatoire");
+        }
+        BulkEndpointRequest.Filter filter = request.getFilter();
+        if (filter == null) {
+            throw new IllegalArgumentException("Au moins un critère de filtre est obligatoire");
+        }
+        if (filter.getIds() != null && filter.getIds().size() > maxBulkIds) {
+            throw new IllegalArgumentException("Trop d'IDs dans le filtre (maximum " + maxBulkIds + ")");
+        }
+
+        // Les compteurs des projets touchés sont recalculés après l'instruction en masse
+        endpointStatistics.lockForRecount();
+        LocalDateTime now = LocalDateTime.now();
+        List<EndpointBulkRepository.ProjectCount> counts = switch (request.getAction()) {
+            case DELETE -> endpointBulkRepository.delete(filter);
+            case SET_TAGS -> endpointBulkRepository.setTags(filter,
+                    request.getTags() == null || request.getTags().isBlank() ? null : request.getTags().trim(), now);
+            case ADD_TAG -> endpointBulkRepository.addTag(filter, singleTag(request.getTags()), now);
+            case SET_REQUIRES_AUTH -> {
+                if (request.getRequiresAuth() == null) {
+                    throw new IllegalArgumentException("requiresAuth est obligatoire pour " + request.getAction());
+                }
+                yield endpointBulkRepository.setRequiresAuth(filter, request.getRequiresAuth(), now);
+            }
+        };
+
+        int affected = 0;
+        List<UUID> affectedIds = new ArrayList<>();
+        for (EndpointBulkRepository.ProjectCount count : counts) {
+            affected += count.affected();
+            affectedIds.addAll(count.ids());
+            // Le prochain scan doit pouvoir recréer les endpoints Swagger supprimés
+            if (request.getAction() == BulkEndpointRequest.Action.DELETE && count.swagger()) {
+                specFingerprintRepository.deleteByProjectId(count.projectId());
+            }
+            eventPublisher.publishEvent(EndpointChangeEvent.projectChanged(count.projectId()));
+        }
+        endpointStatistics.recount(counts.stream().map(EndpointBulkRepository.ProjectCount::projectId).toList());
+        // Historique écrit en SQL (patch d'un seul champ) : aucun endpoint n'est chargé
+        switch (request.getAction()) {
+            case DELETE -> endpointHistory.recordDeletions(affectedIds);
+            case SET_TAGS, ADD_TAG -> endpointHistory.recordTagsChange(affectedIds);
+            case SET_REQUIRES_AUTH -> endpointHistory.recordRequiresAuthChange(affectedIds);
+        }
+
+        log.info("✅ {} endpoints touchés dans {} projet(s)", affected, counts.size());
+        return BulkEndpointResult.builder()
+                .success(true)
+                .action(request.getAction())
+                .affected(affected)
+                .projects(counts.size())
+                .build();
+    }
+
+    /**
+     * Tag unique à ajouter (les tags sont stockés sous forme de liste "a, b, c")
+     */
+    private String singleTag(String tag) {
+        if (tag == null || tag.isBlank()) {
+            throw new IllegalArgumentException("Le tag à ajouter est obligatoire");
+        }
+        if (tag.contains(",")) {
+            throw new IllegalArgumentException("Un seul tag peut être ajouté à la fois");
+        }
+        return tag.trim();
     }
 
     /**
@@ -181,6 +531,167 @@ public class EndpointService {
         return endpointRepository.countByProjectId(projectId);
     }
 
+    /**
+     * Compter les endpoints de plusieurs projets en une seule requête
+     *
+     * @return nombre d'endpoints par projet, dans l'ordre demandé (0 pour un projet sans endpoint)
+     */
+    public Map<UUID, Long> countEndpointsByProjectIds(List<UUID> projectIds) {
+        Set<UUID> ids = batchProjectIds(projectIds);
+        log.info("🔢 Comptage des endpoints de {} projet(s)", ids.size());
+
+        Map<UUID, Long> counts = new LinkedHashMap<>();
+        ids.forEach(id -> counts.put(id, 0L));
+        for (ProjectEndpointCount count : endpointRepository.countByProjectIds(ids)) {
+            counts.put(count.getProjectId(), count.getCount());
+        }
+        return counts;
+    }
+
+    /**
+     * Première page (vue summary) des endpoints de plusieurs projets en une seule requête
+     *
+     * Le curseur next de chaque page se poursuit avec GET /api/endpoints/project/{projectId}.
+     */
+    public Map<UUID, CursorPage<EndpointDTO>> getEndpointsByProjectIds(List<UUID> projectIds, Integer size) {
+        Set<UUID> ids = batchProjectIds(projectIds);
+        int pageSize = pageSize(size);
+        log.info("📋 Récupération des endpoints de {} projet(s)", ids.size());
+
+        Map<UUID, List<EndpointDTO>> rows = new HashMap<>();
+        for (EndpointDTO endpoint : endpointSearchRepository.findFirstByProjectIds(ids, pageSize + 1)) {
+            rows.computeIfAbsent(endpoint.getProjectId(), id -> new ArrayList<>()).add(endpoint);
+        }
+
+        Map<UUID, CursorPage<EndpointDTO>> pages = new LinkedHashMap<>();
+        for (UUID id : ids) {
+            pages.put(id, toPage(rows.getOrDefault(id, List.of()), pageSize,
+                    dto -> new EndpointCursor(dto.getCreatedAt(), dto.getId())));
+        }
+        return pages;
+    }
+
+    /**
+     * Statistiques des endpoints d'un projet (tous les projets si projectId est null)
+     */
+    public EndpointStatsDTO getStats(UUID projectId) {
+        log.info("📊 Statistiques des endpoints ({})", projectId != null ? projectId : "tous les projets");
+        return endpointStatistics.getStats(projectId);
+    }
+
+    /**
+     * Historique des révisions d'un endpoint (y compris supprimé)
+     */
+    public List<EndpointRevisionDTO> getRevisions(UUID endpointId) {
+        log.info("🕓 Historique de l'endpoint {}", endpointId);
+        return endpointHistory.getRevisions(endpointId);
+    }
+
+    /**
+     * Définition d'un endpoint à une date, ou à la fin d'un job de scan (un seul des deux critères)
+     */
+    public EndpointDTO getEndpointAsOf(UUID endpointId, LocalDateTime at, UUID scanJobId) {
+        if ((at == null) == (scanJobId == null)) {
+            throw new IllegalArgumentException("Indiquer soit une date (at), soit un job de scan (scanId)");
+        }
+        log.info("🕓 Endpoint {} tel qu'il était {}", endpointId, at != null ? "le " + at : "après le scan " + scanJobId);
+        return at != null
+                ? endpointHistory.getAsOf(endpointId, at)
+                : endpointHistory.getAsOfScan(endpointId, scanJobId);
+    }
+
+    /**
+     * Reconstruire les compteurs de statistiques depuis la table endpoints
+     */
+    public int rebuildStats(UUID projectId) {
+        return endpointStatistics.rebuild(projectId);
+    }
+
+    /**
+     * IDs de projets d'un appel groupé, dédoublonnés et bornés
+     */
+    private Set<UUID> batchProjectIds(List<UUID> projectIds) {
+        if (projectIds == null || projectIds.isEmpty()) {
+            throw new IllegalArgumentException("La liste des projets est obligatoire");
+        }
+        Set<UUID> ids = new LinkedHashSet<>(projectIds);
+        if (ids.contains(null)) {
+            throw new IllegalArgumentException("ID de projet invalide : null");
+        }
+        if (ids.size() > maxBatchProjects) {
+            throw new IllegalArgumentException("Trop de projets (maximum " + maxBatchProjects + ")");
+        }
+        return ids;
+    }
+
+    /**
+     * Vérifier qu'un fragment saisi à la main est une valeur JSON unique et valide (stockée en jsonb)
+     *
+     * @return le fragment compacté (tel qu'il sera stocké), ou null s'il est vide
+     * @throws IllegalArgumentException si le fragment n'est pas du JSON valide ou est suivi d'autre chose
+     */
+    private String validateJson(String field, String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return fragmentMapper.writeValueAsString(fragmentMapper.readTree(value));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Le champ " + field + " doit être un JSON valide : "
+                    + e.getOriginalMessage());
+        }
+    }
+
+    /**
+     * Comparer deux fragments JSON indépendamment de leur mise en forme
+     * (jsonb ne conserve ni les espaces ni l'ordre des clés)
+     */
+    private boolean sameJson(String stored, String submitted) {
+        if (stored == null || submitted == null) {
+            return Objects.equals(stored, submitted);
+        }
+        try {
+            return objectMapper.readTree(stored).equals(objectMapper.readTree(submitted));
+        } catch (JsonProcessingException e) {
+            return stored.equals(submitted);
+        }
+    }
+
+    /**
+     * Taille de page demandée, bornée à la taille maximale
+     */
+    private int pageSize(Integer size) {
+        if (size == null || size <= 0) {
+            return defaultPageSize;
+        }
+        return Math.min(size, maxPageSize);
+    }
+
+    /**
+     * Construire la page à partir des lignes lues (une de plus que la taille de page
+     * pour savoir s'il reste des endpoints après)
+     */
+    private <T> CursorPage<T> toPage(List<T> rows, int pageSize, Function<T, EndpointCursor> position) {
+        boolean hasMore = rows.size() > pageSize;
+        List<T> items = hasMore ? rows.subList(0, pageSize) : rows;
+        String next = hasMore ? position.apply(items.get(items.size() - 1)).encode() : null;
+        return CursorPage.<T>builder()
+                .items(items)
+                .next(next)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    private CursorPage<EndpointDTO> toPage(List<Endpoint> rows, int pageSize) {
+        schemaBlobStore.hydrate(rows);
+        return toPage(rows.stream().map(this::convertToDTO).collect(Collectors.toList()), pageSize,
+                dto -> new EndpointCursor(dto.getCreatedAt(), dto.getId()));
+    }
+
+    private CursorPage<EndpointSummary> toSummaryPage(List<EndpointSummary> rows, int pageSize) {
+        return toPage(rows, pageSize, summary -> new EndpointCursor(summary.getCreatedAt(), summary.getId()));
+    }
+
     /**
      * Convertir Endpoint en DTO
      */
@@ -196,6 +707,9 @@ public class EndpointService {
                 .parameters(endpoint.getParameters())
                 .requestBody(endpoint.getRequestBody())
                 .responseBody(endpoint.getResponseBody())
+                .resolvedParameters(endpoint.getResolvedParameters())
+                .resolvedRequestBody(endpoint.getResolvedRequestBody())
+                .resolvedResponseBody(endpoint.getResolvedResponseBody())
                 .statusCodes(endpoint.getStatusCodes())
                 .requiresAuth(endpoint.getRequiresAuth())
                 .createdAt(endpoint.getCreatedAt())
@@ -0,0 +1,125 @@
+package com.testai.endpointservice.service;
+
+import com.testai.endpointservice.dto.EndpointStatsDTO;
+import com.testai.endpointservice.entity.EndpointStat;
+import com.testai.endpointservice.repository.EndpointStatsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Statistiques des endpoints par projet, lues dans des compteurs maintenus à chaque écriture
+ *
+ * Les variations sont écrites dans la transaction de l'écriture (EndpointService, EndpointScanWriter) :
+ * une lecture coûte quelques lignes par projet au lieu d'un parcours des endpoints. Les opérations
+ * en masse et la commande de reconstruction recalculent les compteurs depuis la table endpoints.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EndpointStatistics {
+
+    private final EndpointStatsRepository endpointStatsRepository;
+
+    /**
+     * Verrou à prendre au début de toute écriture d'endpoints, avant de toucher à la table endpoints :
+     * compatible avec les autres écritures, il n'attend qu'une reconstruction ou une opération en masse
+     * en cours. Compteurs puis endpoints sont ainsi toujours verrouillés dans le même ordre.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void lockForWrite() {
+        endpointStatsRepository.lockForWrite();
+    }
+
+    /**
+     * Verrou exclusif des écritures, à prendre avant une modification en masse suivie de recount()
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void lockForRecount() {
+        endpointStatsRepository.lockForRebuild();
+    }
+
+    /**
+     * Appliquer les variations accumulées pendant une écriture
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(EndpointStatsDelta delta) {
+        if (!delta.isEmpty()) {
+            endpointStatsRepository.apply(delta.toList());
+        }
+    }
+
+    /**
+     * Recalculer les compteurs de projets dont les endpoints viennent d'être modifiés en masse
+     * (après lockForRecount())
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recount(Collection<UUID> projectIds) {
+        for (UUID projectId : projectIds) {
+            endpointStatsRepository.rebuild(projectId);
+        }
+    }
+
+    /**
+     * Supprimer les compteurs d'un projet dont tous les endpoints ont été supprimés
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void deleteProject(UUID projectId) {
+        endpointStatsRepository.deleteByProjectId(projectId);
+    }
+
+    /**
+     * Reconstruire les compteurs d'un projet (tous les projets si projectId est null) pour corriger une dérive
+     *
+     * Les écritures d'endpoints sont suspendues le temps du recalcul.
+     *
+     * @return nombre de compteurs écrits
+     */
+    @Transactional
+    public int rebuild(UUID projectId) {
+        log.info("🧮 Reconstruction des statistiques d'endpoints ({})", projectId != null ? projectId : "tous les projets");
+        endpointStatsRepository.lockForRebuild();
+        int rows = endpointStatsRepository.rebuild(projectId);
+        log.info("✅ {} compteurs reconstruits", rows);
+        return rows;
+    }
+
+    /**
+     * Statistiques d'un projet (tous les projets si projectId est null)
+     */
+    @Transactional(readOnly = true)
+    public EndpointStatsDTO getStats(UUID projectId) {
+        List<EndpointStat> stats = projectId != null
+                ? endpointStatsRepository.findByProjectId(projectId)
+                : endpointStatsRepository.findTotals();
+
+        Map<EndpointStat.Dimension, Map<String, Long>> byDimension = new EnumMap<>(EndpointStat.Dimension.class);
+        for (EndpointStat.Dimension dimension : EndpointStat.Dimension.values()) {
+            byDimension.put(dimension, new LinkedHashMap<>());
+        }
+        stats.stream()
+                .filter(stat -> stat.getCount() > 0)
+                .sorted(Comparator.comparing(EndpointStat::getCount).reversed().thenComparing(EndpointStat::getValue))
+                .forEach(stat -> byDimension.get(stat.getDimension()).put(stat.getValue(), stat.getCount()));
+
+        Map<String, Long> byMethod = byDimension.get(EndpointStat.Dimension.METHOD);
+        return EndpointStatsDTO.builder()
+                .projectId(projectId)
+                .total(byMethod.values().stream().mapToLong(Long::longValue).sum())
+                .byMethod(byMethod)
+                .byDiscoveryType(byDimension.get(EndpointStat.Dimension.DISCOVERY_TYPE))
+                .byRequiresAuth(byDimension.get(EndpointStat.Dimension.REQUIRES_AUTH))
+                .byTag(byDimension.get(EndpointStat.Dimension.TAG))
+                .build();
+    }
+}
@@ -0,0 +1,95 @@
+package com.testai.endpointservice.service;
+
+import com.testai.endpointservice.entity.Endpoint;
+import com.testai.endpointservice.entity.EndpointStat;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Variations des compteurs d'endpoints accumulées pendant une écriture
+ *
+ * Un endpoint ajouté compte +1 dans chacune de ses dimensions, un endpoint retiré -1 ;
+ * une modification est un retrait de l'ancien état suivi d'un ajout du nouveau, les
+ * variations qui s'annulent ne sont pas écrites.
+ */
+public class EndpointStatsDelta {
+
+    private static final Comparator<EndpointStat.Key> KEY_ORDER = Comparator
+            .comparing(EndpointStat.Key::getProjectId)
+            .thenComparing(EndpointStat.Key::getDimension)
+            .thenComparing(EndpointStat.Key::getValue);
+
+    private final Map<EndpointStat.Key, Long> counts = new TreeMap<>(KEY_ORDER);
+
+    public EndpointStatsDelta add(Endpoint endpoint) {
+        return change(endpoint.getProjectId(), endpoint.getMethod(), endpoint.getDiscoveryType(),
+                endpoint.getTags(), endpoint.getRequiresAuth(), 1);
+    }
+
+    public EndpointStatsDelta remove(Endpoint endpoint) {
+        return remove(endpoint.getProjectId(), endpoint.getMethod(), endpoint.getDiscoveryType(),
+                endpoint.getTags(), endpoint.getRequiresAuth());
+    }
+
+    /**
+     * Retirer un état antérieur (capturé avant de modifier l'entité)
+     */
+    public EndpointStatsDelta remove(UUID projectId, Endpoint.HttpMethod method, Endpoint.DiscoveryType discoveryType,
+                                     String tags, Boolean requiresAuth) {
+        return change(projectId, method, discoveryType, tags, requiresAuth, -1);
+    }
+
+    public boolean isEmpty() {
+        return counts.values().stream().allMatch(count -> count == 0);
+    }
+
+    /**
+     * Variations non nulles, triées par (projet, dimension, valeur)
+     */
+    public List<EndpointStat> toList() {
+        return counts.entrySet().stream()
+                .filter(entry -> entry.getValue() != 0)
+                .map(entry -> EndpointStat.builder()
+                        .projectId(entry.getKey().getProjectId())
+                        .dimension(entry.getKey().getDimension())
+                        .value(entry.getKey().getValue())
+                        .count(entry.getValue())
+                        .build())
+                .toList();
+    }
+
+    /**
+     * Tags d'un endpoint : liste "a, b, c" sans doublons ni entrées vides
+     */
+    static List<String> tags(String tags) {
+        if (tags == null) {
+            return List.of();
+        }
+        return Arrays.stream(tags.split(","))
+                .map(String::trim)
+                .filter(tag -> !tag.isEmpty())
+                .distinct()
+                .toList();
+    }
+
+    private EndpointStatsDelta change(UUID projectId, Endpoint.HttpMethod method, Endpoint.DiscoveryType discoveryType,
+                                      String tags, Boolean requiresAuth, long sign) {
+        increment(projectId, EndpointStat.Dimension.METHOD, method.name(), sign);
+        increment(projectId, EndpointStat.Dimension.DISCOVERY_TYPE, discoveryType.name(), sign);
+        increment(projectId, EndpointStat.Dimension.REQUIRES_AUTH, String.valueOf(Boolean.TRUE.equals(requiresAuth)),
+                sign);
+        for (String tag : tags(tags)) {
+            increment(projectId, EndpointStat.Dimension.TAG, tag, sign);
+        }
+        return this;
+    }
+
+    private void increment(UUID projectId, EndpointStat.Dimension dimension, String value, long sign) {
+        counts.merge(new EndpointStat.Key(projectId, dimension, value), sign, Long::sum);
+    }
+}
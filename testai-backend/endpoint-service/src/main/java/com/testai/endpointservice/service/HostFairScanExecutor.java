@@ -0,0 +1,149 @@
+package com.testai.endpointservice.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool borné d'exécution des scans, équitable par hôte
+ *
+ * - au plus maxConcurrent scans en parallèle au total
+ * - au plus maxPerHost scans en parallèle vers un même serveur de documentation
+ * - au plus maxQueued scans en attente, au-delà la soumission est refusée
+ * - les hôtes en attente sont servis à tour de rôle, un hôte lent ou très
+ *   sollicité ne bloque donc pas les autres
+ */
+@Component
+@Slf4j
+public class HostFairScanExecutor {
+
+    private final int maxConcurrent;
+    private final int maxPerHost;
+    private final int maxQueued;
+    private final ExecutorService workers;
+
+    /**
+     * File d'attente par hôte, dans l'ordre de service (round-robin)
+     */
+    private final LinkedHashMap<String, Deque<Runnable>> pendingByHost = new LinkedHashMap<>();
+    private final Map<String, Integer> runningByHost = new HashMap<>();
+    private int running;
+    private int queued;
+
+    public HostFairScanExecutor(
+            @Value("${scanner.jobs.max-concurrent:4}") int maxConcurrent,
+            @Value("${scanner.jobs.max-per-host:2}") int maxPerHost,
+            @Value("${scanner.jobs.max-queued:500}") int maxQueued) {
+        this.maxConcurrent = maxConcurrent;
+        this.maxPerHost = maxPerHost;
+        this.maxQueued = maxQueued;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(maxConcurrent, runnable -> {
+            Thread thread = new Thread(runnable, "scan-worker-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Mettre un scan en file d'attente pour un hôte donné
+     *
+     * @throws RejectedExecutionException si la file d'attente est pleine
+     */
+    public synchronized void submit(String host, Runnable task) {
+        if (queued >= maxQueued) {
+            throw new RejectedExecutionException("File d'attente des scans pleine (" + maxQueued + ")");
+        }
+        pendingByHost.computeIfAbsent(host, h -> new ArrayDeque<>()).addLast(task);
+        queued++;
+        dispatch();
+    }
+
+    /**
+     * Nombre de scans en attente
+     */
+    public synchronized int getQueuedCount() {
+        return queued;
+    }
+
+    /**
+     * Nombre de scans pouvant encore être mis en file d'attente
+     */
+    public synchronized int getRemainingCapacity() {
+        return Math.max(0, maxQueued - queued);
+    }
+
+    /**
+     * Nombre de scans en cours
+     */
+    public synchronized int getRunningCount() {
+        return running;
+    }
+
+    /**
+     * Lancer autant de scans que les limites le permettent
+     */
+    private void dispatch() {
+        while (running < maxConcurrent) {
+            String host = nextEligibleHost();
+            if (host == null) {
+                return;
+            }
+
+            Deque<Runnable> queue = pendingByHost.remove(host);
+            Runnable task = queue.pollFirst();
+            // Réinsérer l'hôte en fin de tour s'il lui reste des scans
+            if (!queue.isEmpty()) {
+                pendingByHost.put(host, queue);
+            }
+
+            queued--;
+            running++;
+            runningByHost.merge(host, 1, Integer::sum);
+            workers.execute(() -> {
+                try {
+                    task.run();
+                } catch (Exception e) {
+                    log.error("❌ Erreur inattendue dans un scan vers {} : {}", host, e.getMessage(), e);
+                } finally {
+                    release(host);
+                }
+            });
+        }
+    }
+
+    private String nextEligibleHost() {
+        Iterator<String> hosts = pendingByHost.keySet().iterator();
+        while (hosts.hasNext()) {
+            String host = hosts.next();
+            if (runningByHost.getOrDefault(host, 0) < maxPerHost) {
+                return host;
+            }
+        }
+        return null;
+    }
+
+    private synchronized void release(String host) {
+        running--;
+        runningByHost.computeIfPresent(host, (h, count) -> count > 1 ? count - 1 : null);
+        dispatch();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+}
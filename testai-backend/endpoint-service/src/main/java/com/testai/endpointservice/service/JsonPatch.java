@@ -0,0 +1,169 @@
+package com.testai.endpointservice.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Calcul et application de JSON Patch (RFC 6902), limités aux opérations add, remove et replace
+ *
+ * Les objets sont comparés champ par champ ; pour les tableaux, le préfixe et le suffixe communs
+ * sont conservés et seuls les éléments du milieu sont comparés, ajoutés ou retirés : ajouter un
+ * paramètre à une liste produit une seule opération add.
+ */
+final class JsonPatch {
+
+    private JsonPatch() {
+    }
+
+    /**
+     * Opérations transformant source en target (tableau vide si les documents sont égaux)
+     */
+    static ArrayNode diff(JsonNode source, JsonNode target) {
+        ArrayNode patch = JsonNodeFactory.instance.arrayNode();
+        diff(source, target, "", patch);
+        return patch;
+    }
+
+    /**
+     * Appliquer un patch à une copie de document
+     */
+    static JsonNode apply(JsonNode document, JsonNode patch) {
+        JsonNode result = document.deepCopy();
+        for (JsonNode operation : patch) {
+            String op = operation.path("op").asText();
+            String path = operation.path("path").asText();
+            if (path.isEmpty()) {
+                if (!"replace".equals(op)) {
+                    throw new IllegalArgumentException("Opération " + op + " impossible sur la racine");
+                }
+                result = operation.get("value").deepCopy();
+                continue;
+            }
+
+            int separator = path.lastIndexOf('/');
+            JsonNode parent = resolve(result, path.substring(0, separator));
+            String token = unescape(path.substring(separator + 1));
+            JsonNode value = operation.get("value");
+
+            if (parent instanceof ObjectNode object) {
+                switch (op) {
+                    case "add", "replace" -> object.set(token, value.deepCopy());
+                    case "remove" -> object.remove(token);
+                    default -> throw new IllegalArgumentException("Opération JSON Patch non supportée : " + op);
+                }
+            } else if (parent instanceof ArrayNode array) {
+                int index = "-".equals(token) ? array.size() : Integer.parseInt(token);
+                switch (op) {
+                    case "add" -> array.insert(index, value.deepCopy());
+                    case "replace" -> array.set(index, value.deepCopy());
+                    case "remove" -> array.remove(index);
+                    default -> throw new IllegalArgumentException("Opération JSON Patch non supportée : " + op);
+                }
+            } else {
+                throw new IllegalArgumentException("Chemin JSON Patch invalide : " + path);
+            }
+        }
+        return result;
+    }
+
+    private static void diff(JsonNode source, JsonNode target, String path, ArrayNode patch) {
+        if (source.equals(target)) {
+            return;
+        }
+        if (source.isObject() && target.isObject()) {
+            diffObjects(source, target, path, patch);
+        } else if (source.isArray() && target.isArray()) {
+            diffArrays(source, target, path, patch);
+        } else {
+            patch.add(operation("replace", path, target));
+        }
+    }
+
+    private static void diffObjects(JsonNode source, JsonNode target, String path, ArrayNode patch) {
+        Iterator<Map.Entry<String, JsonNode>> fields = source.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            String fieldPath = path + "/" + escape(field.getKey());
+            JsonNode targetValue = target.get(field.getKey());
+            if (targetValue == null) {
+                patch.add(operation("remove", fieldPath, null));
+            } else {
+                diff(field.getValue(), targetValue, fieldPath, patch);
+            }
+        }
+        fields = target.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (!source.has(field.getKey())) {
+                patch.add(operation("add", path + "/" + escape(field.getKey()), field.getValue()));
+            }
+        }
+    }
+
+    private static void diffArrays(JsonNode source, JsonNode target, String path, ArrayNode patch) {
+        int sourceSize = source.size();
+        int targetSize = target.size();
+
+        int prefix = 0;
+        while (prefix < sourceSize && prefix < targetSize && source.get(prefix).equals(target.get(prefix))) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < sourceSize - prefix && suffix < targetSize - prefix
+                && source.get(sourceSize - 1 - suffix).equals(target.get(targetSize - 1 - suffix))) {
+            suffix++;
+        }
+
+        int sourceMiddle = sourceSize - prefix - suffix;
+        int targetMiddle = targetSize - prefix - suffix;
+        int common = Math.min(sourceMiddle, targetMiddle);
+        for (int i = prefix; i < prefix + common; i++) {
+            diff(source.get(i), target.get(i), path + "/" + i, patch);
+        }
+        // Éléments ajoutés : insérés à la suite, devant le suffixe commun
+        for (int i = prefix + common; i < prefix + targetMiddle; i++) {
+            patch.add(operation("add", path + "/" + i, target.get(i)));
+        }
+        // Éléments retirés : toujours au même indice, les suivants se décalant
+        for (int i = common; i < sourceMiddle; i++) {
+            patch.add(operation("remove", path + "/" + (prefix + common), null));
+        }
+    }
+
+    private static JsonNode resolve(JsonNode document, String pointer) {
+        JsonNode node = document;
+        if (pointer.isEmpty()) {
+            return node;
+        }
+        for (String token : pointer.substring(1).split("/", -1)) {
+            node = node.isArray() ? node.get(Integer.parseInt(token)) : node.get(unescape(token));
+            if (node == null) {
+                throw new IllegalArgumentException("Chemin JSON Patch introuvable : " + pointer);
+            }
+        }
+        return node;
+    }
+
+    private static ObjectNode operation(String op, String path, JsonNode value) {
+        ObjectNode operation = JsonNodeFactory.instance.objectNode();
+        operation.put("op", op);
+        operation.put("path", path);
+        if (value != null) {
+            operation.set("value", value);
+        }
+        return operation;
+    }
+
+    private static String escape(String token) {
+        return token.replace("~", "~0").replace("/", "~1");
+    }
+
+    private static String unescape(String token) {
+        return token.replace("~1", "/").replace("~0", "~");
+    }
+}
@@ -0,0 +1,106 @@
+package com.testai.endpointservice.service;
+
+import com.testai.endpointservice.entity.Endpoint;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+/**
+ * Traitement parallèle (fork/join) des opérations extraites d'une très grosse spécification
+ *
+ * Optionnel : activé seulement si scanner.parallel.enabled=true et si le nombre
+ * d'opérations dépasse scanner.parallel.threshold. La liste est découpée en tranches
+ * traitées sur un pool dédié ; chaque opération est modifiée en place, l'ordre de
+ * la spécification est donc conservé.
+ *
+ * Le seuil s'applique à un lot (au plus scanner.batch-size opérations) : il doit rester
+ * inférieur à la taille de lot, sinon seuls les lots pleins seraient parallélisés. Valeur
+ * par défaut mesurée avec ParallelScanProcessorBenchmark.
+ */
+@Component
+@Slf4j
+public class ParallelScanProcessor {
+
+    /**
+     * Taille en dessous de laquelle une tranche n'est plus découpée
+     */
+    private static final int MIN_CHUNK_SIZE = 64;
+
+    private final boolean enabled;
+    private final int threshold;
+    private final ForkJoinPool pool;
+
+    public ParallelScanProcessor(
+            @Value("${scanner.parallel.enabled:false}") boolean enabled,
+            @Value("${scanner.parallel.threshold:500}") int threshold,
+            @Value("${scanner.parallel.parallelism:0}") int parallelism) {
+        this.enabled = enabled;
+        this.threshold = threshold;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Le traitement de cette quantité d'opérations sera-t-il parallèle ?
+     */
+    public boolean isParallel(int operationCount) {
+        return enabled && operationCount >= threshold;
+    }
+
+    /**
+     * Appliquer une action à chaque endpoint, en parallèle au-delà du seuil
+     */
+    public void forEach(List<Endpoint> endpoints, Consumer<Endpoint> action) {
+        if (!isParallel(endpoints.size())) {
+            endpoints.forEach(action);
+            return;
+        }
+
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, endpoints.size() / (pool.getParallelism() * 4));
+        pool.invoke(new ChunkAction(endpoints, 0, endpoints.size(), chunkSize, action));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Tranche [from, to) de la liste, découpée en deux tant qu'elle dépasse chunkSize
+     */
+    private static class ChunkAction extends RecursiveAction {
+        private final List<Endpoint> endpoints;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+        private final Consumer<Endpoint> action;
+
+        ChunkAction(List<Endpoint> endpoints, int from, int to, int chunkSize, Consumer<Endpoint> action) {
+            this.endpoints = endpoints;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                for (int i = from; i < to; i++) {
+                    action.accept(endpoints.get(i));
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(
+                    new ChunkAction(endpoints, from, middle, chunkSize, action),
+                    new ChunkAction(endpoints, middle, to, chunkSize, action)
+            );
+        }
+    }
+}
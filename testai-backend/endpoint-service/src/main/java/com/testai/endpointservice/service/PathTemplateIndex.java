@@ -0,0 +1,500 @@
+package com.testai.endpointservice.service;
+
+import com.testai.endpointservice.dto.EndpointKey;
+import com.testai.endpointservice.dto.PathConflict;
+import com.testai.endpointservice.dto.PathMatch;
+import com.testai.endpointservice.entity.Endpoint;
+import com.testai.endpointservice.repository.EndpointRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Index en mémoire des templates de chemin de chaque projet, pour attribuer une URL
+ * observée (/api/users/8c1e.../orders/42) à l'endpoint qui la déclare
+ * (/api/users/{id}/orders/{orderId})
+ *
+ * Un arbre par projet, un niveau par segment de chemin. Chaque nœud a trois sortes d'enfants,
+ * essayées dans cet ordre : segment littéral (table de hachage), segment mixte ("{id}.json",
+ * "v{version}", expression régulière) puis paramètre seul ("{id}"). Le premier template trouvé
+ * est donc le plus spécifique ; le parcours continue pour signaler les chevauchements.
+ * Le coût ne dépend que de la longueur du chemin et des chevauchements, pas du nombre d'endpoints.
+ *
+ * L'arbre d'un projet est construit à la première demande, puis tenu à jour après chaque
+ * commit à partir des EndpointChangeEvent (un scan ou une suppression du projet l'invalide).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PathTemplateIndex {
+
+    /**
+     * Nombre maximal de templates correspondants collectés pour une URL
+     */
+    private static final int MAX_CANDIDATES = 16;
+
+    private static final Pattern PARAMETER = Pattern.compile("\\{([^{}/]+)}");
+
+    private final EndpointRepository endpointRepository;
+
+    private final Map<UUID, ProjectIndex> projects = new ConcurrentHashMap<>();
+    /**
+     * Nombre de modifications reçues par projet, protégé par le verrou de l'instance : un arbre
+     * chargé pendant une modification de son projet n'est pas conservé (il peut ne pas l'inclure).
+     * Les écritures des autres projets n'empêchent pas de le garder
+     */
+    private final Map<UUID, Long> changes = new HashMap<>();
+
+    /**
+     * Attribuer une URL concrète à un template du projet
+     *
+     * @param method méthode HTTP, ou null pour chercher parmi toutes les méthodes
+     * @param url    URL absolue ou chemin (la query string et le fragment sont ignorés)
+     */
+    public PathMatch match(UUID projectId, Endpoint.HttpMethod method, String url) {
+        List<String> segments = splitPath(extractPath(url));
+        List<Candidate> candidates = project(projectId).match(segments, method);
+
+        PathMatch.PathMatchBuilder result = PathMatch.builder()
+                .url(url)
+                .method(method)
+                .matched(!candidates.isEmpty())
+                .alternatives(new ArrayList<>());
+        if (candidates.isEmpty()) {
+            return result.build();
+        }
+
+        Candidate best = candidates.get(0);
+        List<PathMatch.Template> alternatives = new ArrayList<>();
+        boolean ambiguous = false;
+        for (Candidate other : candidates.subList(1, candidates.size())) {
+            ambiguous |= other.signature().equals(best.signature()) && other.route().method() == best.route().method();
+            alternatives.add(other.toTemplate());
+        }
+        return result
+                .match(best.toTemplate())
+                .ambiguous(ambiguous)
+                .alternatives(alternatives)
+                .build();
+    }
+
+    /**
+     * Templates indiscernables du projet (même forme, même méthode)
+     */
+    public List<PathConflict> conflicts(UUID projectId) {
+        return project(projectId).conflicts();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onEndpointChange(EndpointChangeEvent event) {
+        changes.merge(event.projectId(), 1L, Long::sum);
+        ProjectIndex index = projects.get(event.projectId());
+        switch (event.type()) {
+            case SAVED -> {
+                if (index != null) {
+                    index.put(Route.of(event.endpointId(), event.method(), event.path()));
+                }
+            }
+            case DELETED -> {
+                if (index != null) {
+                    index.remove(event.endpointId());
+                }
+            }
+            case PROJECT_CHANGED, PROJECT_DELETED -> projects.remove(event.projectId());
+        }
+    }
+
+    private ProjectIndex project(UUID projectId) {
+        ProjectIndex index = projects.get(projectId);
+        if (index != null) {
+            return index;
+        }
+
+        long before;
+        synchronized (this) {
+            before = changes.getOrDefault(projectId, 0L);
+        }
+        ProjectIndex loaded = new ProjectIndex();
+        for (EndpointKey key : endpointRepository.findKeysByProjectId(projectId)) {
+            loaded.put(Route.of(key.getId(), key.getMethod(), key.getPath()));
+        }
+        log.debug("🌳 Index des chemins du projet {} construit ({} templates)", projectId, loaded.size());
+
+        synchronized (this) {
+            if (changes.getOrDefault(projectId, 0L) != before) {
+                // Modifié pendant le chargement : utilisé pour cette requête seulement
+                return loaded;
+            }
+            ProjectIndex existing = projects.putIfAbsent(projectId, loaded);
+            return existing != null ? existing : loaded;
+        }
+    }
+
+    /**
+     * Chemin d'une URL : schéma et hôte, query string et fragment retirés
+     */
+    private String extractPath(String url) {
+        if (url == null || url.isBlank()) {
+            throw new IllegalArgumentException("L'URL à attribuer est obligatoire");
+        }
+        String path = url.trim();
+        int end = indexOfAny(path, '?', '#');
+        if (end >= 0) {
+            path = path.substring(0, end);
+        }
+        int scheme = path.indexOf("://");
+        if (scheme >= 0) {
+            int start = path.indexOf('/', scheme + 3);
+            path = start >= 0 ? path.substring(start) : "/";
+        }
+        return path;
+    }
+
+    private static int indexOfAny(String value, char first, char second) {
+        int a = value.indexOf(first);
+        int b = value.indexOf(second);
+        return a < 0 ? b : b < 0 ? a : Math.min(a, b);
+    }
+
+    /**
+     * Segments non vides d'un chemin ("/a//b/" -> [a, b])
+     */
+    private static List<String> splitPath(String path) {
+        List<String> segments = new ArrayList<>();
+        for (String segment : path.split("/")) {
+            if (!segment.isEmpty()) {
+                segments.add(segment);
+            }
+        }
+        return segments;
+    }
+
+    private static String decode(String value) {
+        try {
+            return URLDecoder.decode(value.replace("+", "%2B"), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return value;
+        }
+    }
+
+    /**
+     * Sortes de segments, dans l'ordre de préférence
+     */
+    private enum SegmentKind {
+        LITERAL('L'), MIXED('M'), PARAMETER('P');
+
+        private final char code;
+
+        SegmentKind(char code) {
+            this.code = code;
+        }
+    }
+
+    /**
+     * Segment d'un template
+     *
+     * @param key     texte pour un littéral, forme sans noms de paramètres pour un segment mixte
+     * @param pattern expression du segment mixte (un groupe par paramètre)
+     */
+    private record Segment(SegmentKind kind, String key, Pattern pattern, List<String> parameterNames) {
+
+        static Segment parse(String segment) {
+            if (segment.indexOf('{') < 0) {
+                return new Segment(SegmentKind.LITERAL, segment, null, List.of());
+            }
+
+            Matcher matcher = PARAMETER.matcher(segment);
+            if (matcher.matches()) {
+                return new Segment(SegmentKind.PARAMETER, "{}", null, List.of(matcher.group(1)));
+            }
+
+            StringBuilder regex = new StringBuilder();
+            StringBuilder shape = new StringBuilder();
+            List<String> names = new ArrayList<>();
+            int last = 0;
+            matcher.reset();
+            while (matcher.find()) {
+                String literal = segment.substring(last, matcher.start());
+                regex.append(Pattern.quote(literal)).append("(.+?)");
+                shape.append(literal).append("{}");
+                names.add(matcher.group(1));
+                last = matcher.end();
+            }
+            if (names.isEmpty()) {
+                // Accolades non appariées : segment littéral
+                return new Segment(SegmentKind.LITERAL, segment, null, List.of());
+            }
+            String tail = segment.substring(last);
+            regex.append(Pattern.quote(tail));
+            shape.append(tail);
+            return new Segment(SegmentKind.MIXED, shape.toString(), Pattern.compile(regex.toString()), names);
+        }
+    }
+
+    /**
+     * Template indexé
+     */
+    private record Route(UUID endpointId, Endpoint.HttpMethod method, String path,
+                         List<Segment> segments, List<String> parameterNames) {
+
+        static Route of(UUID endpointId, Endpoint.HttpMethod method, String path) {
+            List<Segment> segments = new ArrayList<>();
+            List<String> names = new ArrayList<>();
+            for (String segment : splitPath(path)) {
+                Segment parsed = Segment.parse(segment);
+                segments.add(parsed);
+                names.addAll(parsed.parameterNames());
+            }
+            return new Route(endpointId, method, path, segments, names);
+        }
+    }
+
+    /**
+     * Template correspondant à une URL
+     *
+     * @param values    valeurs des paramètres, dans l'ordre du template
+     * @param signature sortes des segments traversés ("LLPL"...), pour comparer la spécificité
+     */
+    private record Candidate(Route route, List<String> values, String signature) {
+
+        PathMatch.Template toTemplate() {
+            Map<String, String> parameters = new LinkedHashMap<>();
+            for (int i = 0; i < route.parameterNames().size() && i < values.size(); i++) {
+                parameters.put(route.parameterNames().get(i), decode(values.get(i)));
+            }
+            return PathMatch.Template.builder()
+                    .endpointId(route.endpointId())
+                    .method(route.method())
+                    .path(route.path())
+                    .pathParameters(parameters)
+                    .build();
+        }
+    }
+
+    private static final class Node {
+        private final Map<String, Node> literals = new HashMap<>();
+        private final Map<String, Node> mixed = new LinkedHashMap<>();
+        private Pattern pattern;
+        private Node parameter;
+        private final Map<Endpoint.HttpMethod, List<Route>> routes = new EnumMap<>(Endpoint.HttpMethod.class);
+
+        Node child(Segment segment) {
+            return switch (segment.kind()) {
+                case LITERAL -> literals.computeIfAbsent(segment.key(), key -> new Node());
+                case MIXED -> mixed.computeIfAbsent(segment.key(), key -> {
+                    Node node = new Node();
+                    node.pattern = segment.pattern();
+                    return node;
+                });
+                case PARAMETER -> parameter != null ? parameter : (parameter = new Node());
+            };
+        }
+
+        Node existingChild(Segment segment) {
+            return switch (segment.kind()) {
+                case LITERAL -> literals.get(segment.key());
+                case MIXED -> mixed.get(segment.key());
+                case PARAMETER -> parameter;
+            };
+        }
+
+        void removeChild(Segment segment) {
+            switch (segment.kind()) {
+                case LITERAL -> literals.remove(segment.key());
+                case MIXED -> mixed.remove(segment.key());
+                case PARAMETER -> parameter = null;
+            }
+        }
+
+        boolean isEmpty() {
+            return literals.isEmpty() && mixed.isEmpty() && parameter == null && routes.isEmpty();
+        }
+    }
+
+    /**
+     * Arbre des templates d'un projet
+     */
+    private static final class ProjectIndex {
+        private final Node root = new Node();
+        private final Map<UUID, Route> routes = new HashMap<>();
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        int size() {
+            lock.readLock().lock();
+            try {
+                return routes.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        void put(Route route) {
+            lock.writeLock().lock();
+            try {
+                Route previous = routes.put(route.endpointId(), route);
+                if (previous != null) {
+                    detach(previous);
+                }
+                Node node = root;
+                for (Segment segment : route.segments()) {
+                    node = node.child(segment);
+                }
+                node.routes.computeIfAbsent(route.method(), method -> new ArrayList<>()).add(route);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(UUID endpointId) {
+            lock.writeLock().lock();
+            try {
+                Route previous = routes.remove(endpointId);
+                if (previous != null) {
+                    detach(previous);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * Retirer un template de son nœud et élaguer les nœuds devenus vides
+         */
+        private void detach(Route route) {
+            List<Node> trail = new ArrayList<>();
+            Node node = root;
+            for (Segment segment : route.segments()) {
+                trail.add(node);
+                node = node.existingChild(segment);
+                if (node == null) {
+                    return;
+                }
+            }
+
+            List<Route> leaf = node.routes.get(route.method());
+            if (leaf == null) {
+                return;
+            }
+            leaf.removeIf(existing -> existing.endpointId().equals(route.endpointId()));
+            if (leaf.isEmpty()) {
+                node.routes.remove(route.method());
+            }
+
+            for (int i = route.segments().size() - 1; i >= 0 && node.isEmpty(); i--) {
+                Node parent = trail.get(i);
+                parent.removeChild(route.segments().get(i));
+                node = parent;
+            }
+        }
+
+        List<Candidate> match(List<String> segments, Endpoint.HttpMethod method) {
+            lock.readLock().lock();
+            try {
+                List<Candidate> candidates = new ArrayList<>();
+                collect(root, segments, 0, method, new ArrayList<>(), new StringBuilder(), candidates);
+                return candidates;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        /**
+         * Parcours en profondeur : littéral, puis segments mixtes, puis paramètre
+         */
+        private void collect(Node node, List<String> segments, int depth, Endpoint.HttpMethod method,
+                             List<String> values, StringBuilder signature, List<Candidate> candidates) {
+            if (candidates.size() >= MAX_CANDIDATES) {
+                return;
+            }
+
+            if (depth == segments.size()) {
+                for (Map.Entry<Endpoint.HttpMethod, List<Route>> entry : node.routes.entrySet()) {
+                    if (method != null && entry.getKey() != method) {
+                        continue;
+                    }
+                    for (Route route : entry.getValue()) {
+                        if (candidates.size() < MAX_CANDIDATES) {
+                            candidates.add(new Candidate(route, List.copyOf(values), signature.toString()));
+                        }
+                    }
+                }
+                return;
+            }
+
+            String segment = segments.get(depth);
+            Node literal = node.literals.get(segment);
+            if (literal != null) {
+                descend(literal, SegmentKind.LITERAL, List.of(), segments, depth, method, values, signature, candidates);
+            }
+
+            for (Node mixed : node.mixed.values()) {
+                Matcher matcher = mixed.pattern.matcher(segment);
+                if (matcher.matches()) {
+                    List<String> groups = new ArrayList<>();
+                    for (int i = 1; i <= matcher.groupCount(); i++) {
+                        groups.add(matcher.group(i));
+                    }
+                    descend(mixed, SegmentKind.MIXED, groups, segments, depth, method, values, signature, candidates);
+                }
+            }
+
+            if (node.parameter != null) {
+                descend(node.parameter, SegmentKind.PARAMETER, List.of(segment),
+                        segments, depth, method, values, signature, candidates);
+            }
+        }
+
+        private void descend(Node child, SegmentKind kind, List<String> captured, List<String> segments, int depth,
+                             Endpoint.HttpMethod method, List<String> values, StringBuilder signature,
+                             List<Candidate> candidates) {
+            values.addAll(captured);
+            signature.append(kind.code);
+            collect(child, segments, depth + 1, method, values, signature, candidates);
+            signature.setLength(signature.length() - 1);
+            values.subList(values.size() - captured.size(), values.size()).clear();
+        }
+
+        List<PathConflict> conflicts() {
+            lock.readLock().lock();
+            try {
+                List<PathConflict> conflicts = new ArrayList<>();
+                collectConflicts(root, conflicts);
+                return conflicts;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private void collectConflicts(Node node, List<PathConflict> conflicts) {
+            node.routes.forEach((method, routes) -> {
+                if (routes.size() > 1) {
+                    conflicts.add(PathConflict.builder()
+                            .method(method)
+                            .paths(routes.stream().map(Route::path).sorted().toList())
+                            .build());
+                }
+            });
+            node.literals.values().forEach(child -> collectConflicts(child, conflicts));
+            node.mixed.values().forEach(child -> collectConflicts(child, conflicts));
+            if (node.parameter != null) {
+                collectConflicts(node.parameter, conflicts);
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.testai.endpointservice.service;
+
+import com.testai.endpointservice.repository.ProjectEndpointVersionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.UUID;
+
+/**
+ * ETag des listes d'endpoints d'un projet
+ *
+ * La version est incrémentée juste avant le commit de chaque transaction qui publie un
+ * EndpointChangeEvent (création, modification, suppression, scan) : elle change donc
+ * exactement avec les données, y compris quand une autre instance du service a écrit.
+ *
+ * La version est lue avant la page qu'elle étiquette et sert de clé au cache des pages
+ * (EndpointReadCache) : une page n'est jamais plus ancienne que l'ETag envoyé avec elle.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProjectEndpointVersions {
+
+    private final ProjectEndpointVersionRepository projectEndpointVersionRepository;
+
+    /**
+     * Version courante des endpoints d'un projet (0 s'il n'a jamais été modifié)
+     */
+    public long version(UUID projectId) {
+        return projectEndpointVersionRepository.findVersion(projectId).orElse(0L);
+    }
+
+    /**
+     * ETag fort correspondant à une version
+     */
+    public String etag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onEndpointChange(EndpointChangeEvent event) {
+        projectEndpointVersionRepository.bump(event.projectId());
+        log.debug("🏷️ Version des endpoints du projet {} incrémentée", event.projectId());
+    }
+}
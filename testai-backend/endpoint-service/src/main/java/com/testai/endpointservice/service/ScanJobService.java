@@ -0,0 +1,371 @@
+package com.testai.endpointservice.service;
+
+import com.testai.endpointservice.dto.ScanJobDTO;
+import com.testai.endpointservice.dto.ScanSwaggerRequest;
+import com.testai.endpointservice.dto.ScanSwaggerResponse;
+import com.testai.endpointservice.entity.ScanJob;
+import com.testai.endpointservice.repository.ScanJobRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Service de gestion des jobs de scan Swagger asynchrones
+ *
+ * Un scan est persisté en base (PENDING), exécuté par HostFairScanExecutor,
+ * puis ses compteurs de progression et son résultat sont mis à jour au fil
+ * de l'eau et diffusés aux abonnés SSE.
+ *
+ * Les jobs non terminés de cette instance reçoivent un signe de vie périodique ;
+ * ceux qui n'en reçoivent plus (service arrêté pendant le scan, ici ou sur une
+ * autre instance) sont passés en FAILED au démarrage puis à chaque balayage.
+ *
+ * Toutes les écritures d'un job existant sont des UPDATE ciblés et conditionnels (ScanJobRepository) :
+ * aucune ne réécrit le signe de vie, et un job déjà terminé n'est jamais repassé en cours ou terminé.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ScanJobService {
+
+    /**
+     * La progression est persistée au plus toutes les N opérations lues
+     */
+    private static final int PROGRESS_FLUSH_INTERVAL = 100;
+
+    private static final long SSE_TIMEOUT_MS = 30 * 60 * 1000L;
+
+    /**
+     * Jobs expirés supprimés par instruction (la purge se répète jusqu'à épuisement)
+     */
+    private static final int RETENTION_BATCH_SIZE = 10_000;
+
+    private final ScanJobRepository scanJobRepository;
+    private final SwaggerScannerService swaggerScannerService;
+    private final HostFairScanExecutor scanExecutor;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<UUID, List<SseEmitter>> emitters = new ConcurrentHashMap<>();
+
+    /**
+     * Jobs soumis par cette instance et pas encore terminés
+     */
+    private final Set<UUID> localJobs = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Délai sans signe de vie au-delà duquel un job PENDING/RUNNING est considéré abandonné
+     */
+    @Value("${scanner.jobs.stale-after-ms:120000}")
+    private long staleAfterMs;
+
+    /**
+     * Durée de conservation des jobs terminés (rescans planifiés compris)
+     */
+    @Value("${scanner.jobs.retention-days:30}")
+    private long retentionDays;
+
+    /**
+     * Soumettre un scan : retourne immédiatement le job en file d'attente
+     *
+     * @throws RejectedExecutionException si trop de scans sont déjà en attente
+     */
+    public ScanJobDTO submitScan(ScanSwaggerRequest request) {
+        return submitScan(request, ScanJob.Trigger.MANUAL);
+    }
+
+    /**
+     * Soumettre un scan en précisant son origine
+     *
+     * @throws RejectedExecutionException si trop de scans sont déjà en attente
+     */
+    public ScanJobDTO submitScan(ScanSwaggerRequest request, ScanJob.Trigger trigger) {
+        ScanJob job = scanJobRepository.save(ScanJob.builder()
+                .projectId(request.getProjectId())
+                .swaggerUrl(request.getSwaggerUrl())
+                .status(ScanJob.Status.PENDING)
+                .trigger(trigger)
+                .build());
+        log.info("📥 Job de scan {} ({}) créé pour le projet {}", job.getId(), trigger, job.getProjectId());
+
+        try {
+            UUID jobId = job.getId();
+            localJobs.add(jobId);
+            scanExecutor.submit(extractHost(request.getSwaggerUrl()), () -> runScan(jobId));
+        } catch (RejectedExecutionException e) {
+            finish(job, ScanJob.Status.FAILED, e.getMessage());
+            throw e;
+        }
+
+        return convertToDTO(job);
+    }
+
+    /**
+     * Récupérer l'état d'un job
+     */
+    public ScanJobDTO getScanJob(UUID jobId) {
+        return convertToDTO(scanJobRepository.findById(jobId)
+                .orElseThrow(() -> new RuntimeException("Job de scan non trouvé")));
+    }
+
+    /**
+     * S'abonner à la progression d'un job (Server-Sent Events)
+     */
+    public SseEmitter subscribe(UUID jobId) {
+        ScanJob job = scanJobRepository.findById(jobId)
+                .orElseThrow(() -> new RuntimeException("Job de scan non trouvé"));
+
+        SseEmitter emitter = new SseEmitter(SSE_TIMEOUT_MS);
+        if (job.isFinished()) {
+            sendAndComplete(emitter, job);
+            return emitter;
+        }
+
+        List<SseEmitter> jobEmitters = emitters.computeIfAbsent(jobId, id -> new CopyOnWriteArrayList<>());
+        jobEmitters.add(emitter);
+        emitter.onCompletion(() -> jobEmitters.remove(emitter));
+        emitter.onTimeout(() -> jobEmitters.remove(emitter));
+        emitter.onError(e -> jobEmitters.remove(emitter));
+
+        // Le job a pu se terminer entre la lecture et l'inscription : publish() ne verrait plus cet abonné
+        ScanJob current = scanJobRepository.findById(jobId).orElse(job);
+        if (current.isFinished()) {
+            if (jobEmitters.remove(emitter)) {
+                sendAndComplete(emitter, current);
+            }
+            emitters.computeIfPresent(jobId, (id, list) -> list.isEmpty() ? null : list);
+            return emitter;
+        }
+
+        send(emitter, current);
+        return emitter;
+    }
+
+    /**
+     * Signe de vie des jobs en file d'attente ou en cours sur cette instance
+     */
+    @Scheduled(fixedDelayString = "${scanner.jobs.heartbeat-ms:30000}",
+            initialDelayString = "${scanner.jobs.heartbeat-ms:30000}")
+    public void heartbeat() {
+        if (!localJobs.isEmpty()) {
+            scanJobRepository.touch(List.copyOf(localJobs), LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Passer en échec les jobs abandonnés : au démarrage (jobs interrompus par l'arrêt
+     * précédent) puis périodiquement (instance arrêtée alors qu'une autre tourne encore)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${scanner.jobs.sweep-ms:60000}",
+            initialDelayString = "${scanner.jobs.sweep-ms:60000}")
+    public void failAbandonedJobs() {
+        LocalDateTime staleBefore = LocalDateTime.now().minus(Duration.ofMillis(staleAfterMs));
+        List<ScanJob> abandoned = scanJobRepository.findAbandoned(staleBefore);
+        int failed = 0;
+        for (ScanJob job : abandoned) {
+            if (localJobs.contains(job.getId())) {
+                continue;
+            }
+            // Conditionnel : un job qui a redonné signe de vie ou s'est terminé depuis la lecture est laissé tel quel
+            String message = "Interrompu : le service a été arrêté pendant le scan";
+            LocalDateTime now = LocalDateTime.now();
+            if (scanJobRepository.failAbandoned(job.getId(), message, now, staleBefore) > 0) {
+                job.setStatus(ScanJob.Status.FAILED);
+                job.setMessage(message);
+                job.setFinishedAt(now);
+                publish(job);
+                failed++;
+            }
+        }
+        if (failed > 0) {
+            log.warn("⚠️ {} jobs de scan abandonnés passés en échec", failed);
+        }
+    }
+
+    /**
+     * Purger les jobs terminés depuis plus de retention-days : chaque rescan planifié crée un job,
+     * la table grossirait sans fin. Sont conservés le dernier job de chaque projet et les jobs
+     * référencés par l'historique des endpoints (consultation "état à la fin d'un scan").
+     */
+    @Scheduled(fixedDelayString = "${scanner.jobs.retention-sweep-ms:3600000}",
+            initialDelayString = "${scanner.jobs.retention-sweep-ms:3600000}")
+    public void deleteExpiredJobs() {
+        LocalDateTime finishedBefore = LocalDateTime.now().minusDays(retentionDays);
+        int deleted = 0;
+        int batch;
+        do {
+            batch = scanJobRepository.deleteExpired(finishedBefore, RETENTION_BATCH_SIZE);
+            deleted += batch;
+        } while (batch == RETENTION_BATCH_SIZE);
+        if (deleted > 0) {
+            log.info("🧹 {} jobs de scan terminés depuis plus de {} jours supprimés", deleted, retentionDays);
+        }
+    }
+
+    /**
+     * Exécuter un job sur un thread du pool de scan
+     */
+    private void runScan(UUID jobId) {
+        ScanJob job = scanJobRepository.findById(jobId).orElse(null);
+        if (job == null || job.isFinished()) {
+            localJobs.remove(jobId);
+            return;
+        }
+
+        job.setStatus(ScanJob.Status.RUNNING);
+        job.setStartedAt(LocalDateTime.now());
+        if (scanJobRepository.markRunning(jobId, job.getStartedAt()) == 0) {
+            // Passé en échec (abandon présumé) pendant son attente dans la file
+            localJobs.remove(jobId);
+            return;
+        }
+        publish(job);
+
+        ScanJob runningJob = job;
+        try {
+            ScanSwaggerResponse response = swaggerScannerService.scanSwagger(
+                    job.getProjectId(),
+                    job.getSwaggerUrl(),
+                    jobId,
+                    processed -> onProgress(runningJob, processed)
+            );
+
+            job.setTotalEndpoints(response.getTotalEndpoints());
+            job.setNewEndpoints(response.getNewEndpoints());
+            job.setUpdatedEndpoints(response.getUpdatedEndpoints());
+            job.setSkippedEndpoints(response.getSkippedEndpoints());
+            finish(job, response.isSuccess() ? ScanJob.Status.COMPLETED : ScanJob.Status.FAILED,
+                    response.getMessage());
+
+        } catch (Exception e) {
+            log.error("❌ Job de scan {} en échec : {}", jobId, e.getMessage(), e);
+            finish(job, ScanJob.Status.FAILED, "Erreur : " + e.getMessage());
+        }
+    }
+
+    private void onProgress(ScanJob job, int processed) {
+        job.setProcessedOperations(processed);
+        if (processed % PROGRESS_FLUSH_INTERVAL == 0) {
+            scanJobRepository.updateProgress(job.getId(), processed);
+            publish(job);
+        }
+    }
+
+    private void finish(ScanJob job, ScanJob.Status status, String message) {
+        LocalDateTime finishedAt = LocalDateTime.now();
+        int written = scanJobRepository.finish(job.getId(), status, message, finishedAt, job.getTotalEndpoints(),
+                job.getNewEndpoints(), job.getUpdatedEndpoints(), job.getSkippedEndpoints());
+        localJobs.remove(job.getId());
+        if (written == 0) {
+            // Déjà terminé ailleurs (passé en échec par un balayage) : l'état en base fait foi
+            log.warn("⚠️ Job de scan {} déjà terminé, résultat {} non enregistré", job.getId(), status);
+            scanJobRepository.findById(job.getId()).ifPresent(this::publish);
+            return;
+        }
+        job.setStatus(status);
+        job.setMessage(message);
+        job.setFinishedAt(finishedAt);
+        log.info("🏁 Job de scan {} terminé : {} - {}", job.getId(), status, message);
+        recordDuration(job);
+        publish(job);
+    }
+
+    /**
+     * Durée d'exécution du job, par origine et par résultat
+     */
+    private void recordDuration(ScanJob job) {
+        if (job.getStartedAt() == null) {
+            return;
+        }
+        Timer.builder("scanner.scan.duration")
+                .description("Durée d'exécution des scans Swagger")
+                .tag("trigger", String.valueOf(job.getTrigger()))
+                .tag("status", job.getStatus().name())
+                .register(meterRegistry)
+                .record(Duration.between(job.getStartedAt(), job.getFinishedAt()));
+    }
+
+    /**
+     * Diffuser l'état du job aux abonnés SSE
+     */
+    private void publish(ScanJob job) {
+        List<SseEmitter> jobEmitters = job.isFinished() ? emitters.remove(job.getId()) : emitters.get(job.getId());
+        if (jobEmitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : jobEmitters) {
+            if (job.isFinished()) {
+                // remove() : subscribe() peut revérifier le même abonné, un seul des deux le termine
+                if (jobEmitters.remove(emitter)) {
+                    sendAndComplete(emitter, job);
+                }
+            } else {
+                send(emitter, job);
+            }
+        }
+    }
+
+    private void send(SseEmitter emitter, ScanJob job) {
+        try {
+            emitter.send(SseEmitter.event().name("progress").data(convertToDTO(job)));
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+        }
+    }
+
+    private void sendAndComplete(SseEmitter emitter, ScanJob job) {
+        try {
+            emitter.send(SseEmitter.event().name("completed").data(convertToDTO(job)));
+            emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+        }
+    }
+
+    private String extractHost(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host != null ? host.toLowerCase() : url;
+        } catch (IllegalArgumentException e) {
+            return url;
+        }
+    }
+
+    private ScanJobDTO convertToDTO(ScanJob job) {
+        return ScanJobDTO.builder()
+                .jobId(job.getId())
+                .projectId(job.getProjectId())
+                .swaggerUrl(job.getSwaggerUrl())
+                .status(job.getStatus())
+                .trigger(job.getTrigger())
+                .processedOperations(job.getProcessedOperations())
+                .totalEndpoints(job.getTotalEndpoints())
+                .newEndpoints(job.getNewEndpoints())
+                .updatedEndpoints(job.getUpdatedEndpoints())
+                .skippedEndpoints(job.getSkippedEndpoints())
+                .message(job.getMessage())
+                .createdAt(job.getCreatedAt())
+                .startedAt(job.getStartedAt())
+                .finishedAt(job.getFinishedAt())
+                .build();
+    }
+}
@@ -0,0 +1,198 @@
+package com.testai.endpointservice.service;
+
+import com.testai.endpointservice.dto.ScanSwaggerRequest;
+import com.testai.endpointservice.entity.ScanJob;
+import com.testai.endpointservice.entity.ScanSchedule;
+import com.testai.endpointservice.repository.ScanScheduleRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Rescan périodique des projets Swagger
+ *
+ * Chaque projet scanné au moins une fois est planifié (table scan_schedules). Au
+ * démarrage, les projets Swagger déjà scannés avant la mise en place de la planification
+ * (ou dont la planification manque) sont planifiés d'après leur dernier scan connu.
+ * À chaque passage, les planifications échues sont réservées puis soumises à
+ * ScanJobService comme n'importe quel scan : les limites globale et par hôte
+ * de HostFairScanExecutor s'appliquent donc aussi aux rescans.
+ *
+ * - intervalle + décalage aléatoire : les projets ne sont pas tous rescannés au même instant
+ * - nombre de soumissions par passage borné par la place restante dans la file d'attente
+ * - réservation conditionnelle en base : plusieurs instances du service ne soumettent
+ *   pas deux fois le même projet
+ *
+ * Chaque rescan crée une ligne scan_jobs ; les jobs terminés anciens sont purgés par
+ * ScanJobService.deleteExpiredJobs() (scanner.jobs.retention-days).
+ *
+ * Limite : seuls les projets que ce service a déjà scannés sont planifiés (la planification
+ * initiale est déduite de scan_jobs et spec_fingerprints, faute de client vers project-service).
+ * Un projet Swagger jamais scanné ici ne l'est pas automatiquement : son premier scan
+ * (manuel ou à la création du projet) le fait entrer dans la planification.
+ *
+ * Désactivé par défaut (scanner.schedule.enabled) : les rescans génèrent du trafic vers
+ * les serveurs des projets, à activer explicitement par déploiement.
+ */
+@Component
+@Slf4j
+public class ScanScheduler {
+
+    private final ScanScheduleRepository scanScheduleRepository;
+    private final ScanJobService scanJobService;
+    private final HostFairScanExecutor scanExecutor;
+    private final MeterRegistry meterRegistry;
+
+    private final boolean enabled;
+    private final long intervalMinutes;
+    private final long jitterMinutes;
+    private final int batchSize;
+
+    private final Counter submittedCounter;
+
+    public ScanScheduler(
+            ScanScheduleRepository scanScheduleRepository,
+            ScanJobService scanJobService,
+            HostFairScanExecutor scanExecutor,
+            MeterRegistry meterRegistry,
+            @Value("${scanner.schedule.enabled:false}") boolean enabled,
+            @Value("${scanner.schedule.interval-minutes:60}") long intervalMinutes,
+            @Value("${scanner.schedule.jitter-minutes:15}") long jitterMinutes,
+            @Value("${scanner.schedule.batch-size:100}") int batchSize) {
+        this.scanScheduleRepository = scanScheduleRepository;
+        this.scanJobService = scanJobService;
+        this.scanExecutor = scanExecutor;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.intervalMinutes = intervalMinutes;
+        this.jitterMinutes = jitterMinutes;
+        this.batchSize = batchSize;
+
+        this.submittedCounter = Counter.builder("scanner.schedule.submitted")
+                .description("Rescans soumis par le planificateur")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Planifier (ou replanifier) le rescan d'un projet après un scan soumis
+     *
+     * La dernière URL soumise remplace la précédente.
+     */
+    public void register(UUID projectId, String specUrl) {
+        LocalDateTime nextRunAt = nextRunAfter(LocalDateTime.now());
+        ScanSchedule schedule = scanScheduleRepository.findByProjectId(projectId)
+                .orElseGet(() -> ScanSchedule.builder().projectId(projectId).build());
+        schedule.setSpecUrl(specUrl);
+        schedule.setNextRunAt(nextRunAt);
+
+        try {
+            scanScheduleRepository.save(schedule);
+            log.debug("🗓️ Rescan du projet {} planifié à {}", projectId, nextRunAt);
+        } catch (DataIntegrityViolationException e) {
+            // Planification créée en parallèle par un autre scan du même projet
+            log.debug("Planification du projet {} déjà créée : {}", projectId, e.getMessage());
+        }
+    }
+
+    /**
+     * Planifier au démarrage les projets Swagger existants sans planification
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedSchedules() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            int seeded = scanScheduleRepository.seedMissing((intervalMinutes + jitterMinutes) * 60);
+            if (seeded > 0) {
+                log.info("🗓️ {} projet(s) Swagger existant(s) planifié(s) pour un rescan", seeded);
+            }
+        } catch (Exception e) {
+            log.error("❌ Erreur lors de la planification des projets existants : {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Soumettre les rescans arrivés à échéance
+     */
+    @Scheduled(fixedDelayString = "${scanner.schedule.tick-ms:60000}",
+            initialDelayString = "${scanner.schedule.initial-delay-ms:60000}")
+    public void submitDueScans() {
+        if (!enabled) {
+            return;
+        }
+
+        int capacity = Math.min(batchSize, scanExecutor.getRemainingCapacity());
+        if (capacity == 0) {
+            log.debug("⏸️ File d'attente des scans pleine, rescans reportés au prochain passage");
+            return;
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        int submitted = 0;
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            List<ScanSchedule> due = scanScheduleRepository
+                    .findByNextRunAtLessThanEqualOrderByNextRunAtAsc(now, PageRequest.of(0, capacity));
+
+            for (ScanSchedule schedule : due) {
+                // Réserver la planification avant de soumettre le scan
+                if (scanScheduleRepository.claim(schedule.getId(), schedule.getNextRunAt(),
+                        nextRunAfter(now), now) == 0) {
+                    continue;
+                }
+
+                try {
+                    scanJobService.submitScan(
+                            new ScanSwaggerRequest(schedule.getProjectId(), schedule.getSpecUrl()),
+                            ScanJob.Trigger.SCHEDULED
+                    );
+                    submitted++;
+                } catch (RejectedExecutionException e) {
+                    log.warn("⚠️ Rescan du projet {} refusé : {}", schedule.getProjectId(), e.getMessage());
+                    break;
+                }
+            }
+
+        } catch (Exception e) {
+            log.error("❌ Erreur lors de la soumission des rescans : {}", e.getMessage(), e);
+
+        } finally {
+            sample.stop(Timer.builder("scanner.schedule.run")
+                    .description("Durée d'un passage du planificateur de rescans")
+                    .register(meterRegistry));
+            submittedCounter.increment(submitted);
+        }
+
+        if (submitted > 0) {
+            log.info("🔄 {} rescan(s) Swagger soumis par le planificateur", submitted);
+        }
+    }
+
+    /**
+     * Prochaine échéance : intervalle + décalage aléatoire entre 0 et jitter
+     */
+    private LocalDateTime nextRunAfter(LocalDateTime from) {
+        long jitterSeconds = jitterMinutes > 0
+                ? ThreadLocalRandom.current().nextLong(jitterMinutes * 60 + 1)
+                : 0;
+        return from.plusMinutes(intervalMinutes)
+                .plusSeconds(jitterSeconds)
+                .truncatedTo(ChronoUnit.MILLIS);
+    }
+}
@@ -0,0 +1,213 @@
+package com.testai.endpointservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.testai.endpointservice.entity.Endpoint;
+import com.testai.endpointservice.repository.SchemaBlobRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Stockage dédupliqué des corps de requête et de réponse des endpoints (table schema_blobs)
+ *
+ * - chaque fragment est compacté (sans espaces, ordre des clés de la spec conservé) puis adressé
+ *   par le SHA-256 de cette forme : deux opérations qui partagent un schéma partagent la même ligne
+ * - les endpoints ne stockent que les empreintes ; les corps sont des champs transients
+ *   de l'entité, renseignés par prepare() avant écriture et par hydrate() après lecture
+ * - cache local (Caffeine, borné en octets) des fragments lus : les fragments étant immuables
+ *   pour une empreinte donnée, il n'y a jamais rien à invalider
+ * - ramasse-miettes périodique des fragments qui ne sont plus référencés
+ *
+ * Les paramètres restent stockés dans la table endpoints (index GIN des recherches par paramètre).
+ */
+@Component
+@Slf4j
+public class SchemaBlobStore {
+
+    /**
+     * Accès aux quatre corps d'un endpoint et à leurs empreintes
+     */
+    private record Field(Function<Endpoint, String> content, BiConsumer<Endpoint, String> setContent,
+                         Function<Endpoint, String> hash, BiConsumer<Endpoint, String> setHash) {
+    }
+
+    private static final Field[] FIELDS = {
+            new Field(Endpoint::getRequestBody, Endpoint::setRequestBody,
+                    Endpoint::getRequestBodyHash, Endpoint::setRequestBodyHash),
+            new Field(Endpoint::getResponseBody, Endpoint::setResponseBody,
+                    Endpoint::getResponseBodyHash, Endpoint::setResponseBodyHash),
+            new Field(Endpoint::getResolvedRequestBody, Endpoint::setResolvedRequestBody,
+                    Endpoint::getResolvedRequestBodyHash, Endpoint::setResolvedRequestBodyHash),
+            new Field(Endpoint::getResolvedResponseBody, Endpoint::setResolvedResponseBody,
+                    Endpoint::getResolvedResponseBodyHash, Endpoint::setResolvedResponseBodyHash)
+    };
+
+    /**
+     * Forme normalisée : sans espaces, nombres décimaux conservés tels quels ; l'ordre des clés
+     * n'est pas modifié (properties et exemples sont restitués dans l'ordre de la spec)
+     */
+    private final ObjectMapper canonicalMapper = JsonMapper.builder()
+            .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+            .build();
+
+    private final SchemaBlobRepository schemaBlobRepository;
+    private final Cache<String, String> blobs;
+    private final long gcGraceHours;
+
+    public SchemaBlobStore(
+            SchemaBlobRepository schemaBlobRepository,
+            MeterRegistry meterRegistry,
+            @Value("${endpoints.blobs.cache-max-bytes:67108864}") long cacheMaxBytes,
+            @Value("${endpoints.blobs.gc-grace-hours:24}") long gcGraceHours) {
+        this.schemaBlobRepository = schemaBlobRepository;
+        this.gcGraceHours = gcGraceHours;
+        this.blobs = Caffeine.newBuilder()
+                .maximumWeight(cacheMaxBytes)
+                .<String, String>weigher((hash, content) -> hash.length() + content.length() * 2)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, blobs, "endpoints.schema-blobs");
+    }
+
+    /**
+     * Normaliser les corps d'un endpoint et calculer leurs empreintes (sans accès à la base)
+     *
+     * Sans état partagé : peut être appelé en parallèle sur les endpoints d'un scan.
+     */
+    public void prepare(Endpoint endpoint) {
+        for (Field field : FIELDS) {
+            String content = field.content().apply(endpoint);
+            if (content == null) {
+                field.setHash().accept(endpoint, null);
+                continue;
+            }
+            String canonical = normalize(content);
+            field.setContent().accept(endpoint, canonical);
+            field.setHash().accept(endpoint, sha256(canonical));
+        }
+    }
+
+    /**
+     * Enregistrer les corps distincts des endpoints préparés, en une instruction par paquet
+     * (à appeler dans la transaction qui écrit les endpoints)
+     */
+    @Transactional
+    public void saveAll(Collection<Endpoint> endpoints) {
+        Map<String, String> distinct = new HashMap<>();
+        for (Endpoint endpoint : endpoints) {
+            for (Field field : FIELDS) {
+                String hash = field.hash().apply(endpoint);
+                if (hash != null) {
+                    distinct.putIfAbsent(hash, field.content().apply(endpoint));
+                }
+            }
+        }
+        if (distinct.isEmpty()) {
+            return;
+        }
+
+        schemaBlobRepository.upsertAll(distinct);
+        blobs.putAll(distinct);
+        log.debug("🧩 {} fragments distincts enregistrés pour {} endpoints", distinct.size(), endpoints.size());
+    }
+
+    /**
+     * Renseigner les corps d'endpoints lus en base : cache local, puis une requête pour les absents
+     */
+    public void hydrate(Collection<Endpoint> endpoints) {
+        Map<String, String> resolved = new HashMap<>();
+        Set<String> missing = new HashSet<>();
+        for (Endpoint endpoint : endpoints) {
+            for (Field field : FIELDS) {
+                String hash = field.hash().apply(endpoint);
+                if (hash == null || resolved.containsKey(hash)) {
+                    continue;
+                }
+                String cached = blobs.getIfPresent(hash);
+                if (cached != null) {
+                    resolved.put(hash, cached);
+                } else {
+                    missing.add(hash);
+                }
+            }
+        }
+        if (!missing.isEmpty()) {
+            Map<String, String> loaded = schemaBlobRepository.findAll(missing);
+            blobs.putAll(loaded);
+            resolved.putAll(loaded);
+        }
+
+        for (Endpoint endpoint : endpoints) {
+            for (Field field : FIELDS) {
+                String hash = field.hash().apply(endpoint);
+                String content = hash != null ? resolved.get(hash) : null;
+                if (hash != null && content == null) {
+                    log.warn("⚠️ Fragment {} introuvable pour l'endpoint {}", hash, endpoint.getId());
+                }
+                field.setContent().accept(endpoint, content);
+            }
+        }
+    }
+
+    /**
+     * Supprimer les fragments qui ne sont plus référencés (après modification ou suppression d'endpoints)
+     */
+    @Scheduled(fixedDelayString = "${endpoints.blobs.gc-interval-ms:3600000}",
+            initialDelayString = "${endpoints.blobs.gc-interval-ms:3600000}")
+    @Transactional
+    public void collectGarbage() {
+        int deleted = schemaBlobRepository.deleteUnreferenced(LocalDateTime.now().minusHours(gcGraceHours));
+        if (deleted > 0) {
+            log.info("🧹 {} fragments de schéma non référencés supprimés", deleted);
+        }
+    }
+
+    /**
+     * JSON normalisé : sans espaces, dans l'ordre d'origine ; un texte invalide est conservé sous forme de chaîne JSON
+     */
+    public String normalize(String json) {
+        try {
+            return canonicalMapper.writeValueAsString(canonicalMapper.readValue(json, Object.class));
+        } catch (JsonProcessingException e) {
+            try {
+                return canonicalMapper.writeValueAsString(json);
+            } catch (JsonProcessingException impossible) {
+                throw new IllegalStateException(impossible);
+            }
+        }
+    }
+
+    /**
+     * Empreinte (SHA-256 hexadécimal) d'un fragment normalisé
+     */
+    public String sha256(String content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+}
@@ -0,0 +1,482 @@
+package com.testai.endpointservice.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache local des spécifications téléchargées, adressé par contenu
+ *
+ * - chaque corps est stocké compressé (gzip) sous le nom de son SHA-256 : plusieurs URL
+ *   (ou plusieurs projets) servant le même document partagent le même fichier
+ * - un index en mémoire associe chaque URL à son empreinte et à ses validateurs HTTP
+ *   (ETag, Last-Modified) : chaque accès revalide par un GET conditionnel, un 304 sert le cache
+ * - les fichiers sont relus via un mapping mémoire (FileChannel.map) et décompressés à la volée
+ * - éviction LRU par URL dès que la taille totale des fichiers dépasse la limite configurée
+ * - les scans concurrents d'une même URL partagent un seul téléchargement en cours
+ * - fetch() retourne le fichier déjà mappé : une éviction concurrente peut supprimer le
+ *   fichier sans interrompre la lecture en cours (le mapping reste valide)
+ *
+ * Quand l'index ne connaît pas l'URL (redémarrage, autre instance, éviction), l'appelant peut
+ * fournir les validateurs persistés du dernier scan (SpecFingerprint) : le GET reste conditionnel
+ * et un 304 renvoie une spécification sans corps, identifiée par l'empreinte persistée.
+ *
+ * L'index n'est pas persisté : chaque instance du service écrit dans son propre sous-répertoire
+ * (instance-*, verrouillé tant que le processus tourne) du répertoire configuré, supprimé à
+ * l'arrêt. Au démarrage, seuls les sous-répertoires d'instances arrêtées (verrou libre) sont
+ * nettoyés : les autres fichiers d'un répertoire partagé ne sont jamais touchés.
+ */
+@Component
+@Slf4j
+public class SpecCache {
+
+    private static final String BLOB_SUFFIX = ".gz";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String INSTANCE_PREFIX = "instance-";
+    private static final String LOCK_FILE = ".lock";
+
+    private final SpecHttpClient specHttpClient;
+    private final Path root;
+    private final long maxBytes;
+
+    /**
+     * Sous-répertoire de cette instance et verrou qui le protège du nettoyage des autres
+     */
+    private Path directory;
+    private FileChannel lockChannel;
+
+    /**
+     * Index URL -> entrée, en ordre d'accès (LRU). Protégé par le verrou de l'instance.
+     */
+    private final LinkedHashMap<String, CachedSpec> index = new LinkedHashMap<>(16, 0.75f, true);
+    /**
+     * Nombre d'URL référençant chaque fichier, et taille totale des fichiers
+     */
+    private final Map<String, Integer> blobReferences = new HashMap<>();
+    private final Map<String, Long> blobSizes = new HashMap<>();
+    private long totalBytes;
+
+    private final Map<String, CompletableFuture<SpecContent>> inFlight = new ConcurrentHashMap<>();
+
+    public SpecCache(
+            SpecHttpClient specHttpClient,
+            @Value("${scanner.cache.directory:${java.io.tmpdir}/testai-spec-cache}") String directory,
+            @Value("${scanner.cache.max-bytes:268435456}") long maxBytes) {
+        this.specHttpClient = specHttpClient;
+        this.root = Path.of(directory);
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Spécification présente dans le cache
+     *
+     * @param sha256      empreinte du corps non compressé
+     * @param contentType Content-Type renvoyé par le serveur (peut être null)
+     * @param size        taille du corps non compressé
+     */
+    public record CachedSpec(String url, String sha256, String etag, String lastModified,
+                             MediaType contentType, long size) {
+    }
+
+    /**
+     * Validateurs d'une version déjà traitée, conservés hors du cache
+     *
+     * @param sha256 empreinte du corps auquel correspondent l'ETag et le Last-Modified
+     */
+    public record KnownSpec(String sha256, String etag, String lastModified) {
+
+        boolean isUsable() {
+            return sha256 != null && (etag != null || lastModified != null);
+        }
+    }
+
+    /**
+     * Spécification obtenue par fetch(), avec son fichier compressé déjà mappé en mémoire
+     *
+     * @param compressed null si le serveur a confirmé une version connue (KnownSpec) absente du cache
+     */
+    public record SpecContent(CachedSpec spec, ByteBuffer compressed) {
+
+        public boolean hasBody() {
+            return compressed != null;
+        }
+
+        /**
+         * Ouvrir le corps non compressé (chaque appel relit depuis le début)
+         */
+        public InputStream open() throws IOException {
+            if (compressed == null) {
+                throw new IllegalStateException("Corps de " + spec.url() + " non téléchargé (304)");
+            }
+            return new GZIPInputStream(new ByteBufferInputStream(compressed.duplicate()));
+        }
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(root);
+        int removed = removeStaleInstances();
+
+        directory = Files.createTempDirectory(root, INSTANCE_PREFIX);
+        lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.WRITE);
+        lockChannel.lock();
+        log.info("🗄️ Cache des spécifications : {} (limite {} octets, {} fichiers obsolètes supprimés)",
+                directory, maxBytes, removed);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (lockChannel != null) {
+            lockChannel.close();
+            removeInstance(directory);
+        }
+    }
+
+    /**
+     * Supprimer les sous-répertoires d'instances arrêtées (verrou libre)
+     *
+     * @return nombre de fichiers supprimés
+     */
+    private int removeStaleInstances() throws IOException {
+        int removed = 0;
+        try (DirectoryStream<Path> instances = Files.newDirectoryStream(root, INSTANCE_PREFIX + "*")) {
+            for (Path instance : instances) {
+                Path lockFile = instance.resolve(LOCK_FILE);
+                if (!Files.isRegularFile(lockFile)) {
+                    continue;
+                }
+                try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.WRITE);
+                     FileLock lock = channel.tryLock()) {
+                    if (lock == null) {
+                        continue;
+                    }
+                } catch (OverlappingFileLockException e) {
+                    // Verrou détenu par ce même processus (autre contexte Spring)
+                    continue;
+                }
+                removed += removeInstance(instance);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Supprimer les fichiers du cache d'une instance puis son répertoire (s'il ne contient rien d'autre)
+     */
+    private int removeInstance(Path instance) throws IOException {
+        int removed = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(instance, "*{" + BLOB_SUFFIX + "," + TEMP_SUFFIX + "}")) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+                removed++;
+            }
+        }
+        Files.deleteIfExists(instance.resolve(LOCK_FILE));
+        try {
+            Files.deleteIfExists(instance);
+        } catch (DirectoryNotEmptyException e) {
+            log.warn("Répertoire de cache {} conservé : il contient des fichiers étrangers au cache", instance);
+        }
+        return removed;
+    }
+
+    /**
+     * Obtenir la version courante d'une spécification, en la revalidant auprès du serveur
+     *
+     * Les appels concurrents pour une même URL attendent le même téléchargement.
+     */
+    public SpecContent fetch(String url) {
+        return fetch(url, null);
+    }
+
+    /**
+     * Obtenir la version courante d'une spécification, en revalidant la version connue de l'appelant
+     * si l'index ne contient pas l'URL
+     *
+     * @param known validateurs persistés du dernier scan (optionnel). Si le serveur répond 304,
+     *              le résultat n'a pas de corps (hasBody() faux) et porte l'empreinte known.sha256()
+     */
+    public SpecContent fetch(String url, KnownSpec known) {
+        CompletableFuture<SpecContent> future = new CompletableFuture<>();
+        CompletableFuture<SpecContent> existing = inFlight.putIfAbsent(url, future);
+        if (existing != null) {
+            log.debug("⏳ Téléchargement déjà en cours pour {}, en attente", url);
+            SpecContent shared = join(existing);
+            if (!shared.hasBody() && (known == null || !shared.spec().sha256().equals(known.sha256()))) {
+                // 304 obtenu pour la version connue d'un autre appelant : corps nécessaire ici
+                return download(url, lookup(url), false);
+            }
+            return shared;
+        }
+
+        try {
+            CachedSpec previous = lookup(url);
+            boolean seeded = previous == null && known != null && known.isUsable();
+            if (seeded) {
+                previous = new CachedSpec(url, known.sha256(), known.etag(), known.lastModified(), null, -1);
+            }
+            future.complete(download(url, previous, seeded));
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        } finally {
+            inFlight.remove(url, future);
+        }
+        return join(future);
+    }
+
+    /**
+     * @param seeded previous provient de l'appelant (KnownSpec) et non de l'index
+     */
+    private SpecContent download(String url, CachedSpec previous, boolean seeded) {
+        HttpHeaders headers = new HttpHeaders();
+        if (previous != null) {
+            if (previous.etag() != null) {
+                headers.setIfNoneMatch(previous.etag());
+            }
+            if (previous.lastModified() != null) {
+                headers.set(HttpHeaders.IF_MODIFIED_SINCE, previous.lastModified());
+            }
+        }
+
+        SpecContent spec = specHttpClient.get(url, headers,
+                (response, body) -> store(url, previous, seeded, response, body));
+        if (spec == null) {
+            // 304 mais le fichier a été évincé entre-temps : nouveau téléchargement complet
+            log.debug("🔁 Entrée évincée pendant la revalidation de {}, nouveau téléchargement", url);
+            return download(url, null, false);
+        }
+        return spec;
+    }
+
+    /**
+     * Écrire le corps compressé dans un fichier temporaire, puis le renommer d'après son SHA-256
+     *
+     * @return l'entrée du cache, ou null si le serveur a répondu 304 pour une entrée évincée
+     */
+    private SpecContent store(String url, CachedSpec previous, boolean seeded, ClientHttpResponse response,
+                              InputStream body) throws IOException {
+        HttpHeaders responseHeaders = response.getHeaders();
+
+        if (previous != null && response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+            // Un 304 peut omettre les validateurs : on garde alors les précédents
+            CachedSpec revalidated = new CachedSpec(url, previous.sha256(),
+                    responseHeaders.getETag() != null ? responseHeaders.getETag() : previous.etag(),
+                    responseHeaders.getFirst(HttpHeaders.LAST_MODIFIED) != null
+                            ? responseHeaders.getFirst(HttpHeaders.LAST_MODIFIED) : previous.lastModified(),
+                    previous.contentType(), previous.size());
+            if (seeded) {
+                // Version connue de l'appelant, absente de l'index : pas de corps à servir
+                log.debug("♻️ Spécification {} inchangée depuis le dernier scan (304)", url);
+                return new SpecContent(revalidated, null);
+            }
+            SpecContent content = registerAndMap(revalidated);
+            if (content == null) {
+                return null;
+            }
+            log.debug("♻️ Spécification {} servie depuis le cache (304)", url);
+            return content;
+        }
+
+        MessageDigest digest = sha256();
+        Path temp = Files.createTempFile(directory, "spec-", TEMP_SUFFIX);
+        long size;
+        try {
+            try (InputStream in = new DigestInputStream(body, digest);
+                 OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp))) {
+                size = in.transferTo(out);
+            }
+
+            String sha = HexFormat.of().formatHex(digest.digest());
+            CachedSpec spec = new CachedSpec(url, sha, responseHeaders.getETag(),
+                    responseHeaders.getFirst(HttpHeaders.LAST_MODIFIED), responseHeaders.getContentType(), size);
+            SpecContent content = commit(temp, spec);
+            log.debug("💾 Spécification {} mise en cache ({} octets, sha256 {})", url, size, sha);
+            return content;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private synchronized CachedSpec lookup(String url) {
+        return index.get(url);
+    }
+
+    /**
+     * Installer un fichier téléchargé sous son nom définitif (sauf si ce contenu est déjà présent)
+     */
+    private synchronized SpecContent commit(Path temp, CachedSpec spec) throws IOException {
+        Path blob = blobPath(spec.sha256());
+        if (!Files.exists(blob)) {
+            Files.move(temp, blob, StandardCopyOption.ATOMIC_MOVE);
+        }
+        return registerAndMap(spec);
+    }
+
+    /**
+     * Enregistrer une entrée et mapper son fichier sous le même verrou : aucune éviction
+     * ne peut supprimer le fichier entre les deux
+     *
+     * @return null si le fichier de l'entrée n'existe plus
+     */
+    private synchronized SpecContent registerAndMap(CachedSpec spec) throws IOException {
+        if (!register(spec)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(blobPath(spec.sha256()), StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new SpecContent(spec, mapped);
+        }
+    }
+
+    /**
+     * Enregistrer une entrée dans l'index puis évincer les moins récemment utilisées
+     *
+     * @return false si le fichier de l'entrée n'existe plus
+     */
+    private synchronized boolean register(CachedSpec spec) throws IOException {
+        Path blob = blobPath(spec.sha256());
+        if (!blobSizes.containsKey(spec.sha256())) {
+            if (!Files.exists(blob)) {
+                return false;
+            }
+            long blobSize = Files.size(blob);
+            blobSizes.put(spec.sha256(), blobSize);
+            totalBytes += blobSize;
+        }
+
+        CachedSpec replaced = index.put(spec.url(), spec);
+        blobReferences.merge(spec.sha256(), 1, Integer::sum);
+        if (replaced != null) {
+            release(replaced.sha256());
+        }
+
+        evict(spec.url());
+        return true;
+    }
+
+    /**
+     * Évincer les URL les moins récemment utilisées tant que la limite est dépassée
+     * (l'entrée qui vient d'être enregistrée est toujours conservée)
+     */
+    private void evict(String keptUrl) {
+        Iterator<CachedSpec> entries = index.values().iterator();
+        while (totalBytes > maxBytes && entries.hasNext()) {
+            CachedSpec eldest = entries.next();
+            if (eldest.url().equals(keptUrl)) {
+                continue;
+            }
+            entries.remove();
+            release(eldest.sha256());
+            log.debug("🧹 Spécification {} évincée du cache", eldest.url());
+        }
+    }
+
+    /**
+     * Décrémenter les références d'un fichier et le supprimer quand plus aucune URL ne l'utilise
+     */
+    private void release(String sha) {
+        int remaining = blobReferences.merge(sha, -1, Integer::sum);
+        if (remaining > 0) {
+            return;
+        }
+        blobReferences.remove(sha);
+        Long size = blobSizes.remove(sha);
+        if (size != null) {
+            totalBytes -= size;
+        }
+        try {
+            Files.deleteIfExists(blobPath(sha));
+        } catch (IOException e) {
+            log.warn("Impossible de supprimer le fichier {} du cache : {}", sha, e.getMessage());
+        }
+    }
+
+    private Path blobPath(String sha) {
+        return directory.resolve(sha + BLOB_SUFFIX);
+    }
+
+    private SpecContent join(CompletableFuture<SpecContent> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
+    /**
+     * InputStream au-dessus d'un fichier mappé en mémoire
+     */
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int read = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, read);
+            return read;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.testai.endpointservice.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client HTTP partagé pour télécharger les spécifications Swagger/OpenAPI
+ *
+ * - pool de connexions Apache HttpClient 5, borné au total et par hôte
+ * - timeouts de connexion, de lecture et d'attente d'une connexion du pool
+ * - compression : Accept-Encoding gzip/deflate envoyé et réponse décompressée par HttpClient
+ * - taille maximale du corps (après décompression) : le téléchargement est interrompu en cours de lecture
+ * - durée maximale du téléchargement (connexion comprise), vérifiée à chaque lecture du corps : un serveur
+ *   qui envoie quelques octets juste avant chaque expiration du timeout de lecture est interrompu au plus
+ *   tard après download-timeout-ms + read-timeout-ms
+ * - métriques Micrometer : occupation du pool et durée des téléchargements
+ */
+@Component
+@Slf4j
+public class SpecHttpClient {
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+    private final RestTemplate restTemplate;
+    private final MeterRegistry meterRegistry;
+    private final long maxBodyBytes;
+    private final long downloadTimeoutMs;
+
+    public SpecHttpClient(
+            MeterRegistry meterRegistry,
+            @Value("${scanner.http.connect-timeout-ms:5000}") long connectTimeoutMs,
+            @Value("${scanner.http.read-timeout-ms:30000}") long readTimeoutMs,
+            @Value("${scanner.http.pool-timeout-ms:10000}") long poolTimeoutMs,
+            @Value("${scanner.http.max-connections:50}") int maxConnections,
+            @Value("${scanner.http.max-connections-per-host:4}") int maxConnectionsPerHost,
+            @Value("${scanner.http.max-body-bytes:104857600}") long maxBodyBytes,
+            @Value("${scanner.http.download-timeout-ms:120000}") long downloadTimeoutMs) {
+        this.meterRegistry = meterRegistry;
+        this.maxBodyBytes = maxBodyBytes;
+        this.downloadTimeoutMs = downloadTimeoutMs;
+
+        this.connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerHost)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .build())
+                .build();
+
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(poolTimeoutMs))
+                        .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .build())
+                .evictIdleConnections(TimeValue.ofSeconds(30))
+                .build();
+
+        this.restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+
+        Gauge.builder("scanner.http.pool.leased", connectionManager, cm -> cm.getTotalStats().getLeased())
+                .description("Connexions du pool en cours d'utilisation")
+                .register(meterRegistry);
+        Gauge.builder("scanner.http.pool.available", connectionManager, cm -> cm.getTotalStats().getAvailable())
+                .description("Connexions du pool disponibles")
+                .register(meterRegistry);
+        Gauge.builder("scanner.http.pool.pending", connectionManager, cm -> cm.getTotalStats().getPending())
+                .description("Requêtes en attente d'une connexion du pool")
+                .register(meterRegistry);
+        Gauge.builder("scanner.http.pool.max", connectionManager, cm -> cm.getTotalStats().getMax())
+                .description("Taille maximale du pool")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Lecture de la réponse, avec un corps limité à la taille et à la durée maximales autorisées
+     */
+    @FunctionalInterface
+    public interface ResponseReader<T> {
+        T read(ClientHttpResponse response, InputStream body) throws IOException;
+    }
+
+    /**
+     * Exécuter un GET et lire la réponse en streaming
+     */
+    public <T> T get(String url, HttpHeaders requestHeaders, ResponseReader<T> reader) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(downloadTimeoutMs);
+        String outcome = "error";
+        try {
+            T result = restTemplate.execute(
+                    url,
+                    HttpMethod.GET,
+                    request -> request.getHeaders().addAll(requestHeaders),
+                    response -> reader.read(response, new BoundedInputStream(response.getBody(), maxBodyBytes,
+                            deadline, downloadTimeoutMs))
+            );
+            outcome = "success";
+            return result;
+        } finally {
+            sample.stop(Timer.builder("scanner.http.download")
+                    .description("Durée de téléchargement des spécifications")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        httpClient.close(CloseMode.GRACEFUL);
+    }
+
+    /**
+     * Flux qui échoue dès que la taille maximale est dépassée ou que l'échéance du téléchargement est passée
+     */
+    private static class BoundedInputStream extends FilterInputStream {
+        private final long maxBytes;
+        private final long deadline;
+        private final long timeoutMs;
+        private long count;
+
+        /**
+         * @param deadline échéance (System.nanoTime())
+         */
+        BoundedInputStream(InputStream in, long maxBytes, long deadline, long timeoutMs) {
+            super(in);
+            this.maxBytes = maxBytes;
+            this.deadline = deadline;
+            this.timeoutMs = timeoutMs;
+        }
+
+        @Override
+        public int read() throws IOException {
+            checkDeadline();
+            int b = super.read();
+            if (b != -1) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            checkDeadline();
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count(read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            checkDeadline();
+            return super.skip(n);
+        }
+
+        private void checkDeadline() throws IOException {
+            if (System.nanoTime() - deadline > 0) {
+                throw new IOException("Téléchargement trop long (> " + timeoutMs + " ms)");
+            }
+        }
+
+        private void count(int read) throws IOException {
+            count += read;
+            if (count > maxBytes) {
+                throw new IOException("Spécification trop volumineuse (> " + maxBytes + " octets)");
+            }
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.testai.endpointservice.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Résolution des $ref internes ("#/components/...", "#/definitions/...") d'une spécification
+ *
+ * Une instance par scan : chaque composant référencé est résolu une seule fois puis
+ * mémorisé, le coût reste donc linéaire en nombre de composants distincts même si des
+ * milliers d'opérations partagent les mêmes schémas. Les références circulaires et les
+ * expansions trop profondes sont remplacées par un marqueur au lieu d'être développées.
+ *
+ * Seules les expansions complètes (sans marqueur de cycle ni de profondeur) sont mémorisées,
+ * avec leur hauteur (niveaux de $ref imbriquées) : la limite de profondeur est vérifiée à
+ * chaque insertion, et une expansion tronquée, qui dépend de l'endroit où le composant est
+ * atteint, est recalculée à chaque fois. Le résultat ne dépend donc ni de l'ordre de parcours
+ * ni de l'entrelacement des threads.
+ *
+ * Les sous-arbres sans $ref sont retournés tels quels (même instance), ce qui permet
+ * de savoir si une résolution a changé quelque chose.
+ *
+ * Utilisable depuis plusieurs threads : le cache est concurrent et la pile de détection
+ * des cycles est propre à chaque thread. Appeler warmUp() avant un traitement parallèle
+ * garantit que chaque composant n'est résolu qu'une fois.
+ */
+@Slf4j
+public class SwaggerRefResolver {
+
+    private static final JsonNodeFactory NODES = JsonNodeFactory.instance;
+
+    private final JsonNode refRoot;
+    private final int maxDepth;
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, Expansion> resolved = new ConcurrentHashMap<>();
+    private final ThreadLocal<Set<String>> inProgress = ThreadLocal.withInitial(HashSet::new);
+
+    /**
+     * @param refRoot  objet contenant les sections référençables du document (components, definitions...)
+     * @param maxDepth nombre maximal de $ref imbriquées développées à partir d'un composant
+     */
+    public SwaggerRefResolver(JsonNode refRoot, int maxDepth, ObjectMapper objectMapper) {
+        this.refRoot = refRoot != null ? refRoot : NODES.objectNode();
+        this.maxDepth = maxDepth;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Résoudre les $ref d'un fragment JSON sérialisé
+     *
+     * @return le fragment résolu, ou null s'il ne contenait aucune $ref interne
+     */
+    public String resolveJson(String json) {
+        if (json == null || !json.contains("\"$ref\"")) {
+            return null;
+        }
+        try {
+            JsonNode original = objectMapper.readTree(json);
+            JsonNode result = resolve(original, 0, new Depth());
+            return result == original ? null : objectMapper.writeValueAsString(result);
+        } catch (Exception e) {
+            log.warn("Erreur lors de la résolution des $ref : {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Résoudre d'avance tous les composants déclarés (schemas, parameters, definitions...)
+     */
+    public void warmUp() {
+        Iterator<Map.Entry<String, JsonNode>> sections = refRoot.fields();
+        while (sections.hasNext()) {
+            Map.Entry<String, JsonNode> section = sections.next();
+            if (section.getKey().equals("components")) {
+                // OpenAPI 3 : #/components/{type}/{name}
+                Iterator<Map.Entry<String, JsonNode>> types = section.getValue().fields();
+                while (types.hasNext()) {
+                    Map.Entry<String, JsonNode> type = types.next();
+                    warmUpSection("#/components/" + escape(type.getKey()) + "/", type.getValue());
+                }
+            } else {
+                // Swagger 2 : #/definitions/{name}, #/parameters/{name}, #/responses/{name}
+                warmUpSection("#/" + escape(section.getKey()) + "/", section.getValue());
+            }
+        }
+    }
+
+    private void warmUpSection(String prefix, JsonNode section) {
+        Iterator<String> names = section.fieldNames();
+        while (names.hasNext()) {
+            String ref = prefix + escape(names.next());
+            resolveRef(ref, marker(ref, "x-warm-up"), 0, new Depth());
+        }
+    }
+
+    /**
+     * Échappement JSON Pointer (RFC 6901)
+     */
+    private String escape(String token) {
+        return token.replace("~", "~0").replace("/", "~1");
+    }
+
+    /**
+     * Nombre de composants distincts résolus pendant le scan
+     */
+    public int getResolvedCount() {
+        return resolved.size();
+    }
+
+    private JsonNode resolve(JsonNode node, int depth, Depth reached) {
+        if (node.isObject()) {
+            JsonNode ref = node.get("$ref");
+            if (ref != null && ref.isTextual()) {
+                return resolveRef(ref.asText(), node, depth, reached);
+            }
+            return resolveObject((ObjectNode) node, depth, reached);
+        }
+        if (node.isArray()) {
+            return resolveArray((ArrayNode) node, depth, reached);
+        }
+        return node;
+    }
+
+    private JsonNode resolveObject(ObjectNode node, int depth, Depth reached) {
+        ObjectNode copy = null;
+        Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+        int index = 0;
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            JsonNode value = resolve(field.getValue(), depth, reached);
+            if (value != field.getValue() && copy == null) {
+                // Premier champ modifié : copie superficielle des champs déjà parcourus
+                copy = NODES.objectNode();
+                Iterator<Map.Entry<String, JsonNode>> previous = node.fields();
+                for (int i = 0; i < index; i++) {
+                    Map.Entry<String, JsonNode> kept = previous.next();
+                    copy.set(kept.getKey(), kept.getValue());
+                }
+            }
+            if (copy != null) {
+                copy.set(field.getKey(), value);
+            }
+            index++;
+        }
+        return copy != null ? copy : node;
+    }
+
+    private JsonNode resolveArray(ArrayNode node, int depth, Depth reached) {
+        ArrayNode copy = null;
+        for (int i = 0; i < node.size(); i++) {
+            JsonNode value = resolve(node.get(i), depth, reached);
+            if (value != node.get(i) && copy == null) {
+                copy = NODES.arrayNode(node.size());
+                for (int j = 0; j < i; j++) {
+                    copy.add(node.get(j));
+                }
+            }
+            if (copy != null) {
+                copy.add(value);
+            }
+        }
+        return copy != null ? copy : node;
+    }
+
+    /**
+     * @param reached hauteur et troncature de l'expansion englobante, complétées ici
+     */
+    private JsonNode resolveRef(String ref, JsonNode refNode, int depth, Depth reached) {
+        // Références externes (autre fichier, URL) : non supportées, laissées telles quelles
+        if (!ref.startsWith("#/")) {
+            return refNode;
+        }
+
+        // Une expansion complète n'est réutilisable que si elle tient dans la profondeur restante
+        Expansion cached = resolved.get(ref);
+        if (cached != null && depth + cached.height() <= maxDepth) {
+            reached.include(cached.height(), false);
+            return cached.node();
+        }
+        Set<String> stack = inProgress.get();
+        if (stack.contains(ref)) {
+            reached.include(0, true);
+            return marker(ref, "x-circular-ref");
+        }
+        if (depth >= maxDepth) {
+            reached.include(0, true);
+            return marker(ref, "x-max-depth");
+        }
+
+        JsonNode target = refRoot.at(ref.substring(1));
+        if (target.isMissingNode()) {
+            log.debug("$ref introuvable : {}", ref);
+            return marker(ref, "x-unresolved-ref");
+        }
+
+        Depth inner = new Depth();
+        stack.add(ref);
+        JsonNode result;
+        try {
+            result = resolve(target, depth + 1, inner);
+        } finally {
+            stack.remove(ref);
+        }
+
+        int height = inner.height + 1;
+        if (!inner.truncated) {
+            resolved.putIfAbsent(ref, new Expansion(result, height));
+        }
+        reached.include(height, inner.truncated);
+        return result;
+    }
+
+    /**
+     * Expansion complète d'un composant et nombre de niveaux de $ref qu'elle contient (lui compris)
+     */
+    private record Expansion(JsonNode node, int height) {
+    }
+
+    /**
+     * Accumulateur pendant l'expansion d'un composant : hauteur maximale des $ref
+     * insérées et présence d'un marqueur de cycle ou de profondeur
+     */
+    private static final class Depth {
+        private int height;
+        private boolean truncated;
+
+        void include(int childHeight, boolean childTruncated) {
+            height = Math.max(height, childHeight);
+            truncated |= childTruncated;
+        }
+    }
+
+    private JsonNode marker(String ref, String flag) {
+        ObjectNode marker = NODES.objectNode();
+        marker.put("$ref", ref);
+        marker.put(flag, true);
+        return marker;
+    }
+}
@@ -1,21 +1,30 @@
 package com.testai.endpointservice.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.testai.endpointservice.dto.EndpointDTO;
 import com.testai.endpointservice.dto.ScanSwaggerResponse;
 import com.testai.endpointservice.entity.Endpoint;
+import com.testai.endpointservice.entity.SpecFingerprint;
 import com.testai.endpointservice.repository.EndpointRepository;
+import com.testai.endpointservice.repository.SpecFingerprintRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
 
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.IntConsumer;
 
 /**
  * Service pour scanner les endpoints depuis Swagger/OpenAPI
@@ -26,45 +35,118 @@ import java.util.UUID;
 public class SwaggerScannerService {
 
     private final EndpointRepository endpointRepository;
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final EndpointScanWriter endpointScanWriter;
+    private final SpecFingerprintRepository specFingerprintRepository;
+    private final SwaggerStreamParser swaggerStreamParser;
+    private final ParallelScanProcessor parallelScanProcessor;
+    private final SpecCache specCache;
+    private final SchemaBlobStore schemaBlobStore;
+    /**
+     * Nombre maximal d'octets inspectés pour deviner le format du document
+     */
+    private static final int FORMAT_SNIFF_LIMIT = 1024;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    @Value("${scanner.refs.max-depth:10}")
+    private int maxRefDepth;
+
+    /**
+     * Nombre d'opérations traitées puis écrites ensemble (une transaction par lot)
+     */
+    @Value("${scanner.batch-size:2000}")
+    private int batchSize;
+
     /**
      * Scanner une URL Swagger/OpenAPI et extraire les endpoints
+     *
+     * Le document est téléchargé dans le cache local puis lu en streaming et écrit par lots :
+     * la mémoire consommée dépend des sections référençables ($ref) et de la taille d'un lot,
+     * pas du nombre d'opérations de la spécification.
+     * Un document inchangé depuis le dernier scan (même SHA-256) n'est pas retraité.
      */
-    @Transactional
     public ScanSwaggerResponse scanSwagger(UUID projectId, String swaggerUrl) {
+        return scanSwagger(projectId, swaggerUrl, null, processed -> { });
+    }
+
+    /**
+     * Scanner une URL Swagger/OpenAPI en signalant la progression
+     *
+     * Aucune transaction n'est ouverte pendant le téléchargement ni la lecture : seule l'écriture
+     * de chaque lot (EndpointScanWriter) est transactionnelle.
+     *
+     * @param scanJobId job de scan en cours, enregistré dans les révisions des endpoints (optionnel)
+     * @param progress  appelé avec le nombre d'opérations lues après chaque opération
+     */
+    public ScanSwaggerResponse scanSwagger(UUID projectId, String swaggerUrl, UUID scanJobId, IntConsumer progress) {
         log.info("🔍 Début du scan Swagger pour le projet {} depuis {}", projectId, swaggerUrl);
+        long startTime = System.currentTimeMillis();
 
         try {
-            // 1. Télécharger le fichier Swagger JSON
-            String swaggerJson = restTemplate.getForObject(swaggerUrl, String.class);
+            SpecFingerprint fingerprint = specFingerprintRepository
+                    .findByProjectIdAndSpecUrl(projectId, swaggerUrl)
+                    .orElseGet(() -> SpecFingerprint.builder().projectId(projectId).specUrl(swaggerUrl).build());
+
+            // 1. Obtenir la spécification via le cache local (revalidée par GET conditionnel, à partir
+            //    de l'empreinte persistée si ce cache ne connaît pas encore l'URL)
+            SpecCache.SpecContent content = specCache.fetch(swaggerUrl, new SpecCache.KnownSpec(
+                    fingerprint.getDigest(), fingerprint.getEtag(), fingerprint.getLastModified()));
+            SpecCache.CachedSpec spec = content.spec();
+
+            // 2. Spécification inchangée depuis le dernier scan du projet : rien à réécrire
+            //    (toujours le cas d'un 304 sans corps, qui porte l'empreinte persistée)
+            if (spec.sha256().equals(fingerprint.getDigest())) {
+                updateFingerprint(fingerprint, spec);
+                specFingerprintRepository.save(fingerprint);
+                log.info("♻️ Spécification inchangée pour le projet {} ({} ms)",
+                        projectId, System.currentTimeMillis() - startTime);
+                return createUnchangedResponse(projectId);
+            }
 
-            if (swaggerJson == null || swaggerJson.isEmpty()) {
-                return createErrorResponse("Le fichier Swagger est vide");
+            // Première passe : version et sections référençables par $ref (JSON ou YAML)
+            SwaggerStreamParser.SpecFormat format;
+            SwaggerStreamParser.ParseResult parseResult;
+            try (InputStream body = new BufferedInputStream(content.open())) {
+                format = detectFormat(spec.contentType(), swaggerUrl, body);
+                log.debug("📄 Format de spécification détecté : {}", format);
+                parseResult = swaggerStreamParser.readHeader(body, format);
             }
 
-            // 2. Parser le JSON
-            JsonNode rootNode = objectMapper.readTree(swaggerJson);
+            if (parseResult == null) {
+                return createErrorResponse("Le fichier Swagger est vide");
+            }
 
-            // 3. Détecter la version OpenAPI
-            String version = detectOpenApiVersion(rootNode);
+            // 3. Vérifier la version OpenAPI
+            String version = parseResult.version();
             log.info("📋 Version OpenAPI détectée : {}", version);
-
-            // 4. Extraire les endpoints
-            List<Endpoint> endpoints;
-            if (version.startsWith("3.")) {
-                endpoints = extractEndpointsFromOpenApi3(projectId, rootNode);
-            } else if (version.startsWith("2.")) {
-                endpoints = extractEndpointsFromSwagger2(projectId, rootNode);
-            } else {
+            if (!version.startsWith("3.") && !version.startsWith("2.")) {
                 return createErrorResponse("Version OpenAPI non supportée : " + version);
             }
 
-            // 5. Sauvegarder les endpoints
-            ScanSwaggerResponse response = saveEndpoints(projectId, endpoints);
+            // 4. Seconde passe : les opérations sont lues en streaming et écrites par lots
+            SwaggerRefResolver refResolver = new SwaggerRefResolver(
+                    parseResult.refRoot(), maxRefDepth, objectMapper);
+            EndpointScanWriter.Session session = endpointScanWriter.begin(projectId, scanJobId);
+            List<Endpoint> batch = new ArrayList<>(batchSize);
+            int[] processed = {0};
+            try (InputStream body = new BufferedInputStream(content.open())) {
+                swaggerStreamParser.readOperations(body, format, projectId, endpoint -> {
+                    batch.add(endpoint);
+                    progress.accept(++processed[0]);
+                    if (batch.size() >= batchSize) {
+                        writeBatch(session, batch, refResolver);
+                    }
+                });
+            }
+            writeBatch(session, batch, refResolver);
+
+            // 5. Enregistrer l'empreinte de la spécification
+            updateFingerprint(fingerprint, spec);
+            ScanSwaggerResponse response = endpointScanWriter.finish(session, fingerprint);
 
-            log.info("✅ Scan terminé : {} endpoints traités", response.getTotalEndpoints());
+            log.info("✅ Scan terminé : {} endpoints traités en {} ms ({} nouveaux, {} modifiés, {} ignorés)",
+                    response.getTotalEndpoints(), System.currentTimeMillis() - startTime,
+                    response.getNewEndpoints(), response.getUpdatedEndpoints(), response.getSkippedEndpoints());
             return response;
 
         } catch (Exception e) {
@@ -74,234 +156,135 @@ public class SwaggerScannerService {
     }
 
     /**
-     * Détecter la version d'OpenAPI
+     * Résoudre les $ref, calculer les empreintes et normaliser les corps stockés dans schema_blobs
+     * (en parallèle au-delà du seuil), puis écrire le lot et le vider
      */
-    private String detectOpenApiVersion(JsonNode rootNode) {
-        // OpenAPI 3.x
-        if (rootNode.has("openapi")) {
-            return rootNode.get("openapi").asText();
+    private void writeBatch(EndpointScanWriter.Session session, List<Endpoint> batch, SwaggerRefResolver refResolver) {
+        if (batch.isEmpty()) {
+            return;
         }
-        // Swagger 2.x
-        if (rootNode.has("swagger")) {
-            return rootNode.get("swagger").asText();
+
+        long processStart = System.currentTimeMillis();
+        boolean parallel = parallelScanProcessor.isParallel(batch.size());
+        if (parallel) {
+            refResolver.warmUp();
         }
-        return "unknown";
+        parallelScanProcessor.forEach(batch, endpoint -> {
+            resolveRefs(endpoint, refResolver);
+            endpoint.setContentHash(computeContentHash(endpoint));
+            schemaBlobStore.prepare(endpoint);
+        });
+        log.debug("🔗 {} opérations traitées en {} ms ({}), {} composants distincts résolus",
+                batch.size(), System.currentTimeMillis() - processStart,
+                parallel ? "fork/join" : "séquentiel", refResolver.getResolvedCount());
+
+        endpointScanWriter.write(session, batch);
+        batch.clear();
     }
 
     /**
-     * Extraire les endpoints depuis OpenAPI 3.x
+     * Détecter le format du document : Content-Type, puis extension de l'URL,
+     * puis premier caractère significatif du contenu
      */
-    private List<Endpoint> extractEndpointsFromOpenApi3(UUID projectId, JsonNode rootNode) {
-        List<Endpoint> endpoints = new ArrayList<>();
-
-        JsonNode pathsNode = rootNode.get("paths");
-        if (pathsNode == null) {
-            log.warn("⚠️ Aucun path trouvé dans le fichier OpenAPI");
-            return endpoints;
-        }
-
-        // Parcourir tous les paths
-        Iterator<String> pathIterator = pathsNode.fieldNames();
-        while (pathIterator.hasNext()) {
-            String path = pathIterator.next();
-            JsonNode pathItem = pathsNode.get(path);
-
-            // Parcourir toutes les méthodes HTTP (get, post, put, delete, etc.)
-            Iterator<String> methodIterator = pathItem.fieldNames();
-            while (methodIterator.hasNext()) {
-                String methodStr = methodIterator.next();
-
-                // Ignorer les champs non-méthodes (parameters, servers, etc.)
-                if (!isHttpMethod(methodStr)) {
-                    continue;
-                }
-
-                JsonNode operation = pathItem.get(methodStr);
-
-                // Créer l'endpoint
-                Endpoint endpoint = Endpoint.builder()
-                        .projectId(projectId)
-                        .method(parseHttpMethod(methodStr))
-                        .path(path)
-                        .description(extractText(operation, "summary", "description"))
-                        .discoveryType(Endpoint.DiscoveryType.SWAGGER)
-                        .tags(extractTags(operation))
-                        .parameters(extractParameters(operation))
-                        .requestBody(extractRequestBody(operation))
-                        .responseBody(extractResponses(operation))
-                        .statusCodes(extractStatusCodes(operation))
-                        .requiresAuth(checkIfRequiresAuth(operation))
-                        .build();
-
-                endpoints.add(endpoint);
-                log.debug("📍 Endpoint trouvé : {} {}", methodStr.toUpperCase(), path);
+    private SwaggerStreamParser.SpecFormat detectFormat(MediaType contentType, String swaggerUrl, InputStream body)
+            throws IOException {
+        if (contentType != null) {
+            String subtype = contentType.getSubtype().toLowerCase();
+            if (subtype.contains("yaml") || subtype.contains("yml")) {
+                return SwaggerStreamParser.SpecFormat.YAML;
+            }
+            if (subtype.equals("json") || subtype.endsWith("+json")) {
+                return SwaggerStreamParser.SpecFormat.JSON;
             }
         }
 
-        return endpoints;
-    }
-
-    /**
-     * Extraire les endpoints depuis Swagger 2.x
-     */
-    private List<Endpoint> extractEndpointsFromSwagger2(UUID projectId, JsonNode rootNode) {
-        // Swagger 2 a une structure similaire à OpenAPI 3
-        return extractEndpointsFromOpenApi3(projectId, rootNode);
-    }
-
-    /**
-     * Sauvegarder les endpoints et gérer les doublons
-     */
-    private ScanSwaggerResponse saveEndpoints(UUID projectId, List<Endpoint> endpoints) {
-        int newCount = 0;
-        int updatedCount = 0;
-        int skippedCount = 0;
-        List<EndpointDTO> savedEndpoints = new ArrayList<>();
-
-        for (Endpoint endpoint : endpoints) {
-            boolean exists = endpointRepository.existsByProjectIdAndMethodAndPath(
-                    projectId, endpoint.getMethod(), endpoint.getPath()
-            );
-
-            if (exists) {
-                skippedCount++;
-                log.debug("⏭️ Endpoint ignoré (déjà existant) : {} {}", endpoint.getMethod(), endpoint.getPath());
-            } else {
-                Endpoint saved = endpointRepository.save(endpoint);
-                newCount++;
-                savedEndpoints.add(convertToDTO(saved));
-                log.debug("✅ Endpoint créé : {} {}", saved.getMethod(), saved.getPath());
+        String path = URI.create(swaggerUrl).getPath();
+        if (path != null) {
+            String lowerPath = path.toLowerCase();
+            if (lowerPath.endsWith(".yaml") || lowerPath.endsWith(".yml")) {
+                return SwaggerStreamParser.SpecFormat.YAML;
+            }
+            if (lowerPath.endsWith(".json")) {
+                return SwaggerStreamParser.SpecFormat.JSON;
             }
         }
 
-        return new ScanSwaggerResponse(
-                true,
-                "Scan terminé avec succès",
-                endpoints.size(),
-                newCount,
-                updatedCount,
-                skippedCount,
-                savedEndpoints
-        );
+        return sniffFormat(body);
     }
 
     /**
-     * Utilitaires d'extraction
+     * Un document JSON commence par '{' (après BOM et espaces éventuels), sinon c'est du YAML
      */
-    private boolean isHttpMethod(String method) {
-        return method.equalsIgnoreCase("get") ||
-                method.equalsIgnoreCase("post") ||
-                method.equalsIgnoreCase("put") ||
-                method.equalsIgnoreCase("delete") ||
-                method.equalsIgnoreCase("patch") ||
-                method.equalsIgnoreCase("options") ||
-                method.equalsIgnoreCase("head");
-    }
-
-    private Endpoint.HttpMethod parseHttpMethod(String method) {
-        return Endpoint.HttpMethod.valueOf(method.toUpperCase());
-    }
-
-    private String extractText(JsonNode node, String... fields) {
-        for (String field : fields) {
-            if (node.has(field)) {
-                return node.get(field).asText();
-            }
-        }
-        return null;
-    }
-
-    private String extractTags(JsonNode operation) {
-        if (operation.has("tags") && operation.get("tags").isArray()) {
-            StringBuilder tags = new StringBuilder();
-            operation.get("tags").forEach(tag -> {
-                if (tags.length() > 0) tags.append(", ");
-                tags.append(tag.asText());
-            });
-            return tags.toString();
-        }
-        return null;
-    }
-
-    private String extractParameters(JsonNode operation) {
-        if (operation.has("parameters")) {
-            try {
-                return objectMapper.writeValueAsString(operation.get("parameters"));
-            } catch (Exception e) {
-                log.warn("Erreur lors de l'extraction des paramètres : {}", e.getMessage());
+    private SwaggerStreamParser.SpecFormat sniffFormat(InputStream body) throws IOException {
+        body.mark(FORMAT_SNIFF_LIMIT);
+        try {
+            for (int i = 0; i < FORMAT_SNIFF_LIMIT; i++) {
+                int b = body.read();
+                if (b == -1) {
+                    break;
+                }
+                if (Character.isWhitespace(b) || b == 0xEF || b == 0xBB || b == 0xBF) {
+                    continue;
+                }
+                return b == '{' ? SwaggerStreamParser.SpecFormat.JSON : SwaggerStreamParser.SpecFormat.YAML;
             }
+            return SwaggerStreamParser.SpecFormat.JSON;
+        } finally {
+            body.reset();
         }
-        return null;
     }
 
-    private String extractRequestBody(JsonNode operation) {
-        if (operation.has("requestBody")) {
-            try {
-                return objectMapper.writeValueAsString(operation.get("requestBody"));
-            } catch (Exception e) {
-                log.warn("Erreur lors de l'extraction du requestBody : {}", e.getMessage());
-            }
-        }
-        return null;
+    private void updateFingerprint(SpecFingerprint fingerprint, SpecCache.CachedSpec spec) {
+        fingerprint.setEtag(spec.etag());
+        fingerprint.setLastModified(spec.lastModified());
+        fingerprint.setDigest(spec.sha256());
+        fingerprint.setLastScannedAt(LocalDateTime.now());
     }
 
-    private String extractResponses(JsonNode operation) {
-        if (operation.has("responses")) {
-            try {
-                // Extraire seulement les réponses 2xx et 200
-                JsonNode responses = operation.get("responses");
-                JsonNode successResponse = responses.has("200") ? responses.get("200") :
-                        responses.has("201") ? responses.get("201") :
-                                null;
-                if (successResponse != null) {
-                    return objectMapper.writeValueAsString(successResponse);
-                }
-            } catch (Exception e) {
-                log.warn("Erreur lors de l'extraction des réponses : {}", e.getMessage());
-            }
-        }
-        return null;
+    /**
+     * Renseigner les versions résolues des fragments contenant des $ref
+     */
+    private void resolveRefs(Endpoint endpoint, SwaggerRefResolver refResolver) {
+        endpoint.setResolvedParameters(refResolver.resolveJson(endpoint.getParameters()));
+        endpoint.setResolvedRequestBody(refResolver.resolveJson(endpoint.getRequestBody()));
+        endpoint.setResolvedResponseBody(refResolver.resolveJson(endpoint.getResponseBody()));
     }
 
-    private String extractStatusCodes(JsonNode operation) {
-        if (operation.has("responses")) {
-            StringBuilder codes = new StringBuilder();
-            Iterator<String> codeIterator = operation.get("responses").fieldNames();
-            while (codeIterator.hasNext()) {
-                String code = codeIterator.next();
-                if (codes.length() > 0) codes.append(",");
-                codes.append(code);
-            }
-            return codes.toString();
+    /**
+     * Empreinte du contenu extrait d'une opération
+     */
+    private String computeContentHash(Endpoint endpoint) {
+        MessageDigest digest = sha256();
+        for (Object field : new Object[]{
+                endpoint.getDescription(),
+                endpoint.getTags(),
+                endpoint.getParameters(),
+                endpoint.getRequestBody(),
+                endpoint.getResponseBody(),
+                endpoint.getResolvedParameters(),
+                endpoint.getResolvedRequestBody(),
+                endpoint.getResolvedResponseBody(),
+                endpoint.getStatusCodes(),
+                endpoint.getRequiresAuth()
+        }) {
+            digest.update(String.valueOf(field).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
         }
-        return "200";
+        return HexFormat.of().formatHex(digest.digest());
     }
 
-    private Boolean checkIfRequiresAuth(JsonNode operation) {
-        // Vérifier si l'endpoint nécessite une authentification
-        if (operation.has("security") && operation.get("security").size() > 0) {
-            return true;
+    private MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
         }
-        return false;
     }
 
-    private EndpointDTO convertToDTO(Endpoint endpoint) {
-        return EndpointDTO.builder()
-                .id(endpoint.getId())
-                .projectId(endpoint.getProjectId())
-                .method(endpoint.getMethod())
-                .path(endpoint.getPath())
-                .description(endpoint.getDescription())
-                .discoveryType(endpoint.getDiscoveryType())
-                .tags(endpoint.getTags())
-                .parameters(endpoint.getParameters())
-                .requestBody(endpoint.getRequestBody())
-                .responseBody(endpoint.getResponseBody())
-                .statusCodes(endpoint.getStatusCodes())
-                .requiresAuth(endpoint.getRequiresAuth())
-                .createdAt(endpoint.getCreatedAt())
-                .updatedAt(endpoint.getUpdatedAt())
-                .build();
+    private ScanSwaggerResponse createUnchangedResponse(UUID projectId) {
+        int storedCount = (int) endpointRepository.countByProjectId(projectId);
+        return new ScanSwaggerResponse(true, "Spécification inchangée depuis le dernier scan",
+                storedCount, 0, 0, storedCount, new ArrayList<>());
     }
 
     private ScanSwaggerResponse createErrorResponse(String message) {
@@ -0,0 +1,304 @@
+package com.testai.endpointservice.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.testai.endpointservice.entity.Endpoint;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.yaml.snakeyaml.LoaderOptions;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Lecteur en streaming d'un document Swagger/OpenAPI (JSON ou YAML)
+ *
+ * Le document n'est jamais chargé entièrement en mémoire : on parcourt les tokens
+ * avec un JsonParser et seule chaque opération (get, post...) est matérialisée en
+ * JsonNode, le temps de construire l'Endpoint correspondant. Le document est lu en deux
+ * passes (il est dans le cache local) : readHeader() ne conserve que la version et les
+ * sections référençables par $ref (components, definitions...), qui peuvent suivre "paths",
+ * puis readOperations() émet les opérations une à une.
+ * JSON et YAML partagent le même code d'extraction : seul le JsonParser sous-jacent change.
+ */
+@Component
+@Slf4j
+public class SwaggerStreamParser {
+
+    /**
+     * Sections de premier niveau ciblées par les $ref internes (OpenAPI 3 et Swagger 2)
+     */
+    private static final Set<String> REFERENCEABLE_SECTIONS = Set.of(
+            "components", "definitions", "parameters", "responses"
+    );
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Sans la limite par défaut de SnakeYAML (3 Mi caractères) : la taille d'une spec est déjà
+     * bornée au téléchargement (scanner.http.max-body-bytes), comme pour le JSON
+     */
+    private final ObjectMapper yamlMapper = new ObjectMapper(YAMLFactory.builder()
+            .loaderOptions(unlimitedLoaderOptions())
+            .build());
+
+    /**
+     * Formats de spécification supportés
+     */
+    public enum SpecFormat {
+        JSON, YAML
+    }
+
+    /**
+     * Résultat du parsing d'un document
+     *
+     * @param version version OpenAPI/Swagger détectée ("unknown" si absente)
+     * @param refRoot sections référençables du document, pour la résolution des $ref
+     */
+    public record ParseResult(String version, ObjectNode refRoot) {
+    }
+
+    /**
+     * Première passe : version et sections référençables, sans matérialiser les opérations
+     *
+     * @return le résultat du parsing, ou null si le document est vide
+     */
+    public ParseResult readHeader(InputStream inputStream, SpecFormat format) throws IOException {
+        String version = "unknown";
+        ObjectNode refRoot = objectMapper.createObjectNode();
+
+        try (JsonParser parser = createParser(inputStream, format)) {
+            if (!startDocument(parser, format)) {
+                return null;
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+
+                if (field.equals("openapi") || field.equals("swagger")) {
+                    version = parser.getValueAsString();
+                } else if (REFERENCEABLE_SECTIONS.contains(field) && parser.currentToken() == JsonToken.START_OBJECT) {
+                    refRoot.set(field, parser.readValueAsTree());
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        return new ParseResult(version, refRoot);
+    }
+
+    /**
+     * Seconde passe : émettre un Endpoint par opération trouvée dans "paths"
+     */
+    public void readOperations(InputStream inputStream, SpecFormat format, UUID projectId, Consumer<Endpoint> sink)
+            throws IOException {
+        try (JsonParser parser = createParser(inputStream, format)) {
+            if (!startDocument(parser, format)) {
+                return;
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+
+                if (field.equals("paths")) {
+                    readPaths(parser, projectId, sink);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    private JsonParser createParser(InputStream inputStream, SpecFormat format) throws IOException {
+        ObjectMapper mapper = format == SpecFormat.YAML ? yamlMapper : objectMapper;
+        return mapper.getFactory().createParser(inputStream);
+    }
+
+    /**
+     * Se placer au début de l'objet racine
+     *
+     * @return false si le document est vide
+     */
+    private boolean startDocument(JsonParser parser, SpecFormat format) throws IOException {
+        JsonToken first = parser.nextToken();
+        if (first == null) {
+            return false;
+        }
+        if (first != JsonToken.START_OBJECT) {
+            throw new IOException("Le document Swagger doit être un objet " + format);
+        }
+        return true;
+    }
+
+    /**
+     * Parcourir l'objet "paths" chemin par chemin
+     */
+    private void readPaths(JsonParser parser, UUID projectId, Consumer<Endpoint> sink) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            log.warn("⚠️ Le champ paths n'est pas un objet, ignoré");
+            parser.skipChildren();
+            return;
+        }
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String path = parser.currentName();
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+
+            // Parcourir toutes les méthodes HTTP (get, post, put, delete, etc.)
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String methodStr = parser.currentName();
+                parser.nextToken();
+
+                // Ignorer les champs non-méthodes (parameters, servers, etc.)
+                if (!isHttpMethod(methodStr)) {
+                    parser.skipChildren();
+                    continue;
+                }
+
+                // Seule l'opération courante est matérialisée
+                JsonNode operation = parser.readValueAsTree();
+                sink.accept(toEndpoint(projectId, path, methodStr, operation));
+                log.debug("📍 Endpoint trouvé : {} {}", methodStr.toUpperCase(), path);
+            }
+        }
+    }
+
+    /**
+     * Construire l'Endpoint à partir d'une opération
+     */
+    private Endpoint toEndpoint(UUID projectId, String path, String methodStr, JsonNode operation) {
+        return Endpoint.builder()
+                .projectId(projectId)
+                .method(parseHttpMethod(methodStr))
+                .path(path)
+                .description(extractText(operation, "summary", "description"))
+                .discoveryType(Endpoint.DiscoveryType.SWAGGER)
+                .tags(extractTags(operation))
+                .parameters(extractParameters(operation))
+                .requestBody(extractRequestBody(operation))
+                .responseBody(extractResponses(operation))
+                .statusCodes(extractStatusCodes(operation))
+                .requiresAuth(checkIfRequiresAuth(operation))
+                .build();
+    }
+
+    /**
+     * Utilitaires d'extraction
+     */
+    private boolean isHttpMethod(String method) {
+        return method.equalsIgnoreCase("get") ||
+                method.equalsIgnoreCase("post") ||
+                method.equalsIgnoreCase("put") ||
+                method.equalsIgnoreCase("delete") ||
+                method.equalsIgnoreCase("patch") ||
+                method.equalsIgnoreCase("options") ||
+                method.equalsIgnoreCase("head");
+    }
+
+    private Endpoint.HttpMethod parseHttpMethod(String method) {
+        return Endpoint.HttpMethod.valueOf(method.toUpperCase());
+    }
+
+    private String extractText(JsonNode node, String... fields) {
+        for (String field : fields) {
+            if (node.has(field)) {
+                return node.get(field).asText();
+            }
+        }
+        return null;
+    }
+
+    private String extractTags(JsonNode operation) {
+        if (operation.has("tags") && operation.get("tags").isArray()) {
+            StringBuilder tags = new StringBuilder();
+            operation.get("tags").forEach(tag -> {
+                if (tags.length() > 0) tags.append(", ");
+                tags.append(tag.asText());
+            });
+            return tags.toString();
+        }
+        return null;
+    }
+
+    private String extractParameters(JsonNode operation) {
+        if (operation.has("parameters")) {
+            try {
+                return objectMapper.writeValueAsString(operation.get("parameters"));
+            } catch (Exception e) {
+                log.warn("Erreur lors de l'extraction des paramètres : {}", e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    private String extractRequestBody(JsonNode operation) {
+        if (operation.has("requestBody")) {
+            try {
+                return objectMapper.writeValueAsString(operation.get("requestBody"));
+            } catch (Exception e) {
+                log.warn("Erreur lors de l'extraction du requestBody : {}", e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    private String extractResponses(JsonNode operation) {
+        if (operation.has("responses")) {
+            try {
+                // Extraire seulement les réponses 2xx et 200
+                JsonNode responses = operation.get("responses");
+                JsonNode successResponse = responses.has("200") ? responses.get("200") :
+                        responses.has("201") ? responses.get("201") :
+                                null;
+                if (successResponse != null) {
+                    return objectMapper.writeValueAsString(successResponse);
+                }
+            } catch (Exception e) {
+                log.warn("Erreur lors de l'extraction des réponses : {}", e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    private String extractStatusCodes(JsonNode operation) {
+        if (operation.has("responses")) {
+            StringBuilder codes = new StringBuilder();
+            Iterator<String> codeIterator = operation.get("responses").fieldNames();
+            while (codeIterator.hasNext()) {
+                String code = codeIterator.next();
+                if (codes.length() > 0) codes.append(",");
+                codes.append(code);
+            }
+            return codes.toString();
+        }
+        return "200";
+    }
+
+    private Boolean checkIfRequiresAuth(JsonNode operation) {
+        // Vérifier si l'endpoint nécessite une authentification
+        if (operation.has("security") && operation.get("security").size() > 0) {
+            return true;
+        }
+        return false;
+    }
+
+    private static LoaderOptions unlimitedLoaderOptions() {
+        LoaderOptions options = new LoaderOptions();
+        options.setCodePointLimit(Integer.MAX_VALUE);
+        return options;
+    }
+}
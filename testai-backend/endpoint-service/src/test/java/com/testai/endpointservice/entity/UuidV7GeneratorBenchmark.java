@@ -0,0 +1,103 @@
+package com.testai.endpointservice.entity;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Insertions dans une table à clé primaire uuid : UUID v4 (aléatoire) / UUID v7 (UuidV7Generator)
+ *
+ * Pour chaque volume : temps d'insertion (INSERT multi-lignes par paquets de 1000) puis taille
+ * de l'index de clé primaire. Les clés v4 tombent partout dans l'index (pages divisées, à moitié
+ * pleines) ; les clés v7 sont ajoutées à droite.
+ *
+ * Nécessite un PostgreSQL ; les tables sont créées dans un schéma dédié, supprimé à la fin.
+ * Exclu de "mvn test" (nom sans suffixe Test) :
+ *
+ * BENCHMARK_DB_URL=jdbc:postgresql://localhost:5432/testai BENCHMARK_DB_USER=... BENCHMARK_DB_PASSWORD=... \
+ *   mvn -B test -Dtest=UuidV7GeneratorBenchmark
+ */
+@EnabledIfEnvironmentVariable(named = "BENCHMARK_DB_URL", matches = ".+")
+class UuidV7GeneratorBenchmark {
+
+    private static final String SCHEMA = "uuid_benchmark";
+    private static final int[] ROW_COUNTS = {100_000, 500_000, 2_000_000};
+    private static final int BATCH_SIZE = 1000;
+
+    private static SingleConnectionDataSource dataSource;
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void createSchema() {
+        dataSource = new SingleConnectionDataSource(System.getenv("BENCHMARK_DB_URL"),
+                System.getenv("BENCHMARK_DB_USER"), System.getenv("BENCHMARK_DB_PASSWORD"), true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        jdbcTemplate.execute("CREATE SCHEMA " + SCHEMA);
+        jdbcTemplate.execute("SET search_path TO " + SCHEMA);
+    }
+
+    @AfterAll
+    static void dropSchema() {
+        if (jdbcTemplate != null) {
+            jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+            dataSource.destroy();
+        }
+    }
+
+    @Test
+    void insertTimeAndPrimaryKeySizeByIdVersion() {
+        insert("warmup", 50_000, UUID::randomUUID);
+
+        System.out.printf("%-10s %12s %12s %14s %14s%n",
+                "lignes", "v4 (ms)", "v7 (ms)", "index v4 (Mo)", "index v7 (Mo)");
+        for (int rows : ROW_COUNTS) {
+            long v4 = insert("ids_v4", rows, UUID::randomUUID);
+            long v7 = insert("ids_v7", rows, UuidV7Generator::next);
+
+            System.out.printf("%-10d %12d %12d %14.1f %14.1f%n", rows, v4, v7,
+                    primaryKeySize("ids_v4") / 1048576.0, primaryKeySize("ids_v7") / 1048576.0);
+        }
+    }
+
+    /**
+     * Nouvelle table de "rows" lignes, identifiants fournis par "ids" ; renvoie la durée en ms
+     */
+    private long insert(String table, int rows, Supplier<UUID> ids) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + table);
+        jdbcTemplate.execute("CREATE TABLE " + table + " (id uuid PRIMARY KEY, project_id uuid NOT NULL, path text)");
+        UUID projectId = UUID.randomUUID();
+
+        long start = System.nanoTime();
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < rows; i++) {
+            batch.add(new Object[]{ids.get(), projectId, "/resources/" + i});
+            if (batch.size() == BATCH_SIZE) {
+                jdbcTemplate.batchUpdate("INSERT INTO " + table + " (id, project_id, path) VALUES (?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO " + table + " (id, project_id, path) VALUES (?, ?, ?)", batch);
+        }
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM " + table, Long.class)).isEqualTo(rows);
+        return elapsed;
+    }
+
+    private long primaryKeySize(String table) {
+        Long size = jdbcTemplate.queryForObject("SELECT pg_relation_size(?::regclass)", Long.class, table + "_pkey");
+        return size != null ? size : 0;
+    }
+}
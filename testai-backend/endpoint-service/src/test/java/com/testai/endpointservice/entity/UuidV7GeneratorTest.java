@@ -0,0 +1,71 @@
+package com.testai.endpointservice.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UuidV7GeneratorTest {
+
+    @Test
+    void versionVariantAndTimestampFollowRfc9562() {
+        long before = System.currentTimeMillis();
+        UUID id = UuidV7Generator.next();
+        long after = System.currentTimeMillis();
+
+        assertThat(id.version()).isEqualTo(7);
+        assertThat(id.variant()).isEqualTo(2);
+        // 48 bits de poids fort : millisecondes Unix (au plus en avance de quelques ms si le compteur a débordé)
+        long millis = id.getMostSignificantBits() >>> 16;
+        assertThat(millis).isBetween(before, after + 100);
+    }
+
+    @Test
+    void idsAreStrictlyIncreasingWithinAMillisecond() {
+        List<UUID> ids = new ArrayList<>();
+        // Plus que les 4096 valeurs du compteur : le débordement doit aussi conserver l'ordre
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(UuidV7Generator.next());
+        }
+
+        for (int i = 1; i < ids.size(); i++) {
+            assertThat(unsignedCompare(ids.get(i - 1), ids.get(i))).isNegative();
+        }
+    }
+
+    @Test
+    void concurrentCallersNeverGetTheSameTimestampAndCounter() throws InterruptedException {
+        ConcurrentLinkedQueue<UUID> ids = new ConcurrentLinkedQueue<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 5_000; i++) {
+                    ids.add(UuidV7Generator.next());
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Set<Long> mostSigBits = new HashSet<>();
+        ids.forEach(id -> mostSigBits.add(id.getMostSignificantBits()));
+        assertThat(mostSigBits).hasSize(20_000);
+    }
+
+    /**
+     * Ordre des octets (celui de PostgreSQL et de l'index), UUID.compareTo comparant des longs signés
+     */
+    private static int unsignedCompare(UUID a, UUID b) {
+        int high = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return high != 0 ? high : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+}
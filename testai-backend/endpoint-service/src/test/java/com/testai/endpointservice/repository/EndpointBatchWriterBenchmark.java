@@ -0,0 +1,177 @@
+package com.testai.endpointservice.repository;
+
+import com.testai.endpointservice.entity.Endpoint;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Temps d'écriture d'un scan selon la taille de la spec, avant / après EndpointBatchWriter
+ *
+ * - avant : une requête d'existence puis un INSERT par opération (ancienne boucle existsBy + save)
+ * - après : chargement des clés du projet puis insertions multi-lignes (EndpointBatchWriter)
+ *
+ * Nécessite un PostgreSQL (ON CONFLICT, RETURNING, jsonb) ; les tables sont créées dans
+ * un schéma dédié, supprimé à la fin. Exclu de "mvn test" (nom sans suffixe Test) :
+ *
+ * BENCHMARK_DB_URL=jdbc:postgresql://localhost:5432/testai BENCHMARK_DB_USER=... BENCHMARK_DB_PASSWORD=... \
+ *   mvn -B test -Dtest=EndpointBatchWriterBenchmark
+ */
+@EnabledIfEnvironmentVariable(named = "BENCHMARK_DB_URL", matches = ".+")
+class EndpointBatchWriterBenchmark {
+
+    private static final String SCHEMA = "scan_benchmark";
+    private static final int[] SPEC_SIZES = {100, 1_000, 5_000, 20_000};
+
+    private static SingleConnectionDataSource dataSource;
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void createSchema() {
+        dataSource = new SingleConnectionDataSource(System.getenv("BENCHMARK_DB_URL"),
+                System.getenv("BENCHMARK_DB_USER"), System.getenv("BENCHMARK_DB_PASSWORD"), true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        jdbcTemplate.execute("CREATE SCHEMA " + SCHEMA);
+        jdbcTemplate.execute("SET search_path TO " + SCHEMA);
+        jdbcTemplate.execute("""
+                CREATE TABLE endpoints (
+                    id uuid PRIMARY KEY,
+                    project_id uuid NOT NULL,
+                    method varchar(255) NOT NULL,
+                    path varchar(255) NOT NULL,
+                    description text,
+                    discovery_type varchar(255) NOT NULL,
+                    tags text,
+                    parameters jsonb,
+                    request_body_hash varchar(64),
+                    response_body_hash varchar(64),
+                    resolved_parameters jsonb,
+                    resolved_request_body_hash varchar(64),
+                    resolved_response_body_hash varchar(64),
+                    status_codes text,
+                    requires_auth boolean,
+                    content_hash varchar(64),
+                    created_at timestamp,
+                    updated_at timestamp,
+                    CONSTRAINT uk_endpoints_project_method_path UNIQUE (project_id, method, path)
+                )""");
+    }
+
+    @AfterAll
+    static void dropSchema() {
+        if (jdbcTemplate != null) {
+            jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+            dataSource.destroy();
+        }
+    }
+
+    @Test
+    void scanWriteTimeBySpecSize() {
+        EndpointBatchWriter writer = new EndpointBatchWriter(jdbcTemplate);
+        warmUp(writer);
+
+        System.out.printf("%-10s %14s %14s %14s %14s%n",
+                "opérations", "avant (ms)", "après (ms)", "re-scan avant", "re-scan après");
+        for (int size : SPEC_SIZES) {
+            UUID before = UUID.randomUUID();
+            long perRow = time(() -> writePerRow(before, operations(before, size)));
+            long perRowRescan = time(() -> writePerRow(before, operations(before, size)));
+
+            UUID after = UUID.randomUUID();
+            long batched = time(() -> writeBatched(writer, after, operations(after, size)));
+            long batchedRescan = time(() -> writeBatched(writer, after, operations(after, size)));
+
+            assertThat(count(before)).isEqualTo(size);
+            assertThat(count(after)).isEqualTo(size);
+            System.out.printf("%-10d %14d %14d %14d %14d%n", size, perRow, batched, perRowRescan, batchedRescan);
+        }
+    }
+
+    /**
+     * Ancienne boucle : un aller-retour d'existence puis un INSERT par opération
+     */
+    private void writePerRow(UUID projectId, List<Endpoint> endpoints) {
+        for (Endpoint endpoint : endpoints) {
+            Boolean exists = jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM endpoints WHERE project_id = ? AND method = ? AND path = ?)",
+                    Boolean.class, projectId, endpoint.getMethod().name(), endpoint.getPath());
+            if (Boolean.TRUE.equals(exists)) {
+                continue;
+            }
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            jdbcTemplate.update("INSERT INTO endpoints (id, project_id, method, path, description, discovery_type, " +
+                            "tags, parameters, status_codes, requires_auth, created_at, updated_at) " +
+                            "VALUES (?, ?, ?, ?, ?, ?, ?, ?::jsonb, ?, ?, ?, ?)",
+                    UUID.randomUUID(), projectId, endpoint.getMethod().name(), endpoint.getPath(),
+                    endpoint.getDescription(), endpoint.getDiscoveryType().name(), endpoint.getTags(),
+                    endpoint.getParameters(), endpoint.getStatusCodes(), endpoint.getRequiresAuth(), now, now);
+        }
+    }
+
+    /**
+     * Chemin actuel : clés existantes en une requête, nouvelles opérations insérées par paquets
+     */
+    private void writeBatched(EndpointBatchWriter writer, UUID projectId, List<Endpoint> endpoints) {
+        Set<String> existing = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT method || ' ' || path FROM endpoints WHERE project_id = ?", String.class, projectId));
+        List<Endpoint> toInsert = new ArrayList<>();
+        for (Endpoint endpoint : endpoints) {
+            if (!existing.contains(endpoint.getMethod().name() + " " + endpoint.getPath())) {
+                toInsert.add(endpoint);
+            }
+        }
+        writer.insertAll(toInsert);
+    }
+
+    private void warmUp(EndpointBatchWriter writer) {
+        UUID perRow = UUID.randomUUID();
+        writePerRow(perRow, operations(perRow, 200));
+        UUID batched = UUID.randomUUID();
+        writeBatched(writer, batched, operations(batched, 200));
+    }
+
+    private static List<Endpoint> operations(UUID projectId, int size) {
+        List<Endpoint> endpoints = new ArrayList<>(size);
+        Endpoint.HttpMethod[] methods = Endpoint.HttpMethod.values();
+        for (int i = 0; i < size; i++) {
+            endpoints.add(Endpoint.builder()
+                    .projectId(projectId)
+                    .method(methods[i % methods.length])
+                    .path("/resources/" + (i / methods.length) + "/{id}")
+                    .description("Opération " + i)
+                    .discoveryType(Endpoint.DiscoveryType.SWAGGER)
+                    .tags("benchmark")
+                    .parameters("[{\"name\": \"id\", \"in\": \"path\", \"required\": true}]")
+                    .statusCodes("200,404")
+                    .requiresAuth(i % 2 == 0)
+                    .build());
+        }
+        return endpoints;
+    }
+
+    private int count(UUID projectId) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM endpoints WHERE project_id = ?", Integer.class, projectId);
+        return count != null ? count : 0;
+    }
+
+    private static long time(Runnable action) {
+        long start = System.nanoTime();
+        action.run();
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
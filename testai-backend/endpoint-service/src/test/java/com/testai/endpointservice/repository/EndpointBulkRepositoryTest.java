@@ -0,0 +1,94 @@
+package com.testai.endpointservice.repository;
+
+import com.testai.endpointservice.dto.BulkEndpointRequest;
+import com.testai.endpointservice.entity.Endpoint;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EndpointBulkRepositoryTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    private final RecordingJdbcTemplate jdbcTemplate = new RecordingJdbcTemplate();
+    private final EndpointBulkRepository repository = new EndpointBulkRepository(jdbcTemplate);
+
+    @Test
+    void pathPrefixLikeWildcardsAndEscapeCharacterAreEscaped() {
+        repository.delete(filter(null, null, "/files/50%_off\\x"));
+
+        assertThat(jdbcTemplate.sql).contains("path LIKE ? ESCAPE '\\'");
+        assertThat(jdbcTemplate.args).containsExactly("/files/50\\%\\_off\\\\x%");
+    }
+
+    @Test
+    void criteriaAreCombinedAndIdsExpandedToPlaceholders() {
+        UUID projectId = UUID.randomUUID();
+        List<UUID> ids = List.of(UUID.randomUUID(), UUID.randomUUID());
+        BulkEndpointRequest.Filter filter = new BulkEndpointRequest.Filter(projectId, ids, Endpoint.HttpMethod.GET,
+                Endpoint.DiscoveryType.SWAGGER, null);
+
+        repository.delete(filter);
+
+        assertThat(jdbcTemplate.sql).contains(
+                "project_id = ? AND id IN (?, ?) AND method = ? AND discovery_type = ?");
+        assertThat(jdbcTemplate.args).containsExactly(projectId, ids.get(0), ids.get(1), "GET", "SWAGGER");
+    }
+
+    @Test
+    void emptyFilterIsRejected() {
+        BulkEndpointRequest.Filter filter = filter(null, List.of(), "");
+
+        assertThatThrownBy(() -> repository.delete(filter))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(jdbcTemplate.sql).isNull();
+    }
+
+    @Test
+    void updateClearsContentHashAndOrdersArguments() {
+        UUID projectId = UUID.randomUUID();
+
+        repository.setRequiresAuth(filter(projectId, null, null), true, NOW);
+
+        assertThat(jdbcTemplate.sql).contains("SET requires_auth = ?, content_hash = NULL, updated_at = ?");
+        assertThat(jdbcTemplate.sql).contains("WHERE project_id = ? AND requires_auth <> ?");
+        assertThat(jdbcTemplate.args).containsExactly(true, Timestamp.valueOf(NOW), projectId, true);
+    }
+
+    @Test
+    void addTagOnlyTouchesEndpointsWithoutTheTag() {
+        UUID projectId = UUID.randomUUID();
+
+        repository.addTag(filter(projectId, null, null), "beta", NOW);
+
+        assertThat(jdbcTemplate.sql).contains("position(', ' || ? || ', ' IN ', ' || tags || ', ') = 0");
+        assertThat(jdbcTemplate.args).containsExactly("beta", "beta", Timestamp.valueOf(NOW), projectId, "beta");
+    }
+
+    private static BulkEndpointRequest.Filter filter(UUID projectId, List<UUID> ids, String pathPrefix) {
+        return new BulkEndpointRequest.Filter(projectId, ids, null, null, pathPrefix);
+    }
+
+    /**
+     * Enregistre la requête au lieu de l'exécuter
+     */
+    private static class RecordingJdbcTemplate extends JdbcTemplate {
+        private String sql;
+        private List<Object> args;
+
+        @Override
+        public <T> List<T> query(String sql, RowMapper<T> rowMapper, Object... args) {
+            this.sql = sql;
+            this.args = List.of(args);
+            return List.of();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.testai.endpointservice.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EndpointRevisionRepositoryTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    private final RecordingJdbcTemplate jdbcTemplate = new RecordingJdbcTemplate();
+    private final EndpointRevisionRepository repository = new EndpointRevisionRepository(jdbcTemplate);
+
+    @Test
+    void replacementPatchIsBuiltInSqlFromTheCurrentColumnValue() {
+        UUID id = UUID.randomUUID();
+
+        int inserted = repository.insertReplacements(List.of(id), "requiresAuth", "requires_auth", NOW);
+
+        assertThat(inserted).isEqualTo(1);
+        assertThat(jdbcTemplate.statements).singleElement().satisfies(sql -> {
+            assertThat(sql).startsWith("INSERT INTO endpoint_revisions");
+            assertThat(sql).contains("max(r.revision) + 1");
+            assertThat(sql).contains("jsonb_build_object('op', 'replace', 'path', '/requiresAuth', " +
+                    "'value', coalesce(to_jsonb(e.requires_auth), 'null'::jsonb))");
+            assertThat(sql).contains("GROUP BY e.id, e.project_id, e.requires_auth");
+        });
+        assertThat(jdbcTemplate.args).singleElement()
+                .isEqualTo(List.of(Timestamp.valueOf(NOW), id));
+    }
+
+    @Test
+    void largeSelectionsAreWrittenInChunks() {
+        List<UUID> ids = IntStream.range(0, 2500).mapToObj(i -> UUID.randomUUID()).toList();
+
+        int inserted = repository.insertReplacements(ids, "tags", "tags", NOW);
+
+        assertThat(inserted).isEqualTo(3);
+        assertThat(jdbcTemplate.args).extracting(List::size).containsExactly(1001, 1001, 501);
+    }
+
+    @Test
+    void emptySelectionWritesNothing() {
+        assertThat(repository.insertReplacements(List.of(), "tags", "tags", NOW)).isZero();
+        assertThat(jdbcTemplate.statements).isEmpty();
+    }
+
+    /**
+     * Enregistre les instructions au lieu de les exécuter (une ligne écrite par instruction)
+     */
+    private static class RecordingJdbcTemplate extends JdbcTemplate {
+        private final List<String> statements = new ArrayList<>();
+        private final List<List<Object>> args = new ArrayList<>();
+
+        @Override
+        public int update(String sql, Object... args) {
+            statements.add(sql);
+            this.args.add(List.of(args));
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.testai.endpointservice.service;
+
+import com.testai.endpointservice.dto.CursorPage;
+import com.testai.endpointservice.dto.EndpointDTO;
+import com.testai.endpointservice.dto.EndpointView;
+import com.testai.endpointservice.entity.Endpoint;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EndpointReadCacheTest {
+
+    private static final UUID PROJECT = UUID.randomUUID();
+    private static final UUID OTHER_PROJECT = UUID.randomUUID();
+
+    private final EndpointReadCache cache = new EndpointReadCache(new SimpleMeterRegistry(), true, 100, 100, 300);
+
+    @Test
+    void endpointIsLoadedOnceUntilItChanges() {
+        Endpoint endpoint = endpoint(PROJECT);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getById(endpoint.getId(), counting(loads, dto(endpoint)));
+        cache.getById(endpoint.getId(), counting(loads, dto(endpoint)));
+        assertThat(loads).hasValue(1);
+
+        cache.onEndpointChange(EndpointChangeEvent.saved(endpoint));
+        cache.getById(endpoint.getId(), counting(loads, dto(endpoint)));
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void projectChangeInvalidatesItsEndpointsAndPagesOnly() {
+        Endpoint mine = endpoint(PROJECT);
+        Endpoint other = endpoint(OTHER_PROJECT);
+        AtomicInteger loads = new AtomicInteger();
+        cache.getById(mine.getId(), counting(loads, dto(mine)));
+        cache.getById(other.getId(), counting(loads, dto(other)));
+        page(PROJECT, loads);
+        page(OTHER_PROJECT, loads);
+
+        cache.onEndpointChange(EndpointChangeEvent.projectChanged(PROJECT));
+        cache.getById(mine.getId(), counting(loads, dto(mine)));
+        cache.getById(other.getId(), counting(loads, dto(other)));
+        page(PROJECT, loads);
+        page(OTHER_PROJECT, loads);
+
+        // Rechargés : l'endpoint et la page du projet modifié
+        assertThat(loads).hasValue(6);
+    }
+
+    @Test
+    void entryReadBeforeAConcurrentCommitIsNotServed() {
+        Endpoint endpoint = endpoint(PROJECT);
+        AtomicInteger loads = new AtomicInteger();
+
+        // Le commit (et son invalidation) survient pendant la lecture en base
+        cache.getById(endpoint.getId(), () -> {
+            loads.incrementAndGet();
+            cache.onEndpointChange(EndpointChangeEvent.saved(endpoint));
+            return dto(endpoint);
+        });
+        cache.getById(endpoint.getId(), counting(loads, dto(endpoint)));
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void pageIsReloadedWhenProjectVersionChangesWithoutLocalEvent() {
+        AtomicInteger loads = new AtomicInteger();
+
+        page(PROJECT, 1, loads);
+        page(PROJECT, 1, loads);
+        assertThat(loads).hasValue(1);
+
+        // Écriture commitée par une autre instance : aucun événement ici, seule la version change
+        page(PROJECT, 2, loads);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void disabledCacheAlwaysReads() {
+        EndpointReadCache disabled = new EndpointReadCache(new SimpleMeterRegistry(), false, 100, 100, 300);
+        Endpoint endpoint = endpoint(PROJECT);
+        AtomicInteger loads = new AtomicInteger();
+
+        disabled.getById(endpoint.getId(), counting(loads, dto(endpoint)));
+        disabled.getById(endpoint.getId(), counting(loads, dto(endpoint)));
+
+        assertThat(loads).hasValue(2);
+    }
+
+    private void page(UUID projectId, AtomicInteger loads) {
+        page(projectId, 1, loads);
+    }
+
+    private void page(UUID projectId, long version, AtomicInteger loads) {
+        cache.getProjectPage(projectId, version, null, 50, EndpointView.FULL,
+                counting(loads, new CursorPage<>(List.of(), null, false)));
+    }
+
+    private static <T> Supplier<T> counting(AtomicInteger loads, T value) {
+        return () -> {
+            loads.incrementAndGet();
+            return value;
+        };
+    }
+
+    private static Endpoint endpoint(UUID projectId) {
+        return Endpoint.builder()
+                .id(UUID.randomUUID())
+                .projectId(projectId)
+                .method(Endpoint.HttpMethod.GET)
+                .path("/items/{id}")
+                .build();
+    }
+
+    private static EndpointDTO dto(Endpoint endpoint) {
+        return EndpointDTO.builder()
+                .id(endpoint.getId())
+                .projectId(endpoint.getProjectId())
+                .method(endpoint.getMethod())
+                .path(endpoint.getPath())
+                .build();
+    }
+}
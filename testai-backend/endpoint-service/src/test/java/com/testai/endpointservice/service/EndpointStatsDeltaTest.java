@@ -0,0 +1,94 @@
+package com.testai.endpointservice.service;
+
+import com.testai.endpointservice.entity.Endpoint;
+import com.testai.endpointservice.entity.EndpointStat;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class EndpointStatsDeltaTest {
+
+    private static final UUID PROJECT = UUID.randomUUID();
+
+    @Test
+    void addedEndpointCountsOncePerDimensionAndRemovedOneNegatively() {
+        // Même type de découverte des deux côtés : la variation nulle n'est pas écrite
+        EndpointStatsDelta delta = new EndpointStatsDelta()
+                .add(endpoint(Endpoint.HttpMethod.GET, "users, admin", true))
+                .remove(endpoint(Endpoint.HttpMethod.POST, null, false));
+
+        assertThat(delta.toList())
+                .extracting(EndpointStat::getDimension, EndpointStat::getValue, EndpointStat::getCount)
+                .containsExactlyInAnyOrder(
+                        tuple(EndpointStat.Dimension.METHOD, "GET", 1L),
+                        tuple(EndpointStat.Dimension.METHOD, "POST", -1L),
+                        tuple(EndpointStat.Dimension.REQUIRES_AUTH, "true", 1L),
+                        tuple(EndpointStat.Dimension.REQUIRES_AUTH, "false", -1L),
+                        tuple(EndpointStat.Dimension.TAG, "users", 1L),
+                        tuple(EndpointStat.Dimension.TAG, "admin", 1L));
+    }
+
+    @Test
+    void updateToSameStateCancelsOut() {
+        Endpoint endpoint = endpoint(Endpoint.HttpMethod.GET, "users", true);
+
+        EndpointStatsDelta delta = new EndpointStatsDelta()
+                .remove(PROJECT, Endpoint.HttpMethod.GET, Endpoint.DiscoveryType.SWAGGER, "users", true)
+                .add(endpoint);
+
+        assertThat(delta.isEmpty()).isTrue();
+        assertThat(delta.toList()).isEmpty();
+    }
+
+    @Test
+    void updateKeepsOnlyChangedDimensions() {
+        EndpointStatsDelta delta = new EndpointStatsDelta()
+                .remove(PROJECT, Endpoint.HttpMethod.GET, Endpoint.DiscoveryType.SWAGGER, "users, beta", false)
+                .add(endpoint(Endpoint.HttpMethod.GET, "users", null));
+
+        assertThat(delta.toList())
+                .extracting(EndpointStat::getDimension, EndpointStat::getValue, EndpointStat::getCount)
+                .containsExactly(
+                        tuple(EndpointStat.Dimension.TAG, "beta", -1L));
+    }
+
+    @Test
+    void duplicateAndBlankTagsAreCountedOnce() {
+        assertThat(EndpointStatsDelta.tags(" a, b,, a ,")).containsExactly("a", "b");
+        assertThat(EndpointStatsDelta.tags(null)).isEmpty();
+    }
+
+    @Test
+    void variationsAreSortedByProjectDimensionAndValue() {
+        UUID first = new UUID(0, 1);
+        UUID second = new UUID(0, 2);
+        EndpointStatsDelta delta = new EndpointStatsDelta()
+                .add(endpoint(second, Endpoint.HttpMethod.POST, "b", false))
+                .add(endpoint(first, Endpoint.HttpMethod.GET, "z, a", false));
+
+        assertThat(delta.toList()).extracting(EndpointStat::getProjectId).isSortedAccordingTo(UUID::compareTo);
+        assertThat(delta.toList()).filteredOn(stat -> stat.getProjectId().equals(first))
+                .filteredOn(stat -> stat.getDimension() == EndpointStat.Dimension.TAG)
+                .extracting(EndpointStat::getValue)
+                .containsExactly("a", "z");
+    }
+
+    private static Endpoint endpoint(Endpoint.HttpMethod method, String tags, Boolean requiresAuth) {
+        return endpoint(PROJECT, method, tags, requiresAuth);
+    }
+
+    private static Endpoint endpoint(UUID projectId, Endpoint.HttpMethod method, String tags, Boolean requiresAuth) {
+        return Endpoint.builder()
+                .id(UUID.randomUUID())
+                .projectId(projectId)
+                .method(method)
+                .path("/items")
+                .discoveryType(Endpoint.DiscoveryType.SWAGGER)
+                .tags(tags)
+                .requiresAuth(requiresAuth)
+                .build();
+    }
+}
@@ -0,0 +1,106 @@
+package com.testai.endpointservice.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HostFairScanExecutorTest {
+
+    private static final long TIMEOUT_SECONDS = 5;
+
+    private HostFairScanExecutor executor;
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void submissionIsRejectedOnceQueueIsFull() throws InterruptedException {
+        executor = new HostFairScanExecutor(1, 1, 2);
+        CountDownLatch gate = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+
+        executor.submit("a", () -> block(started, gate));
+        assertThat(started.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+        executor.submit("a", () -> { });
+        executor.submit("b", () -> { });
+
+        assertThat(executor.getRemainingCapacity()).isZero();
+        assertThatThrownBy(() -> executor.submit("c", () -> { }))
+                .isInstanceOf(RejectedExecutionException.class);
+        assertThat(executor.getQueuedCount()).isEqualTo(2);
+        gate.countDown();
+    }
+
+    @Test
+    void busyHostDoesNotHoldBackOtherHosts() throws InterruptedException {
+        executor = new HostFairScanExecutor(4, 2, 10);
+        CountDownLatch gate = new CountDownLatch(1);
+        CountDownLatch slowStarted = new CountDownLatch(2);
+        CountDownLatch otherHostRan = new CountDownLatch(1);
+
+        for (int i = 0; i < 4; i++) {
+            executor.submit("slow.example.com", () -> block(slowStarted, gate));
+        }
+        assertThat(slowStarted.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+        executor.submit("fast.example.com", otherHostRan::countDown);
+
+        assertThat(otherHostRan.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+        // Limite par hôte : deux scans lents en cours, deux toujours en attente
+        assertThat(executor.getQueuedCount()).isEqualTo(2);
+        gate.countDown();
+    }
+
+    @Test
+    void waitingHostsAreServedInTurn() throws InterruptedException {
+        executor = new HostFairScanExecutor(1, 1, 10);
+        CountDownLatch gate = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(5);
+        List<String> order = new CopyOnWriteArrayList<>();
+
+        executor.submit("gate", () -> block(started, gate));
+        assertThat(started.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+        for (String task : List.of("a1", "a2", "a3", "b1", "b2")) {
+            executor.submit(task.substring(0, 1), () -> {
+                order.add(task);
+                done.countDown();
+            });
+        }
+        gate.countDown();
+
+        assertThat(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+        assertThat(order).containsExactly("a1", "b1", "a2", "b2", "a3");
+    }
+
+    @Test
+    void failingScanReleasesItsSlot() throws InterruptedException {
+        executor = new HostFairScanExecutor(1, 1, 10);
+        CountDownLatch next = new CountDownLatch(1);
+
+        executor.submit("a", () -> {
+            throw new IllegalStateException("scan en échec");
+        });
+        executor.submit("a", next::countDown);
+
+        assertThat(next.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private static void block(CountDownLatch started, CountDownLatch gate) {
+        started.countDown();
+        try {
+            gate.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.testai.endpointservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JsonPatchTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void equalDocumentsGiveAnEmptyPatch() {
+        assertThat(roundTrip("{\"a\": [1, {\"b\": null}]}", "{\"a\": [1, {\"b\": null}]}")).isEmpty();
+    }
+
+    @Test
+    void elementInsertedBetweenCommonPrefixAndSuffixIsASingleAdd() {
+        ArrayNode patch = roundTrip("{\"p\": [\"a\", \"b\", \"d\", \"e\"]}", "{\"p\": [\"a\", \"b\", \"c\", \"d\", \"e\"]}");
+
+        assertThat(patch).hasSize(1);
+        assertThat(patch.get(0).toString()).isEqualTo("{\"op\":\"add\",\"path\":\"/p/2\",\"value\":\"c\"}");
+    }
+
+    @Test
+    void elementsRemovedBetweenCommonPrefixAndSuffix() {
+        ArrayNode patch = roundTrip("[1, 2, 3, 4, 5]", "[1, 5]");
+
+        assertThat(patch).extracting(operation -> operation.path("op").asText() + " " + operation.path("path").asText())
+                .containsExactly("remove /1", "remove /1", "remove /1");
+    }
+
+    @Test
+    void arraysChangedInTheMiddleAndAtBothEnds() {
+        roundTrip("[1, 2, 3]", "[0, 1, 2, 3, 4]");
+        roundTrip("[0, 1, 2, 3, 4]", "[1, 2, 3]");
+        roundTrip("[1, {\"x\": 1}, 3]", "[1, {\"x\": 2}, {\"y\": 3}, 3]");
+        roundTrip("[1, 1, 1]", "[1, 1]");
+        roundTrip("[]", "[1, 2]");
+        roundTrip("[1, 2]", "[]");
+    }
+
+    @Test
+    void keysWithTildeAndSlashAreEscaped() {
+        ArrayNode patch = roundTrip(
+                "{\"paths\": {\"/users/{id}\": {\"get\": 1}, \"a~b\": 1, \"~1\": 1}}",
+                "{\"paths\": {\"/users/{id}\": {\"get\": 2}, \"a~b\": 2, \"~01\": 1}}");
+
+        assertThat(patch).extracting(operation -> operation.path("path").asText())
+                .contains("/paths/~1users~1{id}/get", "/paths/a~0b", "/paths/~01", "/paths/~001");
+    }
+
+    @Test
+    void rootOfDifferentTypeIsReplaced() {
+        ArrayNode patch = roundTrip("{\"a\": 1}", "[1]");
+
+        assertThat(patch.get(0).toString()).isEqualTo("{\"op\":\"replace\",\"path\":\"\",\"value\":[1]}");
+        roundTrip("\"text\"", "null");
+    }
+
+    @Test
+    void valuesChangingTypeAreReplacedAndMissingFieldsAdded() {
+        roundTrip("{\"a\": {\"b\": 1}, \"c\": [1]}", "{\"a\": [1], \"c\": {\"d\": 1}, \"e\": null}");
+    }
+
+    @Test
+    void applyDoesNotModifyTheSourceDocument() {
+        JsonNode source = read("{\"a\": [1]}");
+
+        JsonPatch.apply(source, JsonPatch.diff(source, read("{\"a\": [1, 2]}")));
+
+        assertThat(source).isEqualTo(read("{\"a\": [1]}"));
+    }
+
+    @Test
+    void unsupportedOperationIsRejected() {
+        JsonNode patch = read("[{\"op\": \"move\", \"from\": \"/a\", \"path\": \"/b\"}]");
+
+        assertThatThrownBy(() -> JsonPatch.apply(read("{\"a\": 1}"), patch))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Le patch calculé, appliqué à la source, doit redonner exactement la cible
+     */
+    private ArrayNode roundTrip(String source, String target) {
+        JsonNode sourceNode = read(source);
+        JsonNode targetNode = read(target);
+
+        ArrayNode patch = JsonPatch.diff(sourceNode, targetNode);
+
+        assertThat(JsonPatch.apply(sourceNode, patch)).isEqualTo(targetNode);
+        return patch;
+    }
+
+    private JsonNode read(String json) {
+        try {
+            return mapper.readTree(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.testai.endpointservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.testai.endpointservice.entity.Endpoint;
+import com.testai.endpointservice.repository.SchemaBlobRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Traitement d'un lot d'opérations (résolution des $ref, empreinte, normalisation des corps) :
+ * séquentiel / fork-join, selon la taille du lot, pour choisir scanner.parallel.threshold
+ *
+ * Même travail par opération que SwaggerScannerService.writeBatch(), sur des opérations
+ * générées dont les corps référencent des composants imbriqués ; résolveur préchauffé dans
+ * les deux cas (comme en parallèle). Chaque mesure est la médiane de plusieurs lots après
+ * échauffement. Le point de croisement dépend du nombre de cœurs : à relancer sur la
+ * machine cible. Sans base de données ; exclu de "mvn test" (nom sans suffixe Test) :
+ *
+ * mvn -B test -Dtest=ParallelScanProcessorBenchmark
+ */
+class ParallelScanProcessorBenchmark {
+
+    private static final int[] BATCH_SIZES = {50, 100, 250, 500, 1_000, 2_000};
+    private static final int COMPONENTS = 200;
+    private static final int ITERATIONS = 5;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SchemaBlobStore schemaBlobStore = new SchemaBlobStore(mock(SchemaBlobRepository.class),
+            new SimpleMeterRegistry(), 1024, 24);
+    private final ParallelScanProcessor sequential = new ParallelScanProcessor(false, Integer.MAX_VALUE, 0);
+    private final ParallelScanProcessor parallel = new ParallelScanProcessor(true, 0, 0);
+
+    @AfterEach
+    void shutdown() {
+        sequential.shutdown();
+        parallel.shutdown();
+    }
+
+    @Test
+    void batchProcessingTimeBySize() {
+        SwaggerRefResolver resolver = new SwaggerRefResolver(components(), 10, objectMapper);
+        resolver.warmUp();
+        Consumer<Endpoint> action = endpoint -> process(endpoint, resolver);
+        for (int i = 0; i < 10; i++) {
+            sequential.forEach(operations(200), action);
+            parallel.forEach(operations(200), action);
+        }
+
+        System.out.printf("%d cœurs%n", Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-10s %16s %16s %10s%n", "lot", "séquentiel (ms)", "fork/join (ms)", "gain");
+        Integer crossover = null;
+        for (int size : BATCH_SIZES) {
+            double sequentialMs = median(sequential, size, action);
+            double parallelMs = median(parallel, size, action);
+            if (crossover == null && parallelMs < sequentialMs) {
+                crossover = size;
+            }
+            System.out.printf("%-10d %16.2f %16.2f %9.2fx%n", size, sequentialMs, parallelMs,
+                    sequentialMs / parallelMs);
+        }
+        System.out.println("Premier lot plus rapide en fork/join : " + (crossover != null ? crossover : "aucun"));
+    }
+
+    private double median(ParallelScanProcessor processor, int size, Consumer<Endpoint> action) {
+        double[] timings = new double[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            List<Endpoint> batch = operations(size);
+            long start = System.nanoTime();
+            processor.forEach(batch, action);
+            timings[i] = (System.nanoTime() - start) / 1_000_000.0;
+        }
+        Arrays.sort(timings);
+        return timings[ITERATIONS / 2];
+    }
+
+    /**
+     * Travail de writeBatch() pour une opération
+     */
+    private void process(Endpoint endpoint, SwaggerRefResolver resolver) {
+        endpoint.setResolvedParameters(resolver.resolveJson(endpoint.getParameters()));
+        endpoint.setResolvedRequestBody(resolver.resolveJson(endpoint.getRequestBody()));
+        endpoint.setResolvedResponseBody(resolver.resolveJson(endpoint.getResponseBody()));
+        endpoint.setContentHash(schemaBlobStore.sha256(String.join("\0", String.valueOf(endpoint.getDescription()),
+                String.valueOf(endpoint.getRequestBody()), String.valueOf(endpoint.getResponseBody()),
+                String.valueOf(endpoint.getResolvedRequestBody()), String.valueOf(endpoint.getResolvedResponseBody()))));
+        schemaBlobStore.prepare(endpoint);
+    }
+
+    private static List<Endpoint> operations(int size) {
+        List<Endpoint> endpoints = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String ref = "{\"$ref\": \"#/components/schemas/Schema" + (i % COMPONENTS) + "\"}";
+            endpoints.add(Endpoint.builder()
+                    .id(UUID.randomUUID())
+                    .method(Endpoint.HttpMethod.POST)
+                    .path("/resources/" + i)
+                    .description("Opération " + i)
+                    .discoveryType(Endpoint.DiscoveryType.SWAGGER)
+                    .parameters("[{\"name\": \"id\", \"in\": \"path\", \"schema\": {\"type\": \"string\"}}]")
+                    .requestBody("{\"content\": {\"application/json\": {\"schema\": " + ref + "}}}")
+                    .responseBody("{\"200\": {\"content\": {\"application/json\": {\"schema\": " + ref + "}}}}")
+                    .build());
+        }
+        return endpoints;
+    }
+
+    /**
+     * Composants dont chacun référence le suivant (chaîne développée jusqu'à la profondeur maximale)
+     */
+    private static ObjectNode components() {
+        ObjectNode root = JsonNodeFactory.instance.objectNode();
+        ObjectNode schemas = root.putObject("components").putObject("schemas");
+        for (int i = 0; i < COMPONENTS; i++) {
+            ObjectNode properties = schemas.putObject("Schema" + i).put("type", "object").putObject("properties");
+            properties.putObject("id").put("type", "string");
+            properties.putObject("name").put("type", "string").put("maxLength", 255);
+            properties.putObject("next").put("$ref", "#/components/schemas/Schema" + (i + 1) % COMPONENTS);
+            properties.putObject("tags").put("type", "array").putObject("items").put("type", "string");
+        }
+        return root;
+    }
+}
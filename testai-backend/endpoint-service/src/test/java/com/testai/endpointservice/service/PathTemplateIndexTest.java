@@ -0,0 +1,178 @@
+package com.testai.endpointservice.service;
+
+import com.testai.endpointservice.dto.PathConflict;
+import com.testai.endpointservice.dto.PathMatch;
+import com.testai.endpointservice.entity.Endpoint;
+import com.testai.endpointservice.repository.EndpointRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.testai.endpointservice.entity.Endpoint.HttpMethod.GET;
+import static com.testai.endpointservice.entity.Endpoint.HttpMethod.POST;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PathTemplateIndexTest {
+
+    private static final UUID PROJECT = UUID.randomUUID();
+
+    private PathTemplateIndex index;
+
+    @BeforeEach
+    void loadEmptyProject() {
+        // Le repository simulé ne renvoie aucun endpoint : l'arbre est alimenté par les événements
+        index = new PathTemplateIndex(mock(EndpointRepository.class));
+        index.match(PROJECT, null, "/");
+    }
+
+    @Test
+    void literalSegmentWinsOverParameter() {
+        add(GET, "/users/{id}");
+        add(GET, "/users/me");
+
+        PathMatch me = index.match(PROJECT, GET, "/users/me");
+        PathMatch other = index.match(PROJECT, GET, "/users/42");
+
+        assertThat(me.getMatch().getPath()).isEqualTo("/users/me");
+        assertThat(me.getAlternatives()).extracting(PathMatch.Template::getPath).containsExactly("/users/{id}");
+        assertThat(me.isAmbiguous()).isFalse();
+        assertThat(other.getMatch().getPath()).isEqualTo("/users/{id}");
+        assertThat(other.getMatch().getPathParameters()).isEqualTo(Map.of("id", "42"));
+    }
+
+    @Test
+    void mixedSegmentWinsOverParameter() {
+        add(GET, "/files/{file}");
+        add(GET, "/files/{name}.json");
+
+        PathMatch json = index.match(PROJECT, GET, "/files/report.json");
+        PathMatch plain = index.match(PROJECT, GET, "/files/report");
+
+        assertThat(json.getMatch().getPath()).isEqualTo("/files/{name}.json");
+        assertThat(json.getMatch().getPathParameters()).isEqualTo(Map.of("name", "report"));
+        assertThat(plain.getMatch().getPath()).isEqualTo("/files/{file}");
+    }
+
+    @Test
+    void earlierSegmentDecidesPrecedence() {
+        add(GET, "/{tenant}/orders/{id}");
+        add(GET, "/admin/{section}/{id}");
+
+        PathMatch match = index.match(PROJECT, GET, "/admin/orders/7");
+
+        assertThat(match.getMatch().getPath()).isEqualTo("/admin/{section}/{id}");
+        assertThat(match.getAlternatives()).extracting(PathMatch.Template::getPath)
+                .containsExactly("/{tenant}/orders/{id}");
+    }
+
+    @Test
+    void sameShapeAndMethodIsAmbiguousAndReportedAsConflict() {
+        add(GET, "/items/{id}");
+        add(GET, "/items/{key}");
+        add(POST, "/items/{id}");
+
+        PathMatch match = index.match(PROJECT, GET, "/items/1");
+        List<PathConflict> conflicts = index.conflicts(PROJECT);
+
+        assertThat(match.isAmbiguous()).isTrue();
+        assertThat(conflicts).singleElement().satisfies(conflict -> {
+            assertThat(conflict.getMethod()).isEqualTo(GET);
+            assertThat(conflict.getPaths()).containsExactly("/items/{id}", "/items/{key}");
+        });
+    }
+
+    @Test
+    void methodFiltersCandidatesAndNullMatchesAnyMethod() {
+        add(GET, "/orders");
+        add(POST, "/orders");
+
+        assertThat(index.match(PROJECT, POST, "/orders").getMatch().getMethod()).isEqualTo(POST);
+        assertThat(index.match(PROJECT, POST, "/orders").getAlternatives()).isEmpty();
+        assertThat(index.match(PROJECT, null, "/orders").getAlternatives()).hasSize(1);
+        assertThat(index.match(PROJECT, Endpoint.HttpMethod.DELETE, "/orders").isMatched()).isFalse();
+    }
+
+    @Test
+    void candidatesAreCappedAtSixteen() {
+        for (int i = 0; i < 20; i++) {
+            add(GET, "/things/{id" + i + "}");
+        }
+
+        PathMatch match = index.match(PROJECT, GET, "/things/1");
+
+        assertThat(match.isMatched()).isTrue();
+        assertThat(match.getAlternatives()).hasSize(15);
+    }
+
+    @Test
+    void schemeHostQueryAndFragmentAreIgnoredAndValuesDecoded() {
+        add(GET, "/users/{id}/orders");
+
+        PathMatch match = index.match(PROJECT, GET, "https://api.example.com//users/a%20b+c/orders/?page=2#top");
+
+        assertThat(match.getMatch().getPathParameters()).isEqualTo(Map.of("id", "a b+c"));
+    }
+
+    @Test
+    void deletedAndReloadedTemplatesNoLongerMatch() {
+        Endpoint users = add(GET, "/users/{id}");
+        add(GET, "/groups/{id}");
+
+        index.onEndpointChange(EndpointChangeEvent.deleted(users));
+        assertThat(index.match(PROJECT, GET, "/users/1").isMatched()).isFalse();
+        assertThat(index.match(PROJECT, GET, "/groups/1").isMatched()).isTrue();
+
+        // Modification en masse : l'arbre est reconstruit depuis le repository (vide ici)
+        index.onEndpointChange(EndpointChangeEvent.projectChanged(PROJECT));
+        assertThat(index.match(PROJECT, GET, "/groups/1").isMatched()).isFalse();
+    }
+
+    @Test
+    void writesToAnotherProjectDuringLoadKeepTheTree() {
+        EndpointRepository repository = mock(EndpointRepository.class);
+        PathTemplateIndex concurrent = new PathTemplateIndex(repository);
+        UUID other = UUID.randomUUID();
+        when(repository.findKeysByProjectId(PROJECT)).thenAnswer(invocation -> {
+            concurrent.onEndpointChange(EndpointChangeEvent.projectChanged(other));
+            return List.of();
+        });
+
+        concurrent.match(PROJECT, GET, "/users/1");
+        concurrent.match(PROJECT, GET, "/users/1");
+
+        verify(repository, times(1)).findKeysByProjectId(PROJECT);
+    }
+
+    @Test
+    void writesToTheSameProjectDuringLoadDiscardTheTree() {
+        EndpointRepository repository = mock(EndpointRepository.class);
+        PathTemplateIndex concurrent = new PathTemplateIndex(repository);
+        when(repository.findKeysByProjectId(PROJECT)).thenAnswer(invocation -> {
+            concurrent.onEndpointChange(EndpointChangeEvent.projectChanged(PROJECT));
+            return List.of();
+        });
+
+        concurrent.match(PROJECT, GET, "/users/1");
+        concurrent.match(PROJECT, GET, "/users/1");
+
+        verify(repository, times(2)).findKeysByProjectId(PROJECT);
+    }
+
+    private Endpoint add(Endpoint.HttpMethod method, String path) {
+        Endpoint endpoint = Endpoint.builder()
+                .id(UUID.randomUUID())
+                .projectId(PROJECT)
+                .method(method)
+                .path(path)
+                .build();
+        index.onEndpointChange(EndpointChangeEvent.saved(endpoint));
+        return endpoint;
+    }
+}
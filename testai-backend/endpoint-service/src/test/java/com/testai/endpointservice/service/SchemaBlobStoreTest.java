@@ -0,0 +1,51 @@
+package com.testai.endpointservice.service;
+
+import com.testai.endpointservice.entity.Endpoint;
+import com.testai.endpointservice.repository.SchemaBlobRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class SchemaBlobStoreTest {
+
+    private final SchemaBlobStore store = new SchemaBlobStore(mock(SchemaBlobRepository.class),
+            new SimpleMeterRegistry(), 1024, 24);
+
+    @Test
+    void propertiesKeepSpecOrder() {
+        Endpoint endpoint = Endpoint.builder()
+                .requestBody("{\"type\": \"object\", \"properties\": {\"zip\": {}, \"city\": {}, \"address\": {}}}")
+                .build();
+
+        store.prepare(endpoint);
+
+        assertThat(endpoint.getRequestBody())
+                .isEqualTo("{\"type\":\"object\",\"properties\":{\"zip\":{},\"city\":{},\"address\":{}}}");
+    }
+
+    @Test
+    void whitespaceDoesNotChangeTheHash() {
+        Endpoint compact = Endpoint.builder().responseBody("{\"a\":1,\"b\":[1.50,2]}").build();
+        Endpoint indented = Endpoint.builder().responseBody("{\n  \"a\": 1,\n  \"b\": [ 1.50, 2 ]\n}").build();
+
+        store.prepare(compact);
+        store.prepare(indented);
+
+        assertThat(indented.getResponseBodyHash()).isEqualTo(compact.getResponseBodyHash());
+        assertThat(indented.getResponseBody()).isEqualTo("{\"a\":1,\"b\":[1.50,2]}");
+    }
+
+    @Test
+    void invalidJsonIsKeptAsStringAndNullClearsTheHash() {
+        Endpoint endpoint = Endpoint.builder().requestBody("not json").requestBodyHash("stale").build();
+        endpoint.setResolvedRequestBodyHash("stale");
+
+        store.prepare(endpoint);
+
+        assertThat(endpoint.getRequestBody()).isEqualTo("\"not json\"");
+        assertThat(endpoint.getRequestBodyHash()).hasSize(64);
+        assertThat(endpoint.getResolvedRequestBodyHash()).isNull();
+    }
+}
@@ -0,0 +1,152 @@
+package com.testai.endpointservice.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SpecCacheTest {
+
+    @TempDir
+    Path root;
+
+    private final List<SpecCache> caches = new ArrayList<>();
+
+    @AfterEach
+    void closeCaches() throws IOException {
+        for (SpecCache cache : caches) {
+            cache.close();
+        }
+    }
+
+    @Test
+    void fetchedSpecStaysReadableAfterItsFileIsEvicted() throws IOException {
+        // Limite d'un octet : chaque nouvelle URL évince les précédentes
+        SpecCache cache = cache(1);
+
+        SpecCache.SpecContent first = cache.fetch("http://a/openapi.json");
+        cache.fetch("http://b/openapi.json");
+
+        assertThat(blobs()).hasSize(1);
+        // Chaque ouverture repart du début du fichier mappé, même supprimé du disque
+        assertThat(read(first)).isEqualTo("spec http://a/openapi.json");
+        assertThat(read(first)).isEqualTo("spec http://a/openapi.json");
+    }
+
+    @Test
+    void initLeavesForeignFilesAndLiveInstancesAlone() throws IOException {
+        Path foreign = Files.writeString(root.resolve("other-app.gz"), "not ours");
+        SpecCache live = cache(1024);
+        live.fetch("http://a/openapi.json");
+
+        cache(1024);
+
+        assertThat(foreign).exists();
+        assertThat(blobs()).hasSize(1);
+    }
+
+    @Test
+    void initRemovesInstancesWhoseProcessStopped() throws IOException {
+        Path stale = Files.createDirectory(root.resolve("instance-stale"));
+        Files.createFile(stale.resolve(".lock"));
+        Files.writeString(stale.resolve("0123.gz"), "old");
+
+        cache(1024);
+
+        assertThat(stale).doesNotExist();
+    }
+
+    @Test
+    void closeRemovesOwnInstanceDirectory() throws IOException {
+        SpecCache cache = cache(1024);
+        cache.fetch("http://a/openapi.json");
+
+        cache.close();
+        caches.remove(cache);
+
+        try (Stream<Path> entries = Files.list(root)) {
+            assertThat(entries).isEmpty();
+        }
+    }
+
+    @Test
+    void persistedValidatorsMakeTheFirstFetchConditional() throws IOException {
+        List<HttpHeaders> sent = new ArrayList<>();
+        SpecHttpClient client = mock(SpecHttpClient.class);
+        when(client.get(anyString(), any(HttpHeaders.class), any())).thenAnswer(invocation -> {
+            HttpHeaders headers = invocation.getArgument(1);
+            sent.add(headers);
+            SpecHttpClient.ResponseReader<?> reader = invocation.getArgument(2);
+            ClientHttpResponse response = mock(ClientHttpResponse.class);
+            boolean current = headers.getIfNoneMatch().contains("\"v1\"");
+            when(response.getStatusCode()).thenReturn(current ? HttpStatus.NOT_MODIFIED : HttpStatus.OK);
+            when(response.getHeaders()).thenReturn(new HttpHeaders());
+            return reader.read(response, new ByteArrayInputStream("spec".getBytes(StandardCharsets.UTF_8)));
+        });
+        SpecCache cache = new SpecCache(client, root.toString(), 1024);
+        cache.init();
+        caches.add(cache);
+
+        SpecCache.SpecContent unchanged = cache.fetch("http://a/openapi.json",
+                new SpecCache.KnownSpec("abc", "\"v1\"", null));
+        assertThat(sent.get(0).getIfNoneMatch()).containsExactly("\"v1\"");
+        assertThat(unchanged.hasBody()).isFalse();
+        assertThat(unchanged.spec().sha256()).isEqualTo("abc");
+        assertThat(unchanged.spec().etag()).isEqualTo("\"v1\"");
+
+        // Version persistée périmée : réponse complète, mise en cache
+        SpecCache.SpecContent changed = cache.fetch("http://a/openapi.json",
+                new SpecCache.KnownSpec("abc", "\"v0\"", null));
+        assertThat(changed.hasBody()).isTrue();
+        assertThat(read(changed)).isEqualTo("spec");
+    }
+
+    private SpecCache cache(long maxBytes) throws IOException {
+        SpecHttpClient client = mock(SpecHttpClient.class);
+        when(client.get(anyString(), any(HttpHeaders.class), any())).thenAnswer(invocation -> {
+            String url = invocation.getArgument(0);
+            SpecHttpClient.ResponseReader<?> reader = invocation.getArgument(2);
+            ClientHttpResponse response = mock(ClientHttpResponse.class);
+            when(response.getStatusCode()).thenReturn(HttpStatus.OK);
+            when(response.getHeaders()).thenReturn(new HttpHeaders());
+            return reader.read(response, new ByteArrayInputStream(("spec " + url).getBytes(StandardCharsets.UTF_8)));
+        });
+
+        SpecCache cache = new SpecCache(client, root.toString(), maxBytes);
+        cache.init();
+        caches.add(cache);
+        return cache;
+    }
+
+    private static String read(SpecCache.SpecContent content) throws IOException {
+        try (InputStream body = content.open()) {
+            return new String(body.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private List<Path> blobs() throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            return files.filter(file -> file.toString().endsWith(".gz"))
+                    .filter(file -> file.getParent().getFileName().toString().startsWith("instance-"))
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.testai.endpointservice.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SwaggerRefResolverTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * Node -> Tree -> Node (cycle), Chain0 -> Chain1 -> ... -> Chain5 (profondeur)
+     */
+    private static final String COMPONENTS = """
+            {
+              "components": {
+                "schemas": {
+                  "Node": {"type": "object", "properties": {"tree": {"$ref": "#/components/schemas/Tree"}}},
+                  "Tree": {"type": "object", "properties": {"root": {"$ref": "#/components/schemas/Node"}}},
+                  "Chain0": {"properties": {"next": {"$ref": "#/components/schemas/Chain1"}}},
+                  "Chain1": {"properties": {"next": {"$ref": "#/components/schemas/Chain2"}}},
+                  "Chain2": {"properties": {"next": {"$ref": "#/components/schemas/Chain3"}}},
+                  "Chain3": {"properties": {"next": {"$ref": "#/components/schemas/Chain4"}}},
+                  "Chain4": {"properties": {"next": {"$ref": "#/components/schemas/Chain5"}}},
+                  "Chain5": {"type": "string"},
+                  "Slash/Name": {"type": "integer"}
+                }
+              }
+            }""";
+
+    @Test
+    void fragmentWithoutInternalRefIsLeftUnchanged() {
+        SwaggerRefResolver resolver = resolver(10);
+
+        assertThat(resolver.resolveJson("{\"type\": \"string\"}")).isNull();
+        assertThat(resolver.resolveJson("{\"$ref\": \"other.yaml#/Pet\"}")).isNull();
+        assertThat(resolver.resolveJson(null)).isNull();
+    }
+
+    @Test
+    void cycleIsCutWithMarkerAtTheFirstRepeatedRef() throws Exception {
+        JsonNode node = resolve(resolver(10), "Node");
+
+        JsonNode tree = node.at("/properties/tree");
+        assertThat(tree.at("/type").asText()).isEqualTo("object");
+        JsonNode back = tree.at("/properties/root");
+        assertThat(back.at("/$ref").asText()).isEqualTo("#/components/schemas/Node");
+        assertThat(back.at("/x-circular-ref").asBoolean()).isTrue();
+    }
+
+    @Test
+    void cycleResultDoesNotDependOnWhichComponentWasResolvedFirst() throws Exception {
+        SwaggerRefResolver nodeFirst = resolver(10);
+        resolve(nodeFirst, "Node");
+
+        JsonNode tree = resolve(nodeFirst, "Tree");
+
+        assertThat(tree).isEqualTo(resolve(resolver(10), "Tree"));
+        assertThat(tree.at("/properties/root/properties/tree/x-circular-ref").asBoolean()).isTrue();
+    }
+
+    @Test
+    void expansionStopsAtMaxDepth() throws Exception {
+        JsonNode chain = resolve(resolver(3), "Chain0");
+
+        JsonNode third = chain.at("/properties/next/properties/next");
+        assertThat(third.at("/properties/next/$ref").asText()).isEqualTo("#/components/schemas/Chain3");
+        assertThat(third.at("/properties/next/x-max-depth").asBoolean()).isTrue();
+    }
+
+    @Test
+    void componentFirstReachedNearMaxDepthIsNotServedTruncatedElsewhere() throws Exception {
+        SwaggerRefResolver resolver = resolver(3);
+        resolve(resolver, "Chain0");
+
+        JsonNode chain2 = resolve(resolver, "Chain2");
+
+        // Chain2 -> Chain3 -> Chain4 tiennent dans 3 niveaux, seul Chain5 est tronqué
+        assertThat(chain2).isEqualTo(resolve(resolver(3), "Chain2"));
+        assertThat(chain2.at("/properties/next/properties/next/properties/next/x-max-depth").asBoolean()).isTrue();
+    }
+
+    @Test
+    void completeExpansionIsMemoisedAndReusedWithinRemainingDepth() throws Exception {
+        SwaggerRefResolver resolver = resolver(10);
+        resolver.warmUp();
+
+        JsonNode first = resolve(resolver, "Chain3");
+        JsonNode second = resolve(resolver, "Chain3");
+
+        assertThat(second).isEqualTo(first);
+        assertThat(first.at("/properties/next/properties/next/type").asText()).isEqualTo("string");
+        // Node et Tree (cycliques) ne sont jamais mémorisés
+        assertThat(resolver.getResolvedCount()).isEqualTo(7);
+    }
+
+    @Test
+    void refTokensAreUnescapedAndMissingTargetsMarked() throws Exception {
+        SwaggerRefResolver resolver = resolver(10);
+
+        JsonNode escaped = MAPPER.readTree(resolver.resolveJson("{\"$ref\": \"#/components/schemas/Slash~1Name\"}"));
+        JsonNode missing = MAPPER.readTree(resolver.resolveJson("{\"$ref\": \"#/components/schemas/Missing\"}"));
+
+        assertThat(escaped.at("/type").asText()).isEqualTo("integer");
+        assertThat(missing.at("/x-unresolved-ref").asBoolean()).isTrue();
+    }
+
+    private static SwaggerRefResolver resolver(int maxDepth) {
+        try {
+            return new SwaggerRefResolver(MAPPER.readTree(COMPONENTS), maxDepth, MAPPER);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static JsonNode resolve(SwaggerRefResolver resolver, String schema) throws Exception {
+        return MAPPER.readTree(resolver.resolveJson("{\"$ref\": \"#/components/schemas/" + schema + "\"}"));
+    }
+}
@@ -0,0 +1,121 @@
+package com.testai.endpointservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Temps de lecture d'une même spécification en JSON et en YAML (deux passes, comme un scan)
+ *
+ * Le document est généré en mémoire puis écrit dans les deux formats ; chaque mesure est la
+ * médiane de plusieurs lectures après échauffement. Sans base de données ; exclu de "mvn test"
+ * (nom sans suffixe Test) :
+ *
+ * mvn -B test -Dtest=SwaggerStreamParserBenchmark
+ */
+class SwaggerStreamParserBenchmark {
+
+    private static final int[] OPERATION_COUNTS = {100, 1_000, 10_000, 50_000};
+    private static final int ITERATIONS = 7;
+
+    private final SwaggerStreamParser parser = new SwaggerStreamParser();
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+    private final ObjectMapper yamlMapper = new ObjectMapper(new YAMLFactory());
+
+    @Test
+    void parseTimeByFormatAndSpecSize() throws IOException {
+        byte[] warmUp = jsonMapper.writeValueAsBytes(spec(1_000));
+        for (int i = 0; i < 20; i++) {
+            parse(warmUp, SwaggerStreamParser.SpecFormat.JSON, 1_000);
+            parse(yamlMapper.writeValueAsBytes(spec(1_000)), SwaggerStreamParser.SpecFormat.YAML, 1_000);
+        }
+
+        System.out.printf("%-10s %12s %12s %12s %12s %8s%n",
+                "opérations", "JSON (Ko)", "YAML (Ko)", "JSON (ms)", "YAML (ms)", "ratio");
+        for (int operations : OPERATION_COUNTS) {
+            ObjectNode spec = spec(operations);
+            byte[] json = jsonMapper.writeValueAsBytes(spec);
+            byte[] yaml = yamlMapper.writeValueAsBytes(spec);
+
+            double jsonMs = median(json, SwaggerStreamParser.SpecFormat.JSON, operations);
+            double yamlMs = median(yaml, SwaggerStreamParser.SpecFormat.YAML, operations);
+
+            System.out.printf("%-10d %12d %12d %12.1f %12.1f %8.1f%n", operations, json.length / 1024,
+                    yaml.length / 1024, jsonMs, yamlMs, yamlMs / jsonMs);
+        }
+    }
+
+    private double median(byte[] content, SwaggerStreamParser.SpecFormat format, int operations) throws IOException {
+        double[] timings = new double[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            parse(content, format, operations);
+            timings[i] = (System.nanoTime() - start) / 1_000_000.0;
+        }
+        Arrays.sort(timings);
+        return timings[ITERATIONS / 2];
+    }
+
+    /**
+     * Les deux passes d'un scan : en-tête (sections référençables) puis opérations
+     */
+    private void parse(byte[] content, SwaggerStreamParser.SpecFormat format, int operations) throws IOException {
+        AtomicInteger read = new AtomicInteger();
+        assertThat(parser.readHeader(new ByteArrayInputStream(content), format)).isNotNull();
+        parser.readOperations(new ByteArrayInputStream(content), format, UUID.randomUUID(),
+                endpoint -> read.incrementAndGet());
+        assertThat(read).hasValue(operations);
+    }
+
+    /**
+     * Spécification OpenAPI 3 de "operations" opérations (deux par chemin), schémas dans components
+     */
+    private static ObjectNode spec(int operations) {
+        JsonNodeFactory nodes = JsonNodeFactory.instance;
+        ObjectNode spec = nodes.objectNode().put("openapi", "3.0.1");
+        spec.putObject("info").put("title", "Benchmark").put("version", "1.0");
+        ObjectNode paths = spec.putObject("paths");
+        ObjectNode schemas = spec.putObject("components").putObject("schemas");
+
+        for (int i = 0; i < operations; i++) {
+            int resource = i / 2;
+            ObjectNode path = (ObjectNode) paths.get("/resources/" + resource + "/{id}");
+            if (path == null) {
+                path = paths.putObject("/resources/" + resource + "/{id}");
+                ObjectNode schema = schemas.putObject("Resource" + resource).put("type", "object");
+                ObjectNode properties = schema.putObject("properties");
+                properties.putObject("id").put("type", "string").put("format", "uuid");
+                properties.putObject("name").put("type", "string").put("maxLength", 255);
+                properties.putObject("count").put("type", "integer");
+            }
+            boolean read = i % 2 == 0;
+            ObjectNode operation = path.putObject(read ? "get" : "put");
+            operation.put("summary", (read ? "Lire" : "Modifier") + " la ressource " + resource);
+            operation.putArray("tags").add("resources").add("group-" + resource % 10);
+            ArrayNode parameters = operation.putArray("parameters");
+            parameters.addObject().put("name", "id").put("in", "path").put("required", true)
+                    .putObject("schema").put("type", "string");
+            String ref = "#/components/schemas/Resource" + resource;
+            if (!read) {
+                operation.putObject("requestBody").putObject("content").putObject("application/json")
+                        .putObject("schema").put("$ref", ref);
+            }
+            ObjectNode responses = operation.putObject("responses");
+            responses.putObject("200").put("description", "OK").putObject("content")
+                    .putObject("application/json").putObject("schema").put("$ref", ref);
+            responses.putObject("404").put("description", "Introuvable");
+        }
+        return spec;
+    }
+}
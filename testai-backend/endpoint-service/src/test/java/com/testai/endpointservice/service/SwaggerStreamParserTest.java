@@ -0,0 +1,113 @@
+package com.testai.endpointservice.service;
+
+import com.testai.endpointservice.entity.Endpoint;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class SwaggerStreamParserTest {
+
+    private static final String SPEC = """
+            {
+              "openapi": "3.0.1",
+              "paths": {
+                "/orders": {
+                  "parameters": [{"name": "trace", "in": "header"}],
+                  "get": {"summary": "List", "tags": ["orders", "read"], "responses": {"200": {"description": "ok"}}},
+                  "post": {"requestBody": {"$ref": "#/components/requestBodies/Order"}, "security": [{"oauth": []}],
+                           "responses": {"201": {"description": "created"}, "400": {"description": "bad"}}}
+                },
+                "/health": {"head": {}}
+              },
+              "components": {"requestBodies": {"Order": {"content": {}}}}
+            }""";
+
+    private final SwaggerStreamParser parser = new SwaggerStreamParser();
+
+    @Test
+    void readHeaderKeepsReferenceableSectionsDeclaredAfterPaths() throws IOException {
+        SwaggerStreamParser.ParseResult result = parser.readHeader(stream(SPEC), SwaggerStreamParser.SpecFormat.JSON);
+
+        assertThat(result.version()).isEqualTo("3.0.1");
+        assertThat(result.refRoot().at("/components/requestBodies/Order").isObject()).isTrue();
+        assertThat(result.refRoot().has("paths")).isFalse();
+    }
+
+    @Test
+    void readOperationsEmitsOneEndpointPerOperation() throws IOException {
+        UUID projectId = UUID.randomUUID();
+        List<Endpoint> endpoints = new ArrayList<>();
+
+        parser.readOperations(stream(SPEC), SwaggerStreamParser.SpecFormat.JSON, projectId, endpoints::add);
+
+        assertThat(endpoints).extracting(Endpoint::getMethod, Endpoint::getPath).containsExactly(
+                tuple(Endpoint.HttpMethod.GET, "/orders"),
+                tuple(Endpoint.HttpMethod.POST, "/orders"),
+                tuple(Endpoint.HttpMethod.HEAD, "/health"));
+        Endpoint get = endpoints.get(0);
+        assertThat(get.getProjectId()).isEqualTo(projectId);
+        assertThat(get.getTags()).isEqualTo("orders, read");
+        assertThat(get.getRequiresAuth()).isFalse();
+        Endpoint post = endpoints.get(1);
+        assertThat(post.getRequestBody()).contains("#/components/requestBodies/Order");
+        assertThat(post.getStatusCodes()).isEqualTo("201,400");
+        assertThat(post.getRequiresAuth()).isTrue();
+    }
+
+    @Test
+    void yamlUsesTheSameExtraction() throws IOException {
+        String yaml = """
+                swagger: "2.0"
+                paths:
+                  /pets/{id}:
+                    delete:
+                      summary: Remove
+                definitions:
+                  Pet:
+                    type: object
+                """;
+        List<Endpoint> endpoints = new ArrayList<>();
+
+        SwaggerStreamParser.ParseResult result = parser.readHeader(stream(yaml), SwaggerStreamParser.SpecFormat.YAML);
+        parser.readOperations(stream(yaml), SwaggerStreamParser.SpecFormat.YAML, UUID.randomUUID(), endpoints::add);
+
+        assertThat(result.version()).isEqualTo("2.0");
+        assertThat(result.refRoot().at("/definitions/Pet/type").asText()).isEqualTo("object");
+        assertThat(endpoints).singleElement().satisfies(endpoint -> {
+            assertThat(endpoint.getMethod()).isEqualTo(Endpoint.HttpMethod.DELETE);
+            assertThat(endpoint.getDescription()).isEqualTo("Remove");
+        });
+    }
+
+    @Test
+    void yamlLargerThanSnakeYamlDefaultLimitIsRead() throws IOException {
+        // Limite par défaut de SnakeYAML : 3 Mi caractères, dépassée par une extension après les chemins
+        String yaml = "openapi: 3.0.1\npaths:\n  /big:\n    get:\n      summary: Big\nx-filler:\n"
+                + "  - 0123456789012345678901234567890123456789\n".repeat(80_000);
+        List<Endpoint> endpoints = new ArrayList<>();
+
+        parser.readOperations(stream(yaml), SwaggerStreamParser.SpecFormat.YAML, UUID.randomUUID(), endpoints::add);
+
+        assertThat(yaml.length()).isGreaterThan(3 * 1024 * 1024);
+        assertThat(endpoints).singleElement().satisfies(endpoint ->
+                assertThat(endpoint.getDescription()).isEqualTo("Big"));
+    }
+
+    @Test
+    void emptyDocumentHasNoHeader() throws IOException {
+        assertThat(parser.readHeader(stream(""), SwaggerStreamParser.SpecFormat.JSON)).isNull();
+    }
+
+    private InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
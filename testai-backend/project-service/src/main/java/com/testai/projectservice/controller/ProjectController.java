@@ -1,8 +1,8 @@
 package com.testai.projectservice.controller;
 
-import com.testai.projectservice.dto.EndpointDTO;
+import com.testai.projectservice.dto.ProjectBatchRequest;
 import com.testai.projectservice.dto.ProjectDTO;
-import com.testai.projectservice.dto.ScanSwaggerResponse;
+import com.testai.projectservice.dto.ScanJobDTO;
 import com.testai.projectservice.entity.Project;
 import com.testai.projectservice.exception.UserNotFoundException;
 import com.testai.projectservice.feignclient.UserServiceClient;
@@ -10,6 +10,7 @@ import com.testai.projectservice.service.ProjectService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -23,7 +24,7 @@ import java.util.UUID;
 @RequestMapping("/api/projects")
 @RequiredArgsConstructor
 @Slf4j
-@CrossOrigin(origins = "*", allowedHeaders = "*")
+@CrossOrigin(origins = "*", allowedHeaders = "*", exposedHeaders = HttpHeaders.ETAG)
 public class ProjectController {
     @Autowired
     private ProjectService projectService;
@@ -103,8 +104,8 @@ public class ProjectController {
         log.info("🔍 Demande de scan des endpoints pour le projet {}", projectId);
 
         try {
-            ScanSwaggerResponse response = projectService.scanEndpoints(projectId);
-            return ResponseEntity.ok(response);
+            ScanJobDTO job = projectService.scanEndpoints(projectId);
+            return ResponseEntity.accepted().body(job);
 
         } catch (Exception e) {
             log.error("❌ Erreur lors du scan : {}", e.getMessage());
@@ -116,16 +117,99 @@ public class ProjectController {
     }
 
     /**
-     * ⭐️ NOUVEAU : Récupérer les endpoints d'un projet
-     * GET /api/projects/{projectId}/endpoints
+     * Suivre un job de scan des endpoints
+     * GET /api/projects/{projectId}/scan-endpoints/{jobId}
+     */
+    @GetMapping("/{projectId}/scan-endpoints/{jobId}")
+    public ResponseEntity<?> getScanJob(@PathVariable UUID projectId, @PathVariable UUID jobId) {
+        try {
+            return ResponseEntity.ok(projectService.getScanJob(projectId, jobId));
+
+        } catch (Exception e) {
+            log.error("❌ Erreur : {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", e.getMessage()
+            ));
+        }
+    }
+
+    /**
+     * ⭐️ NOUVEAU : Récupérer les endpoints d'un projet, page par page
+     * GET /api/projects/{projectId}/endpoints?cursor=...&size=50&view=summary
+     *
+     * Supporte If-None-Match (ETag de la liste, 304 si inchangée)
      */
     @GetMapping("/{projectId}/endpoints")
-    public ResponseEntity<?> getProjectEndpoints(@PathVariable UUID projectId) {
+    public ResponseEntity<?> getProjectEndpoints(
+            @PathVariable UUID projectId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String view,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info("📋 Récupération des endpoints du projet {}", projectId);
 
         try {
-            List<EndpointDTO> endpoints = projectService.getProjectEndpoints(projectId);
-            return ResponseEntity.ok(endpoints);
+            // ETag / 304 d'endpoint-service transmis tels quels
+            return projectService.getProjectEndpoints(projectId, cursor, size, view, ifNoneMatch);
+
+        } catch (Exception e) {
+            log.error("❌ Erreur : {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", e.getMessage()
+            ));
+        }
+    }
+
+    /**
+     * Récupérer le détail complet d'un endpoint d'un projet
+     * GET /api/projects/{projectId}/endpoints/{endpointId}
+     */
+    @GetMapping("/{projectId}/endpoints/{endpointId}")
+    public ResponseEntity<?> getProjectEndpoint(@PathVariable UUID projectId, @PathVariable UUID endpointId) {
+        try {
+            return ResponseEntity.ok(projectService.getProjectEndpoint(projectId, endpointId));
+
+        } catch (Exception e) {
+            log.error("❌ Erreur : {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", e.getMessage()
+            ));
+        }
+    }
+
+    /**
+     * Compter les endpoints de plusieurs projets en un seul appel (tableau de bord)
+     * POST /api/projects/endpoints/counts  {"projectIds": [...]}
+     */
+    @PostMapping("/endpoints/counts")
+    public ResponseEntity<?> countProjectsEndpoints(@RequestBody ProjectBatchRequest request) {
+        log.info("🔢 Comptage groupé des endpoints");
+
+        try {
+            return ResponseEntity.ok(projectService.countProjectsEndpoints(request.getProjectIds()));
+
+        } catch (Exception e) {
+            log.error("❌ Erreur : {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", e.getMessage()
+            ));
+        }
+    }
+
+    /**
+     * Récupérer la première page des endpoints de plusieurs projets en un seul appel
+     * POST /api/projects/endpoints/batch  {"projectIds": [...], "size": 50}
+     */
+    @PostMapping("/endpoints/batch")
+    public ResponseEntity<?> getProjectsEndpoints(@RequestBody ProjectBatchRequest request) {
+        log.info("📋 Récupération groupée des endpoints");
+
+        try {
+            return ResponseEntity.ok(projectService.getProjectsEndpoints(request.getProjectIds(), request.getSize()));
 
         } catch (Exception e) {
             log.error("❌ Erreur : {}", e.getMessage());
@@ -0,0 +1,23 @@
+package com.testai.projectservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO pour recevoir une page d'une liste paginée par curseur (endpoint-service)
+ *
+ * next est null sur la dernière page
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CursorPage<T> {
+    private List<T> items;
+    private String next;
+    private boolean hasMore;
+}
@@ -1,5 +1,7 @@
 package com.testai.projectservice.dto;
 
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -10,6 +12,9 @@ import java.util.UUID;
 
 /**
  * DTO pour recevoir les informations d'un endpoint
+ *
+ * Les fragments JSON (parameters, requestBody...) arrivent embarqués dans la réponse
+ * d'endpoint-service : ils sont conservés en texte brut et renvoyés tels quels au client.
  */
 @Data
 @NoArgsConstructor
@@ -23,9 +28,24 @@ public class EndpointDTO {
     private String description;
     private String discoveryType;  // DiscoveryType as String
     private String tags;
+    @JsonRawValue
+    @JsonDeserialize(using = RawJsonDeserializer.class)
     private String parameters;
+    @JsonRawValue
+    @JsonDeserialize(using = RawJsonDeserializer.class)
     private String requestBody;
+    @JsonRawValue
+    @JsonDeserialize(using = RawJsonDeserializer.class)
     private String responseBody;
+    @JsonRawValue
+    @JsonDeserialize(using = RawJsonDeserializer.class)
+    private String resolvedParameters;
+    @JsonRawValue
+    @JsonDeserialize(using = RawJsonDeserializer.class)
+    private String resolvedRequestBody;
+    @JsonRawValue
+    @JsonDeserialize(using = RawJsonDeserializer.class)
+    private String resolvedResponseBody;
     private String statusCodes;
     private Boolean requiresAuth;
     private LocalDateTime createdAt;
@@ -0,0 +1,21 @@
+package com.testai.projectservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTO pour interroger les endpoints de plusieurs projets en un seul appel
+ *
+ * size ne sert qu'au listing : nombre maximal d'endpoints renvoyés par projet.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProjectBatchRequest {
+    private List<UUID> projectIds;
+    private Integer size;
+}
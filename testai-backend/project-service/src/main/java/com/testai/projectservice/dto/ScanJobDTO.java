@@ -0,0 +1,33 @@
+package com.testai.projectservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * DTO pour recevoir l'état d'un job de scan Swagger (endpoint-service)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ScanJobDTO {
+    private UUID jobId;
+    private UUID projectId;
+    private String swaggerUrl;
+    private String status;  // PENDING, RUNNING, COMPLETED, FAILED
+    private String trigger;  // MANUAL, SCHEDULED
+    private int processedOperations;
+    private int totalEndpoints;
+    private int newEndpoints;
+    private int updatedEndpoints;
+    private int skippedEndpoints;
+    private String message;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
@@ -1,23 +0,0 @@
-package com.testai.projectservice.dto;
-
-import lombok.AllArgsConstructor;
-import lombok.Data;
-import lombok.NoArgsConstructor;
-
-import java.util.List;
-
-/**
- * DTO pour recevoir la réponse du scan Swagger
- */
-@Data
-@NoArgsConstructor
-@AllArgsConstructor
-public class ScanSwaggerResponse {
-    private boolean success;
-    private String message;
-    private int totalEndpoints;
-    private int newEndpoints;
-    private int updatedEndpoints;
-    private int skippedEndpoints;
-    private List<EndpointDTO> endpoints;
-}
\ No newline at end of file
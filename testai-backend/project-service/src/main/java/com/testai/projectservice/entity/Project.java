@@ -13,7 +13,7 @@ import java.util.UUID;
 @Builder
 public class Project {
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @Column(nullable = false)
@@ -1,13 +1,16 @@
 package com.testai.projectservice.feignclient;
 
 import com.testai.projectservice.config.FeignClientConfig;
+import com.testai.projectservice.dto.CursorPage;
 import com.testai.projectservice.dto.EndpointDTO;
+import com.testai.projectservice.dto.ProjectBatchRequest;
+import com.testai.projectservice.dto.ScanJobDTO;
 import com.testai.projectservice.dto.ScanSwaggerRequest;
-import com.testai.projectservice.dto.ScanSwaggerResponse;
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -22,18 +25,41 @@ import java.util.UUID;
 public interface EndpointServiceClient {
 
     /**
-     * Scanner les endpoints depuis une URL Swagger
+     * Soumettre un scan des endpoints depuis une URL Swagger (asynchrone)
      * POST /api/endpoints/scan
      */
     @PostMapping("/scan")
-    ScanSwaggerResponse scanSwagger(@RequestBody ScanSwaggerRequest request);
+    ScanJobDTO scanSwagger(@RequestBody ScanSwaggerRequest request);
 
     /**
-     * Récupérer tous les endpoints d'un projet
-     * GET /api/endpoints/project/{projectId}
+     * Récupérer l'état d'un job de scan
+     * GET /api/endpoints/scan/{jobId}
+     */
+    @GetMapping("/scan/{jobId}")
+    ScanJobDTO getScanJob(@PathVariable("jobId") UUID jobId);
+
+    /**
+     * Récupérer une page des endpoints d'un projet (pagination par curseur)
+     * GET /api/endpoints/project/{projectId}?cursor=...&size=...&view=...
+     *
+     * En vue summary, les fragments JSON (parameters, requestBody...) sont null.
+     * Requête conditionnelle si ifNoneMatch est renseigné : un 304 arrive sous forme de
+     * FeignException (status 304), la réponse 200 porte l'ETag de la liste.
      */
     @GetMapping("/project/{projectId}")
-    List<EndpointDTO> getEndpointsByProjectId(@PathVariable("projectId") UUID projectId);
+    ResponseEntity<CursorPage<EndpointDTO>> getEndpointsByProjectId(
+            @PathVariable("projectId") UUID projectId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", required = false) Integer size,
+            @RequestParam(value = "view", required = false) String view,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch);
+
+    /**
+     * Récupérer le détail complet d'un endpoint
+     * GET /api/endpoints/{id}
+     */
+    @GetMapping("/{id}")
+    EndpointDTO getEndpointById(@PathVariable("id") UUID id);
 
     /**
      * Compter les endpoints d'un projet
@@ -42,6 +68,24 @@ public interface EndpointServiceClient {
     @GetMapping("/project/{projectId}/count")
     Map<String, Object> countEndpointsByProjectId(@PathVariable("projectId") UUID projectId);
 
+    /**
+     * Compter les endpoints de plusieurs projets en un seul aller-retour
+     * POST /api/endpoints/counts
+     *
+     * Réponse : {projectId: count}, 0 pour un projet sans endpoint
+     */
+    @PostMapping("/counts")
+    Map<UUID, Long> countEndpointsByProjectIds(@RequestBody ProjectBatchRequest request);
+
+    /**
+     * Récupérer la première page (vue summary) des endpoints de plusieurs projets en un seul aller-retour
+     * POST /api/endpoints/batch
+     *
+     * next se poursuit avec getEndpointsByProjectId
+     */
+    @PostMapping("/batch")
+    Map<UUID, CursorPage<EndpointDTO>> getEndpointsByProjectIds(@RequestBody ProjectBatchRequest request);
+
     /**
      * Supprimer tous les endpoints d'un projet
      * DELETE /api/endpoints/project/{projectId}
@@ -1,10 +1,12 @@
 package com.testai.projectservice.service;
 
+import com.testai.projectservice.dto.CursorPage;
+import com.testai.projectservice.dto.ProjectBatchRequest;
 import com.testai.projectservice.dto.ProjectDTO;
 import com.testai.projectservice.dto.UserDTO;
 import com.testai.projectservice.dto.EndpointDTO;
+import com.testai.projectservice.dto.ScanJobDTO;
 import com.testai.projectservice.dto.ScanSwaggerRequest;
-import com.testai.projectservice.dto.ScanSwaggerResponse;
 import com.testai.projectservice.entity.Project;
 import com.testai.projectservice.exception.UserNotFoundException;
 import com.testai.projectservice.feignclient.EndpointServiceClient;
@@ -14,6 +16,9 @@ import feign.FeignException;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -98,14 +103,8 @@ public class ProjectService {
                     project.getDocUrl()
             );
 
-            ScanSwaggerResponse response = endpointServiceClient.scanSwagger(scanRequest);
-
-            if (response.isSuccess()) {
-                log.info("✅ Scan Swagger réussi : {} endpoints découverts ({} nouveaux)",
-                        response.getTotalEndpoints(), response.getNewEndpoints());
-            } else {
-                log.warn("⚠️ Échec du scan Swagger : {}", response.getMessage());
-            }
+            ScanJobDTO job = endpointServiceClient.scanSwagger(scanRequest);
+            log.info("✅ Scan Swagger soumis : job {} ({})", job.getJobId(), job.getStatus());
 
         } catch (FeignException e) {
             log.error("❌ Erreur lors du scan Swagger : {}", e.getMessage());
@@ -117,7 +116,7 @@ public class ProjectService {
      * ⭐️ NOUVEAU : Scanner manuellement les endpoints d'un projet
      */
     @Transactional
-    public ScanSwaggerResponse scanEndpoints(UUID projectId) {
+    public ScanJobDTO scanEndpoints(UUID projectId) {
         log.info("🔍 Scan manuel des endpoints pour le projet {}", projectId);
 
         Project project = projectRepository.findById(projectId)
@@ -133,9 +132,9 @@ public class ProjectService {
                     project.getDocUrl()
             );
 
-            ScanSwaggerResponse response = endpointServiceClient.scanSwagger(scanRequest);
-            log.info("✅ Scan terminé : {} endpoints", response.getTotalEndpoints());
-            return response;
+            ScanJobDTO job = endpointServiceClient.scanSwagger(scanRequest);
+            log.info("✅ Scan soumis : job {}", job.getJobId());
+            return job;
 
         } catch (FeignException e) {
             log.error("❌ Erreur lors du scan : {}", e.getMessage());
@@ -144,9 +143,30 @@ public class ProjectService {
     }
 
     /**
-     * ⭐️ NOUVEAU : Récupérer les endpoints d'un projet
+     * Suivre un job de scan soumis pour un projet
      */
-    public List<EndpointDTO> getProjectEndpoints(UUID projectId) {
+    public ScanJobDTO getScanJob(UUID projectId, UUID jobId) {
+        try {
+            ScanJobDTO job = endpointServiceClient.getScanJob(jobId);
+            if (!projectId.equals(job.getProjectId())) {
+                throw new RuntimeException("Job de scan non trouvé pour ce projet");
+            }
+            return job;
+        } catch (FeignException e) {
+            log.error("❌ Erreur lors de la récupération du job de scan : {}", e.getMessage());
+            throw new RuntimeException("Impossible de récupérer le job de scan : " + e.getMessage());
+        }
+    }
+
+    /**
+     * ⭐️ NOUVEAU : Récupérer une page des endpoints d'un projet
+     *
+     * L'ETag d'endpoint-service et le 304 d'une requête conditionnelle sont transmis tels quels.
+     *
+     * @param ifNoneMatch en-tête If-None-Match du client (optionnel)
+     */
+    public ResponseEntity<CursorPage<EndpointDTO>> getProjectEndpoints(UUID projectId, String cursor, Integer size,
+                                                                       String view, String ifNoneMatch) {
         log.info("📋 Récupération des endpoints du projet {}", projectId);
 
         // Vérifier que le projet existe
@@ -155,13 +175,59 @@ public class ProjectService {
         }
 
         try {
-            return endpointServiceClient.getEndpointsByProjectId(projectId);
+            ResponseEntity<CursorPage<EndpointDTO>> response =
+                    endpointServiceClient.getEndpointsByProjectId(projectId, cursor, size, view, ifNoneMatch);
+            return ResponseEntity.ok()
+                    .headers(cacheHeaders(response.getHeaders()))
+                    .body(response.getBody());
+
         } catch (FeignException e) {
+            if (e.status() == HttpStatus.NOT_MODIFIED.value()) {
+                HttpHeaders headers = new HttpHeaders();
+                e.responseHeaders().forEach((name, values) -> headers.addAll(name, List.copyOf(values)));
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(cacheHeaders(headers)).build();
+            }
             log.error("❌ Erreur lors de la récupération des endpoints : {}", e.getMessage());
             throw new RuntimeException("Impossible de récupérer les endpoints : " + e.getMessage());
         }
     }
 
+    /**
+     * En-têtes de cache d'une réponse d'endpoint-service à renvoyer au client
+     */
+    private HttpHeaders cacheHeaders(HttpHeaders source) {
+        HttpHeaders headers = new HttpHeaders();
+        if (source.getETag() != null) {
+            headers.setETag(source.getETag());
+        }
+        if (source.getCacheControl() != null) {
+            headers.setCacheControl(source.getCacheControl());
+        }
+        return headers;
+    }
+
+    /**
+     * Récupérer le détail complet d'un endpoint d'un projet
+     */
+    public EndpointDTO getProjectEndpoint(UUID projectId, UUID endpointId) {
+        log.info("🔍 Récupération de l'endpoint {} du projet {}", endpointId, projectId);
+
+        EndpointDTO endpoint;
+        try {
+            endpoint = endpointServiceClient.getEndpointById(endpointId);
+        } catch (FeignException.NotFound e) {
+            throw new RuntimeException("Endpoint non trouvé");
+        } catch (FeignException e) {
+            log.error("❌ Erreur lors de la récupération de l'endpoint : {}", e.getMessage());
+            throw new RuntimeException("Impossible de récupérer l'endpoint : " + e.getMessage());
+        }
+
+        if (!projectId.equals(endpoint.getProjectId())) {
+            throw new RuntimeException("Endpoint non trouvé pour ce projet");
+        }
+        return endpoint;
+    }
+
     /**
      * ⭐️ NOUVEAU : Compter les endpoints d'un projet
      */
@@ -180,6 +246,58 @@ public class ProjectService {
         }
     }
 
+    /**
+     * Compter les endpoints de plusieurs projets en un seul appel à endpoint-service
+     *
+     * Les IDs qui ne correspondent à aucun projet sont ignorés.
+     */
+    public Map<UUID, Long> countProjectsEndpoints(List<UUID> projectIds) {
+        List<UUID> ids = existingProjectIds(projectIds);
+        log.info("🔢 Comptage des endpoints de {} projet(s)", ids.size());
+
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            return endpointServiceClient.countEndpointsByProjectIds(new ProjectBatchRequest(ids, null));
+        } catch (FeignException e) {
+            log.error("❌ Erreur lors du comptage : {}", e.getMessage());
+            throw new RuntimeException("Impossible de compter les endpoints : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Récupérer la première page des endpoints de plusieurs projets en un seul appel à endpoint-service
+     *
+     * Les IDs qui ne correspondent à aucun projet sont ignorés.
+     */
+    public Map<UUID, CursorPage<EndpointDTO>> getProjectsEndpoints(List<UUID> projectIds, Integer size) {
+        List<UUID> ids = existingProjectIds(projectIds);
+        log.info("📋 Récupération des endpoints de {} projet(s)", ids.size());
+
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            return endpointServiceClient.getEndpointsByProjectIds(new ProjectBatchRequest(ids, size));
+        } catch (FeignException e) {
+            log.error("❌ Erreur lors de la récupération des endpoints : {}", e.getMessage());
+            throw new RuntimeException("Impossible de récupérer les endpoints : " + e.getMessage());
+        }
+    }
+
+    /**
+     * IDs des projets existants parmi ceux demandés, en une seule requête
+     */
+    private List<UUID> existingProjectIds(List<UUID> projectIds) {
+        if (projectIds == null || projectIds.isEmpty()) {
+            throw new RuntimeException("La liste des projets est obligatoire");
+        }
+        return projectRepository.findAllById(projectIds).stream()
+                .map(Project::getId)
+                .toList();
+    }
+
     public Project getProjectById(UUID projectId) {
         return projectRepository.findById(projectId)
                 .orElseThrow(() -> new RuntimeException("Projet non trouvé"));
@@ -155,26 +155,43 @@ export const projectService = {
   deleteProject: (projectId) => 
     api.delete(`/api/projects/${projectId}`),
   
-  getProjectEndpoints: (projectId) => 
-    api.get(`/api/projects/${projectId}/endpoints`),
+  // Pagination par curseur : params = { cursor, size, view: 'summary' }, réponse = { items, next, hasMore }
+  getProjectEndpoints: (projectId, params) => 
+    api.get(`/api/projects/${projectId}/endpoints`, { params }),
+  
+  getProjectEndpoint: (projectId, endpointId) => 
+    api.get(`/api/projects/${projectId}/endpoints/${endpointId}`),
   
   scanProjectEndpoints: (projectId) => 
     api.post(`/api/projects/${projectId}/scan-endpoints`),
   
   countProjectEndpoints: (projectId) => 
     api.get(`/api/projects/${projectId}/endpoints/count`),
+  
+  // Tableau de bord : un seul appel pour tous les projets, réponse = { projectId: count }
+  countProjectsEndpoints: (projectIds) => 
+    api.post('/api/projects/endpoints/counts', { projectIds }),
+  
+  // Première page (vue summary) de chaque projet, réponse = { projectId: { items, next, hasMore } }
+  getProjectsEndpoints: (projectIds, size) => 
+    api.post('/api/projects/endpoints/batch', { projectIds, size }),
 };
 
 // Endpoint Service
 export const endpointService = {
-  getAllEndpoints: () => 
-    api.get('/api/endpoints'),
+  // Pagination par curseur : params = { cursor, size, view: 'summary' }, réponse = { items, next, hasMore }
+  getAllEndpoints: (params) => 
+    api.get('/api/endpoints', { params }),
   
   getEndpointById: (endpointId) => 
     api.get(`/api/endpoints/${endpointId}`),
   
-  getEndpointsByProjectId: (projectId) => 
-    api.get(`/api/endpoints/project/${projectId}`),
+  getEndpointsByProjectId: (projectId, params) => 
+    api.get(`/api/endpoints/project/${projectId}`, { params }),
+  
+  // Recherche plein texte côté serveur (préfixes, triée par pertinence) : params = { projectId, size }
+  searchEndpoints: (q, params) => 
+    api.get('/api/endpoints/search/text', { params: { q, ...params } }),
   
   createEndpoint: (endpointData) => 
     api.post('/api/endpoints', endpointData),
@@ -187,6 +204,18 @@ export const endpointService = {
   
   scanSwagger: (projectId, swaggerUrl) => 
     api.post('/api/endpoints/scan', { projectId, swaggerUrl }),
+  
+  // Comptages par méthode, type de découverte, tag et authentification (sans projectId : tous les projets)
+  getEndpointStats: (projectId) => 
+    api.get('/api/endpoints/stats', { params: { projectId } }),
+
+  // Historique : instantanés et JSON Patch, de la plus ancienne à la plus récente révision
+  getEndpointRevisions: (endpointId) =>
+    api.get(`/api/endpoints/${endpointId}/revisions`),
+
+  // Endpoint tel qu'il était : params = { at: '2024-01-01T00:00:00' } ou { scanId }
+  getEndpointAsOf: (endpointId, params) =>
+    api.get(`/api/endpoints/${endpointId}/as-of`, { params }),
 };
 
 // Export par défaut de l'instance Axios